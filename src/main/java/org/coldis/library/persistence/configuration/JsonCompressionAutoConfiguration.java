@@ -0,0 +1,70 @@
+package org.coldis.library.persistence.configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import org.coldis.library.exception.IntegrationException;
+import org.coldis.library.model.SimpleMessage;
+import org.coldis.library.persistence.converter.JsonCompressionHelper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * JSON compression auto configuration. Registers the JSON compression
+ * dictionaries (by identifier, from resource locations, e.g.
+ * <code>{1:'classpath:json-dictionary-1.bin'}</code>) and sets the dictionary
+ * used for new values and the compression level.
+ */
+@Configuration
+public class JsonCompressionAutoConfiguration {
+
+	/**
+	 * Resource loader.
+	 */
+	@Autowired
+	private ResourceLoader resourceLoader;
+
+	/**
+	 * Dictionaries locations (by dictionary identifier).
+	 */
+	@Value("#{${org.coldis.library.persistence.compression.dictionaries:{:}}}")
+	private Map<Integer, String> dictionaries;
+
+	/**
+	 * Dictionary used for new values.
+	 */
+	@Value("${org.coldis.library.persistence.compression.current-dictionary:" + JsonCompressionHelper.NO_DICTIONARY + "}")
+	private Integer currentDictionary;
+
+	/**
+	 * Compression level.
+	 */
+	@Value("${org.coldis.library.persistence.compression.level:-1}")
+	private Integer level;
+
+	/**
+	 * Configures the JSON compression.
+	 */
+	@PostConstruct
+	public void init() {
+		// Registers the dictionaries.
+		for (final Map.Entry<Integer, String> dictionary : this.dictionaries.entrySet()) {
+			try (InputStream dictionaryInput = this.resourceLoader.getResource(dictionary.getValue()).getInputStream()) {
+				JsonCompressionHelper.registerDictionary(dictionary.getKey(), dictionaryInput.readAllBytes());
+			}
+			// If the dictionary cannot be read.
+			catch (final IOException exception) {
+				throw new IntegrationException(new SimpleMessage("json.compression.dictionary.notfound"), exception);
+			}
+		}
+		// Sets the dictionary used for new values and the compression level.
+		JsonCompressionHelper.setCurrentDictionaryId(this.currentDictionary);
+		JsonCompressionHelper.setCompressionLevel(this.level);
+	}
+
+}
@@ -18,8 +18,10 @@ import org.springframework.context.annotation.PropertySource;
 		matchIfMissing = true
 )
 @PropertySource(value = { PersistenceAutoConfiguration.PERSISTENCE_PROPERTIES })
-@Import(value = { AopTransactionManagementAutoConfiguration.class, ProxyTransactionManagementAutoConfiguration.class, JpaAutoConfiguration.class })
-@AutoConfigureBefore(value = { JpaBaseConfiguration.class, HibernateJpaAutoConfiguration.class })
+@Import(value = { AopTransactionManagementAutoConfiguration.class, ProxyTransactionManagementAutoConfiguration.class, JpaAutoConfiguration.class,
+		JsonCompressionAutoConfiguration.class })
+@AutoConfigureBefore(value = { JpaBaseConfiguration.class, HibernateJpaAutoConfiguration.class,
+		JsonCompressionAutoConfiguration.class })
 public class PersistenceAutoConfiguration {
 
 	/**
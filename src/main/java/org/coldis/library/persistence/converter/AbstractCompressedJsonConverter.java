@@ -0,0 +1,41 @@
+package org.coldis.library.persistence.converter;
+
+import java.io.ByteArrayInputStream;
+
+import jakarta.persistence.AttributeConverter;
+
+/**
+ * Abstract JPA converter to compressed JSON (bytes, to be used with
+ * <code>BYTEA</code> columns).
+ *
+ * @param <ObjectType> Any type.
+ */
+public abstract class AbstractCompressedJsonConverter<ObjectType> implements AttributeConverter<ObjectType, byte[]> {
+
+	/**
+	 * Gets the JSON converter.
+	 *
+	 * @return The JSON converter.
+	 */
+	protected abstract AbstractJsonConverter<ObjectType> getJsonConverter();
+
+	/**
+	 * @see jakarta.persistence.AttributeConverter#convertToDatabaseColumn(java.lang.Object)
+	 */
+	@Override
+	public byte[] convertToDatabaseColumn(
+			final ObjectType originalObject) {
+		return originalObject == null ? null : JsonCompressionHelper.compress(this.getJsonConverter().convertToDatabaseBytes(originalObject));
+	}
+
+	/**
+	 * @see jakarta.persistence.AttributeConverter#convertToEntityAttribute(java.lang.Object)
+	 */
+	@Override
+	public ObjectType convertToEntityAttribute(
+			final byte[] compressedObject) {
+		return compressedObject == null ? null
+				: this.getJsonConverter().convertToEntityAttribute(new ByteArrayInputStream(JsonCompressionHelper.decompress(compressedObject)));
+	}
+
+}
@@ -1,9 +1,13 @@
 package org.coldis.library.persistence.converter;
 
-import org.coldis.library.model.view.ModelView;
-import org.coldis.library.persistence.configuration.JpaAutoConfiguration;
-import org.coldis.library.serialization.ObjectMapperHelper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
+import org.coldis.library.exception.IntegrationException;
+import org.coldis.library.model.SimpleMessage;
+
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.persistence.AttributeConverter;
@@ -15,18 +19,53 @@ import jakarta.persistence.AttributeConverter;
  */
 public abstract class AbstractJsonConverter<ObjectType> implements AttributeConverter<ObjectType, String> {
 
-	/**
-	 * Serialization view to be used.
-	 */
-	private static final Class<?> SERIALIZATION_VIEW = ModelView.Persistent.class;
-
 	/**
 	 * Returns the object mapper.
 	 *
 	 * @return The object mapper.
 	 */
 	protected ObjectMapper getObjectMapper() {
-		return (JpaAutoConfiguration.OBJECT_MAPPER == null ? ObjectMapperHelper.createMapper() : JpaAutoConfiguration.OBJECT_MAPPER);
+		return JsonConverterRegistry.getObjectMapper();
+	}
+
+	/**
+	 * Gets the type reference for the entity attribute (used to build the cached
+	 * reader). By default, there is no type reference, and JSON is read with
+	 * {@link #convertToEntityAttribute(ObjectMapper, String)} (so converters
+	 * written before the type reference existed keep working).
+	 *
+	 * @return The type reference for the entity attribute (or <code>null</code>,
+	 *         if the converter reads JSON itself).
+	 */
+	protected TypeReference<? extends ObjectType> getTypeReference() {
+		return null;
+	}
+
+	/**
+	 * Converts the JSON object to the entity type.
+	 *
+	 * @param      jsonMapper Object mapper to be used.
+	 * @param      jsonObject JSON object.
+	 * @return                Converted JSON object.
+	 * @deprecated            Override {@link #getTypeReference()} instead, so the
+	 *                        cached reader (and byte streaming) are used.
+	 */
+	@Deprecated
+	protected ObjectType convertToEntityAttribute(
+			final ObjectMapper jsonMapper,
+			final String jsonObject) {
+		// If there is no type reference either, the converter cannot read JSON.
+		if (this.getTypeReference() == null) {
+			throw new IntegrationException(new SimpleMessage("json.converter.type.missing"));
+		}
+		// Tries to deserialize the object with the cached reader.
+		try {
+			return JsonConverterRegistry.getReader(this).readValue(jsonObject);
+		}
+		// If the object cannot be deserialized.
+		catch (final IOException exception) {
+			throw new IntegrationException(new SimpleMessage("json.deserialization.failed"), exception);
+		}
 	}
 
 	/**
@@ -35,28 +74,78 @@ public abstract class AbstractJsonConverter<ObjectType> implements AttributeConv
 	@Override
 	public String convertToDatabaseColumn(
 			final ObjectType originalObject) {
-		// Returns the JSON object.
-		return ObjectMapperHelper.serialize(this.getObjectMapper(), originalObject, AbstractJsonConverter.SERIALIZATION_VIEW, false);
+		// Tries to serialize the object with the cached (persistent view) writer.
+		try {
+			return JsonConverterRegistry.getWriter(this).writeValueAsString(originalObject);
+		}
+		// If the object cannot be serialized.
+		catch (final IOException exception) {
+			throw new IntegrationException(new SimpleMessage("json.serialization.failed"), exception);
+		}
 	}
 
 	/**
-	 * Converts the JSON object to the entity type.
+	 * Converts the object to the JSON (UTF-8) bytes, without an intermediate
+	 * string.
 	 *
-	 * @param  jsonMapper Object mapper to be used.
-	 * @param  jsonObject JSON object.
-	 * @return            Converted JSON object.
+	 * @param  originalObject Original object.
+	 * @return                The JSON bytes.
 	 */
-	protected abstract ObjectType convertToEntityAttribute(
-			final ObjectMapper jsonMapper,
-			final String jsonObject);
+	public byte[] convertToDatabaseBytes(
+			final ObjectType originalObject) {
+		// Tries to serialize the object directly to bytes.
+		try {
+			return JsonConverterRegistry.getWriter(this).writeValueAsBytes(originalObject);
+		}
+		// If the object cannot be serialized.
+		catch (final IOException exception) {
+			throw new IntegrationException(new SimpleMessage("json.serialization.failed"), exception);
+		}
+	}
 
 	/**
 	 * @see jakarta.persistence.AttributeConverter#convertToEntityAttribute(java.lang.Object)
 	 */
 	@Override
+	@SuppressWarnings("deprecation")
 	public ObjectType convertToEntityAttribute(
 			final String jsonObject) {
-		return jsonObject == null ? null : this.convertToEntityAttribute(this.getObjectMapper(), jsonObject);
+		// If there is no type reference, reads the JSON with the converter itself.
+		if ((jsonObject != null) && (this.getTypeReference() == null)) {
+			return this.convertToEntityAttribute(this.getObjectMapper(), jsonObject);
+		}
+		// Tries to deserialize the object with the cached reader.
+		try {
+			return jsonObject == null ? null : JsonConverterRegistry.getReader(this).readValue(jsonObject);
+		}
+		// If the object cannot be deserialized.
+		catch (final IOException exception) {
+			throw new IntegrationException(new SimpleMessage("json.deserialization.failed"), exception);
+		}
+	}
+
+	/**
+	 * Converts the JSON (UTF-8) bytes to the entity type, streaming the parser
+	 * directly over the input (without an intermediate string).
+	 *
+	 * @param  jsonObject JSON object stream.
+	 * @return            Converted JSON object.
+	 */
+	@SuppressWarnings("deprecation")
+	public ObjectType convertToEntityAttribute(
+			final InputStream jsonObject) {
+		// Tries to deserialize the object directly from the stream.
+		try {
+			// If there is no type reference, reads the JSON with the converter itself.
+			if ((jsonObject != null) && (this.getTypeReference() == null)) {
+				return this.convertToEntityAttribute(this.getObjectMapper(), new String(jsonObject.readAllBytes(), StandardCharsets.UTF_8));
+			}
+			return jsonObject == null ? null : JsonConverterRegistry.getReader(this).readValue(jsonObject);
+		}
+		// If the object cannot be deserialized.
+		catch (final IOException exception) {
+			throw new IntegrationException(new SimpleMessage("json.deserialization.failed"), exception);
+		}
 	}
 
 }
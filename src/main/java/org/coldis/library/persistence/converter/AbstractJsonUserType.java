@@ -0,0 +1,149 @@
+package org.coldis.library.persistence.converter;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.UserType;
+
+/**
+ * Abstract Hibernate JSON user type that reads the JSON column straight from
+ * the JDBC (UTF-8) bytes, without the intermediate string used by
+ * {@link AbstractJsonConverter} as a JPA attribute converter. Only reads (and
+ * second-level cache entries) use bytes: the PostgreSQL driver binds JSON
+ * parameters as text (a string, also inside a <code>PGobject</code>), so writes
+ * serialize the value once, directly to the bound string.
+ *
+ * @param <ObjectType> Any type.
+ */
+public abstract class AbstractJsonUserType<ObjectType> implements UserType<ObjectType> {
+
+	/**
+	 * Gets the JSON converter used by the user type.
+	 *
+	 * @return The JSON converter used by the user type.
+	 */
+	protected abstract AbstractJsonConverter<ObjectType> getConverter();
+
+	/**
+	 * @see org.hibernate.usertype.UserType#getSqlType()
+	 */
+	@Override
+	public int getSqlType() {
+		return Types.OTHER;
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#equals(java.lang.Object,
+	 *      java.lang.Object)
+	 */
+	@Override
+	public boolean equals(
+			final ObjectType object,
+			final ObjectType otherObject) {
+		return JsonMutabilityPlan.areEqual(object, otherObject);
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#hashCode(java.lang.Object)
+	 */
+	@Override
+	public int hashCode(
+			final ObjectType object) {
+		return JsonMutabilityPlan.hashCode(object);
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#nullSafeGet(java.sql.ResultSet, int,
+	 *      org.hibernate.engine.spi.SharedSessionContractImplementor,
+	 *      java.lang.Object)
+	 */
+	@Override
+	public ObjectType nullSafeGet(
+			final ResultSet resultSet,
+			final int position,
+			final SharedSessionContractImplementor session,
+			final Object owner) throws SQLException {
+		// Streams the column bytes straight into the JSON parser.
+		final InputStream jsonObject = resultSet.getBinaryStream(position);
+		return jsonObject == null ? null : this.getConverter().convertToEntityAttribute(jsonObject);
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#nullSafeSet(java.sql.PreparedStatement,
+	 *      java.lang.Object, int,
+	 *      org.hibernate.engine.spi.SharedSessionContractImplementor)
+	 */
+	@Override
+	public void nullSafeSet(
+			final PreparedStatement statement,
+			final ObjectType value,
+			final int index,
+			final SharedSessionContractImplementor session) throws SQLException {
+		// If there is no value.
+		if (value == null) {
+			statement.setNull(index, Types.OTHER);
+		}
+		// If there is a value, binds it as an untyped parameter (so the database casts
+		// it to the JSON column type). The driver only sends JSON parameters as text,
+		// so the value is serialized straight to a string (not to bytes first).
+		else {
+			statement.setObject(index, this.getConverter().convertToDatabaseColumn(value), Types.OTHER);
+		}
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#deepCopy(java.lang.Object)
+	 */
+	@Override
+	public ObjectType deepCopy(
+			final ObjectType value) {
+		return JsonMutabilityPlan.copy(value);
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#isMutable()
+	 */
+	@Override
+	public boolean isMutable() {
+		return true;
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#disassemble(java.lang.Object)
+	 */
+	@Override
+	public Serializable disassemble(
+			final ObjectType value) {
+		return value == null ? null : this.getConverter().convertToDatabaseBytes(value);
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#assemble(java.io.Serializable,
+	 *      java.lang.Object)
+	 */
+	@Override
+	public ObjectType assemble(
+			final Serializable cached,
+			final Object owner) {
+		return cached == null ? null : this.getConverter().convertToEntityAttribute(new ByteArrayInputStream((byte[]) cached));
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#replace(java.lang.Object,
+	 *      java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	public ObjectType replace(
+			final ObjectType detached,
+			final ObjectType managed,
+			final Object owner) {
+		return this.deepCopy(detached);
+	}
+
+}
@@ -0,0 +1,29 @@
+package org.coldis.library.persistence.converter;
+
+import java.util.Map;
+
+import org.hibernate.annotations.Mutability;
+
+import jakarta.persistence.Converter;
+
+/**
+ * Map from/to compressed JSON converter.
+ */
+@Converter
+@Mutability(JsonMutabilityPlan.class)
+public class CompressedMapJsonConverter extends AbstractCompressedJsonConverter<Map<String, Object>> {
+
+	/**
+	 * JSON converter.
+	 */
+	private static final MapJsonConverter JSON_CONVERTER = new MapJsonConverter();
+
+	/**
+	 * @see org.coldis.library.persistence.converter.AbstractCompressedJsonConverter#getJsonConverter()
+	 */
+	@Override
+	protected AbstractJsonConverter<Map<String, Object>> getJsonConverter() {
+		return CompressedMapJsonConverter.JSON_CONVERTER;
+	}
+
+}
@@ -0,0 +1,260 @@
+package org.coldis.library.persistence.converter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.coldis.library.exception.IntegrationException;
+import org.coldis.library.model.SimpleMessage;
+
+/**
+ * JSON compression helper. Compresses JSON (UTF-8) bytes with DEFLATE and an
+ * optional preset dictionary (trained from sample JSON documents). DEFLATE is
+ * used instead of zstd or LZ4 because the library only depends on the JDK for
+ * it (the Java zstd and LZ4 bindings ship native binaries per platform, which
+ * is not acceptable for a library used in every service), and zlib supports
+ * preset dictionaries natively, which is where most of the gain is for small
+ * JSON states (PostgreSQL already compresses large values with TOAST). The
+ * format version allows other algorithms to be added later. Every
+ * compressed value records the format version and the dictionary identifier
+ * used, so values compressed with older dictionaries can still be decoded
+ * (as long as these dictionaries are still registered). Dictionaries and the
+ * compression level can be configured with properties (see
+ * {@link org.coldis.library.persistence.configuration.JsonCompressionAutoConfiguration}).
+ */
+public class JsonCompressionHelper {
+
+	/**
+	 * Format version.
+	 */
+	public static final byte FORMAT_VERSION = 1;
+
+	/**
+	 * Header size (format version and dictionary identifier).
+	 */
+	private static final int HEADER_SIZE = 5;
+
+	/**
+	 * No dictionary identifier.
+	 */
+	public static final int NO_DICTIONARY = 0;
+
+	/**
+	 * Maximum dictionary size (DEFLATE window size).
+	 */
+	public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+	/**
+	 * Registered dictionaries.
+	 */
+	private static final Map<Integer, byte[]> DICTIONARIES = new ConcurrentHashMap<>();
+
+	/**
+	 * Dictionary used for new values.
+	 */
+	private static volatile int currentDictionaryId = JsonCompressionHelper.NO_DICTIONARY;
+
+	/**
+	 * Compression level.
+	 */
+	private static volatile int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+	/**
+	 * Registers a dictionary (dictionaries must never change once used).
+	 *
+	 * @param dictionaryId Dictionary identifier.
+	 * @param dictionary   Dictionary.
+	 */
+	public static void registerDictionary(
+			final int dictionaryId,
+			final byte[] dictionary) {
+		if (dictionaryId == JsonCompressionHelper.NO_DICTIONARY) {
+			throw new IllegalArgumentException("Dictionary identifier " + JsonCompressionHelper.NO_DICTIONARY + " is reserved.");
+		}
+		JsonCompressionHelper.DICTIONARIES.put(dictionaryId, dictionary);
+	}
+
+	/**
+	 * Gets the dictionary used for new values.
+	 *
+	 * @return The dictionary used for new values.
+	 */
+	public static int getCurrentDictionaryId() {
+		return JsonCompressionHelper.currentDictionaryId;
+	}
+
+	/**
+	 * Sets the dictionary used for new values.
+	 *
+	 * @param dictionaryId Dictionary identifier (must be registered).
+	 */
+	public static void setCurrentDictionaryId(
+			final int dictionaryId) {
+		if ((dictionaryId != JsonCompressionHelper.NO_DICTIONARY) && !JsonCompressionHelper.DICTIONARIES.containsKey(dictionaryId)) {
+			throw new IllegalArgumentException("Dictionary " + dictionaryId + " is not registered.");
+		}
+		JsonCompressionHelper.currentDictionaryId = dictionaryId;
+	}
+
+	/**
+	 * Sets the compression level.
+	 *
+	 * @param compressionLevel New compression level.
+	 */
+	public static void setCompressionLevel(
+			final int compressionLevel) {
+		JsonCompressionHelper.compressionLevel = compressionLevel;
+	}
+
+	/**
+	 * Trains a dictionary from sample JSON documents. The most valuable
+	 * (frequency times length) JSON fragments are placed at the end of the
+	 * dictionary, as DEFLATE references closer strings with fewer bits.
+	 *
+	 * @param  samples Sample JSON documents.
+	 * @param  maxSize Maximum dictionary size (in bytes).
+	 * @return         The trained dictionary.
+	 */
+	public static byte[] trainDictionary(
+			final Collection<byte[]> samples,
+			final int maxSize) {
+		// Counts the JSON fragments (split on structural characters) in the samples.
+		final Map<String, Integer> fragments = new HashMap<>();
+		for (final byte[] sample : samples) {
+			for (final String fragment : new String(sample, StandardCharsets.UTF_8).split("(?<=[,{}\\[\\]])")) {
+				if (fragment.length() > 2) {
+					fragments.merge(fragment, 1, Integer::sum);
+				}
+			}
+		}
+		// Keeps only repeated fragments (the most valuable first), up to the maximum
+		// size in UTF-8 bytes.
+		final int dictionaryMaxSize = Math.min(maxSize, JsonCompressionHelper.MAX_DICTIONARY_SIZE);
+		final List<byte[]> dictionaryFragments = new ArrayList<>();
+		int dictionarySize = 0;
+		for (final Entry<String, Integer> fragment : fragments.entrySet().stream().filter(fragment -> fragment.getValue() > 1)
+				.sorted((fragment1, fragment2) -> Long.compare(JsonCompressionHelper.getValue(fragment2), JsonCompressionHelper.getValue(fragment1)))
+				.toList()) {
+			final byte[] fragmentBytes = fragment.getKey().getBytes(StandardCharsets.UTF_8);
+			if ((dictionarySize + fragmentBytes.length) > dictionaryMaxSize) {
+				break;
+			}
+			dictionaryFragments.add(fragmentBytes);
+			dictionarySize += fragmentBytes.length;
+		}
+		// Returns the dictionary (the most valuable fragments last).
+		final ByteArrayOutputStream dictionary = new ByteArrayOutputStream(dictionarySize);
+		for (int index = dictionaryFragments.size() - 1; index >= 0; index--) {
+			dictionary.writeBytes(dictionaryFragments.get(index));
+		}
+		return dictionary.toByteArray();
+	}
+
+	/**
+	 * Gets the value of a dictionary fragment.
+	 *
+	 * @param  fragment Fragment and its frequency.
+	 * @return          The fragment value.
+	 */
+	private static long getValue(
+			final Entry<String, Integer> fragment) {
+		return ((long) fragment.getValue()) * fragment.getKey().getBytes(StandardCharsets.UTF_8).length;
+	}
+
+	/**
+	 * Compresses JSON bytes.
+	 *
+	 * @param  json JSON bytes.
+	 * @return      The compressed value.
+	 */
+	public static byte[] compress(
+			final byte[] json) {
+		// Gets the dictionary to be used.
+		final int dictionaryId = JsonCompressionHelper.currentDictionaryId;
+		final byte[] dictionary = JsonCompressionHelper.DICTIONARIES.get(dictionaryId);
+		// Writes the header.
+		final ByteArrayOutputStream compressed = new ByteArrayOutputStream(JsonCompressionHelper.HEADER_SIZE + (json.length / 4) + 64);
+		compressed.writeBytes(ByteBuffer.allocate(JsonCompressionHelper.HEADER_SIZE).put(JsonCompressionHelper.FORMAT_VERSION).putInt(dictionaryId).array());
+		// Compresses the JSON.
+		final Deflater deflater = new Deflater(JsonCompressionHelper.compressionLevel);
+		try {
+			if (dictionary != null) {
+				deflater.setDictionary(dictionary);
+			}
+			deflater.setInput(json);
+			deflater.finish();
+			final byte[] buffer = new byte[8 * 1024];
+			while (!deflater.finished()) {
+				compressed.write(buffer, 0, deflater.deflate(buffer));
+			}
+		}
+		finally {
+			deflater.end();
+		}
+		// Returns the compressed value.
+		return compressed.toByteArray();
+	}
+
+	/**
+	 * Decompresses a value into the JSON bytes.
+	 *
+	 * @param  compressed Compressed value.
+	 * @return            The JSON bytes.
+	 */
+	public static byte[] decompress(
+			final byte[] compressed) {
+		// Reads the header (if the value is not shorter than it).
+		if ((compressed == null) || (compressed.length < JsonCompressionHelper.HEADER_SIZE)) {
+			throw new IntegrationException(new SimpleMessage("json.compression.data.truncated"));
+		}
+		final ByteBuffer header = ByteBuffer.wrap(compressed, 0, JsonCompressionHelper.HEADER_SIZE);
+		final byte formatVersion = header.get();
+		final int dictionaryId = header.getInt();
+		if (formatVersion != JsonCompressionHelper.FORMAT_VERSION) {
+			throw new IntegrationException(new SimpleMessage("json.compression.format.invalid"));
+		}
+		// Decompresses the JSON.
+		final ByteArrayOutputStream json = new ByteArrayOutputStream(compressed.length * 4);
+		final Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(compressed, JsonCompressionHelper.HEADER_SIZE, compressed.length - JsonCompressionHelper.HEADER_SIZE);
+			final byte[] buffer = new byte[8 * 1024];
+			while (!inflater.finished()) {
+				final int inflated = inflater.inflate(buffer);
+				// If the dictionary is needed, sets it.
+				if ((inflated == 0) && inflater.needsDictionary()) {
+					final byte[] dictionary = JsonCompressionHelper.DICTIONARIES.get(dictionaryId);
+					if (dictionary == null) {
+						throw new IntegrationException(new SimpleMessage("json.compression.dictionary.notfound"));
+					}
+					inflater.setDictionary(dictionary);
+				}
+				// If the input is truncated.
+				else if ((inflated == 0) && inflater.needsInput()) {
+					throw new IntegrationException(new SimpleMessage("json.compression.data.truncated"));
+				}
+				json.write(buffer, 0, inflated);
+			}
+		}
+		// If the data is corrupted.
+		catch (final DataFormatException exception) {
+			throw new IntegrationException(new SimpleMessage("json.compression.data.invalid"), exception);
+		}
+		finally {
+			inflater.end();
+		}
+		// Returns the JSON.
+		return json.toByteArray();
+	}
+
+}
@@ -0,0 +1,138 @@
+package org.coldis.library.persistence.converter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.coldis.library.model.view.ModelView;
+import org.coldis.library.persistence.configuration.JpaAutoConfiguration;
+import org.coldis.library.serialization.ObjectMapperHelper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Registry of pre-built (immutable) JSON readers and writers per converter
+ * type. Entries are rebuilt whenever the converters object mapper changes.
+ */
+public class JsonConverterRegistry {
+
+	/**
+	 * Serialization view to be used.
+	 */
+	public static final Class<?> SERIALIZATION_VIEW = ModelView.Persistent.class;
+
+	/**
+	 * Default object mapper (used while there is no configured mapper).
+	 */
+	private static ObjectMapper defaultObjectMapper;
+
+	/**
+	 * Entries by converter type.
+	 */
+	private static final Map<Class<?>, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+	/**
+	 * Converter entry.
+	 */
+	private static final class Entry {
+
+		/**
+		 * Object mapper used to build the entry.
+		 */
+		private final ObjectMapper objectMapper;
+
+		/**
+		 * Reader.
+		 */
+		private final ObjectReader reader;
+
+		/**
+		 * Writer.
+		 */
+		private final ObjectWriter writer;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param objectMapper Object mapper used to build the entry.
+		 * @param converter    Converter.
+		 */
+		private Entry(final ObjectMapper objectMapper, final AbstractJsonConverter<?> converter) {
+			this.objectMapper = objectMapper;
+			// Converters without a type reference read JSON themselves (so they have no reader).
+			this.reader = (converter.getTypeReference() == null ? null
+					: objectMapper.readerFor(objectMapper.getTypeFactory().constructType(converter.getTypeReference())));
+			this.writer = objectMapper.writerWithView(JsonConverterRegistry.SERIALIZATION_VIEW);
+		}
+
+	}
+
+	/**
+	 * Gets the object mapper used in the converters.
+	 *
+	 * @return The object mapper used in the converters.
+	 */
+	public static ObjectMapper getObjectMapper() {
+		// If there is a configured object mapper, returns it.
+		final ObjectMapper objectMapper = JpaAutoConfiguration.OBJECT_MAPPER;
+		if (objectMapper != null) {
+			return objectMapper;
+		}
+		// Otherwise, makes sure the default object mapper is created only once.
+		if (JsonConverterRegistry.defaultObjectMapper == null) {
+			JsonConverterRegistry.defaultObjectMapper = ObjectMapperHelper.createMapper();
+		}
+		return JsonConverterRegistry.defaultObjectMapper;
+	}
+
+	/**
+	 * Gets the (current) entry for a converter.
+	 *
+	 * @param  converter Converter.
+	 * @return           The entry for the converter.
+	 */
+	private static Entry getEntry(
+			final AbstractJsonConverter<?> converter) {
+		// Gets the current entry.
+		final ObjectMapper objectMapper = converter.getObjectMapper();
+		Entry entry = JsonConverterRegistry.ENTRIES.get(converter.getClass());
+		// If there is no entry yet, or the object mapper has changed, rebuilds it.
+		if ((entry == null) || (entry.objectMapper != objectMapper)) {
+			entry = new Entry(objectMapper, converter);
+			JsonConverterRegistry.ENTRIES.put(converter.getClass(), entry);
+		}
+		// Returns the entry.
+		return entry;
+	}
+
+	/**
+	 * Gets the reader for a converter.
+	 *
+	 * @param  converter Converter.
+	 * @return           The reader for the converter type.
+	 */
+	public static ObjectReader getReader(
+			final AbstractJsonConverter<?> converter) {
+		return JsonConverterRegistry.getEntry(converter).reader;
+	}
+
+	/**
+	 * Gets the writer (with the persistent view) for a converter.
+	 *
+	 * @param  converter Converter.
+	 * @return           The writer for the converter type.
+	 */
+	public static ObjectWriter getWriter(
+			final AbstractJsonConverter<?> converter) {
+		return JsonConverterRegistry.getEntry(converter).writer;
+	}
+
+	/**
+	 * Clears the registry (entries are rebuilt on next use).
+	 */
+	public static void clear() {
+		JsonConverterRegistry.ENTRIES.clear();
+	}
+
+}
@@ -0,0 +1,367 @@
+package org.coldis.library.persistence.converter;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import org.coldis.library.exception.IntegrationException;
+import org.coldis.library.model.SimpleMessage;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.type.descriptor.java.MutabilityPlan;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Mutability plan for JSON attributes. Snapshots used in dirty checking are
+ * taken as structural copies of the JSON tree (maps, collections and
+ * immutable values), so unchanged attributes are compared by equality and do
+ * not need to be serialized on every load/flush. Other objects are copied
+ * through the converters object mapper. The JSON user types compare other
+ * objects by their serialized (persistent view) trees; attributes mapped with
+ * the JSON converters are compared by Hibernate with {@link Object#equals},
+ * so other objects should implement it (or they are always dirty). Cached
+ * (disassembled) values are kept as JSON bytes.
+ */
+public class JsonMutabilityPlan implements MutabilityPlan<Object> {
+
+	/**
+	 * Serial.
+	 */
+	private static final long serialVersionUID = -3141447406394522207L;
+
+	/**
+	 * Disassembled (cached) JSON value.
+	 */
+	private static final class DisassembledValue implements Serializable {
+
+		/**
+		 * Serial.
+		 */
+		private static final long serialVersionUID = 2851826424412383467L;
+
+		/**
+		 * Value type.
+		 */
+		private final Class<?> type;
+
+		/**
+		 * JSON bytes.
+		 */
+		private final byte[] json;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param type Value type.
+		 * @param json JSON bytes.
+		 */
+		private DisassembledValue(final Class<?> type, final byte[] json) {
+			this.type = type;
+			this.json = json;
+		}
+
+	}
+
+	/**
+	 * If the value is immutable (and might be shared between copies).
+	 *
+	 * @param  value Value.
+	 * @return       If the value is immutable.
+	 */
+	private static boolean isImmutable(
+			final Object value) {
+		return (value == null) || (value instanceof String) || (value instanceof Boolean) || (value instanceof Integer) || (value instanceof Long)
+				|| (value instanceof Double) || (value instanceof Float) || (value instanceof Short) || (value instanceof Byte)
+				|| (value instanceof java.math.BigDecimal) || (value instanceof java.math.BigInteger) || (value instanceof Character)
+				|| (value instanceof Enum) || (value instanceof Temporal) || (value instanceof UUID);
+	}
+
+	/**
+	 * Copies the collection items into the target collection.
+	 *
+	 * @param  <CollectionType> Collection type.
+	 * @param  source           Source collection.
+	 * @param  target           Target collection.
+	 * @return                  The target collection.
+	 */
+	private static <CollectionType extends Collection<Object>> CollectionType copyItems(
+			final Collection<?> source,
+			final CollectionType target) {
+		for (final Object item : source) {
+			target.add(JsonMutabilityPlan.copy(item));
+		}
+		return target;
+	}
+
+	/**
+	 * Gets the type a value is read as (mutable collections for maps and
+	 * collections).
+	 *
+	 * @param  value Value.
+	 * @return       The type the value is read as.
+	 */
+	private static Class<?> getReadType(
+			final Object value) {
+		return (value instanceof SortedMap ? TreeMap.class
+				: value instanceof Map ? LinkedHashMap.class
+						: value instanceof SortedSet ? TreeSet.class
+								: value instanceof Set ? LinkedHashSet.class : value instanceof List ? ArrayList.class : value.getClass());
+	}
+
+	/**
+	 * Serializes a value (with the persistent view).
+	 *
+	 * @param  value Value.
+	 * @return       The JSON bytes.
+	 */
+	private static byte[] serialize(
+			final Object value) {
+		try {
+			return JsonConverterRegistry.getObjectMapper().writerWithView(JsonConverterRegistry.SERIALIZATION_VIEW).writeValueAsBytes(value);
+		}
+		// If the object cannot be serialized.
+		catch (final IOException exception) {
+			throw new IntegrationException(new SimpleMessage("json.serialization.failed"), exception);
+		}
+	}
+
+	/**
+	 * Gets the serialized (persistent view) tree for a value.
+	 *
+	 * @param  value Value.
+	 * @return       The serialized tree.
+	 */
+	private static JsonNode toTree(
+			final Object value) {
+		try {
+			return JsonConverterRegistry.getObjectMapper().readTree(JsonMutabilityPlan.serialize(value));
+		}
+		// If the object cannot be parsed.
+		catch (final IOException exception) {
+			throw new IntegrationException(new SimpleMessage("json.deserialization.failed"), exception);
+		}
+	}
+
+	/**
+	 * If two JSON values are equal. Maps, lists and sets are compared item by
+	 * item, immutable values by equality and other objects (such as typable
+	 * objects) by equality first and, if not equal, by their serialized trees.
+	 *
+	 * @param  value      Value.
+	 * @param  otherValue Other value.
+	 * @return            If the values are equal.
+	 */
+	public static boolean areEqual(
+			final Object value,
+			final Object otherValue) {
+		// Same (or null) values.
+		if (value == otherValue) {
+			return true;
+		}
+		else if ((value == null) || (otherValue == null)) {
+			return false;
+		}
+		// Immutable values are compared by equality.
+		else if (JsonMutabilityPlan.isImmutable(value) || JsonMutabilityPlan.isImmutable(otherValue)) {
+			return value.equals(otherValue);
+		}
+		// Maps are compared entry by entry.
+		else if ((value instanceof Map) && (otherValue instanceof Map)) {
+			final Map<?, ?> map = (Map<?, ?>) value;
+			final Map<?, ?> otherMap = (Map<?, ?>) otherValue;
+			if (map.size() != otherMap.size()) {
+				return false;
+			}
+			for (final Map.Entry<?, ?> entry : map.entrySet()) {
+				if (!otherMap.containsKey(entry.getKey()) || !JsonMutabilityPlan.areEqual(entry.getValue(), otherMap.get(entry.getKey()))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		// Lists are compared item by item.
+		else if ((value instanceof List) && (otherValue instanceof List)) {
+			final List<?> list = (List<?>) value;
+			final List<?> otherList = (List<?>) otherValue;
+			if (list.size() != otherList.size()) {
+				return false;
+			}
+			for (int index = 0; index < list.size(); index++) {
+				if (!JsonMutabilityPlan.areEqual(list.get(index), otherList.get(index))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		// Sets are compared item by item (items without a matching equal item are
+		// matched with any other equal JSON item).
+		else if ((value instanceof Set) && (otherValue instanceof Set)) {
+			final Set<?> set = (Set<?>) value;
+			final Set<?> otherSet = (Set<?>) otherValue;
+			if (set.size() != otherSet.size()) {
+				return false;
+			}
+			for (final Object item : set) {
+				if (!otherSet.contains(item) && otherSet.stream().noneMatch((
+						otherItem) -> JsonMutabilityPlan.areEqual(item, otherItem))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		// Other objects are compared by equality (so objects implementing it are not
+		// serialized when unchanged) and, otherwise, by their serialized trees.
+		else {
+			return value.equals(otherValue) || JsonMutabilityPlan.toTree(value).equals(JsonMutabilityPlan.toTree(otherValue));
+		}
+	}
+
+	/**
+	 * Gets the hash code for a JSON value (consistent with
+	 * {@link #areEqual(Object, Object)}).
+	 *
+	 * @param  value Value.
+	 * @return       The hash code for the value.
+	 */
+	public static int hashCode(
+			final Object value) {
+		// Immutable values.
+		if (JsonMutabilityPlan.isImmutable(value)) {
+			return Objects.hashCode(value);
+		}
+		// Maps.
+		else if (value instanceof Map) {
+			int hashCode = 0;
+			for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				hashCode += Objects.hashCode(entry.getKey()) ^ JsonMutabilityPlan.hashCode(entry.getValue());
+			}
+			return hashCode;
+		}
+		// Lists.
+		else if (value instanceof List) {
+			int hashCode = 1;
+			for (final Object item : (List<?>) value) {
+				hashCode = (31 * hashCode) + JsonMutabilityPlan.hashCode(item);
+			}
+			return hashCode;
+		}
+		// Sets (regardless of the items order).
+		else if (value instanceof Set) {
+			int hashCode = 0;
+			for (final Object item : (Set<?>) value) {
+				hashCode += JsonMutabilityPlan.hashCode(item);
+			}
+			return hashCode;
+		}
+		// Other objects.
+		else {
+			return JsonMutabilityPlan.toTree(value).hashCode();
+		}
+	}
+
+	/**
+	 * Deep copies a JSON value.
+	 *
+	 * @param  <ValueType> Value type.
+	 * @param  value       Value.
+	 * @return             The copied value.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <ValueType> ValueType copy(
+			final ValueType value) {
+		// Immutable values are shared.
+		if (JsonMutabilityPlan.isImmutable(value)) {
+			return value;
+		}
+		// Maps are copied entry by entry.
+		else if (value instanceof Map) {
+			final Map<Object, Object> copy = (value instanceof SortedMap ? new TreeMap<>(((SortedMap<Object, Object>) value).comparator())
+					: new LinkedHashMap<>());
+			for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				copy.put(JsonMutabilityPlan.copy(entry.getKey()), JsonMutabilityPlan.copy(entry.getValue()));
+			}
+			return (ValueType) copy;
+		}
+		// Collections are copied item by item.
+		else if (value instanceof SortedSet) {
+			return (ValueType) JsonMutabilityPlan.copyItems((Collection<?>) value, new TreeSet<>(((SortedSet<Object>) value).comparator()));
+		}
+		else if (value instanceof Set) {
+			return (ValueType) JsonMutabilityPlan.copyItems((Collection<?>) value, new LinkedHashSet<>());
+		}
+		else if (value instanceof List) {
+			return (ValueType) JsonMutabilityPlan.copyItems((Collection<?>) value, new ArrayList<>(((List<?>) value).size()));
+		}
+		// Other objects are copied through the object mapper.
+		else {
+			return (ValueType) JsonConverterRegistry.getObjectMapper().convertValue(value, value.getClass());
+		}
+	}
+
+	/**
+	 * @see org.hibernate.type.descriptor.java.MutabilityPlan#isMutable()
+	 */
+	@Override
+	public boolean isMutable() {
+		return true;
+	}
+
+	/**
+	 * @see org.hibernate.type.descriptor.java.MutabilityPlan#deepCopy(java.lang.Object)
+	 */
+	@Override
+	public Object deepCopy(
+			final Object value) {
+		return JsonMutabilityPlan.copy(value);
+	}
+
+	/**
+	 * @see org.hibernate.type.descriptor.java.MutabilityPlan#disassemble(java.lang.Object,
+	 *      org.hibernate.SharedSessionContract)
+	 */
+	@Override
+	public Serializable disassemble(
+			final Object value,
+			final SharedSessionContract session) {
+		return value == null ? null : new DisassembledValue(JsonMutabilityPlan.getReadType(value), JsonMutabilityPlan.serialize(value));
+	}
+
+	/**
+	 * @see org.hibernate.type.descriptor.java.MutabilityPlan#assemble(java.io.Serializable,
+	 *      org.hibernate.SharedSessionContract)
+	 */
+	@Override
+	public Object assemble(
+			final Serializable cached,
+			final SharedSessionContract session) {
+		// If there is no cached value.
+		if (cached == null) {
+			return null;
+		}
+		// Parses the cached JSON.
+		final DisassembledValue disassembledValue = (DisassembledValue) cached;
+		final ObjectMapper objectMapper = JsonConverterRegistry.getObjectMapper();
+		try {
+			return objectMapper.readValue(disassembledValue.json, disassembledValue.type);
+		}
+		// If the object cannot be parsed.
+		catch (final IOException exception) {
+			throw new IntegrationException(new SimpleMessage("json.deserialization.failed"), exception);
+		}
+	}
+
+}
@@ -0,0 +1,183 @@
+package org.coldis.library.persistence.converter;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+import java.util.Properties;
+
+import org.coldis.library.exception.IntegrationException;
+import org.coldis.library.model.SimpleMessage;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.ParameterizedType;
+import org.hibernate.usertype.UserType;
+
+/**
+ * Hibernate user type for lazy JSON attributes. The raw JSON is kept when the
+ * entity is hydrated and only parsed (with the configured converter) on first
+ * access. Opt-in per attribute with:
+ *
+ * <pre>
+ * &#64;Type(value = LazyJsonUserType.class, parameters = &#64;Parameter(name = LazyJsonUserType.CONVERTER_PARAMETER, value = "...MapJsonConverter"))
+ * </pre>
+ */
+public class LazyJsonUserType implements UserType<LazyJsonValue<Object>>, ParameterizedType {
+
+	/**
+	 * Converter (class name) parameter.
+	 */
+	public static final String CONVERTER_PARAMETER = "converter";
+
+	/**
+	 * Converter.
+	 */
+	private AbstractJsonConverter<Object> converter;
+
+	/**
+	 * @see org.hibernate.usertype.ParameterizedType#setParameterValues(java.util.Properties)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void setParameterValues(
+			final Properties parameters) {
+		// Tries to instantiate the configured converter.
+		try {
+			this.converter = (AbstractJsonConverter<Object>) Class.forName(parameters.getProperty(LazyJsonUserType.CONVERTER_PARAMETER))
+					.getDeclaredConstructor().newInstance();
+		}
+		// If the converter cannot be instantiated.
+		catch (final Exception exception) {
+			throw new IntegrationException(new SimpleMessage("json.converter.invalid"), exception);
+		}
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#getSqlType()
+	 */
+	@Override
+	public int getSqlType() {
+		return Types.OTHER;
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#returnedClass()
+	 */
+	@Override
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Class<LazyJsonValue<Object>> returnedClass() {
+		return (Class) LazyJsonValue.class;
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#equals(java.lang.Object,
+	 *      java.lang.Object)
+	 */
+	@Override
+	public boolean equals(
+			final LazyJsonValue<Object> value,
+			final LazyJsonValue<Object> otherValue) {
+		return Objects.equals(value, otherValue);
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#hashCode(java.lang.Object)
+	 */
+	@Override
+	public int hashCode(
+			final LazyJsonValue<Object> value) {
+		return Objects.hashCode(value);
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#nullSafeGet(java.sql.ResultSet, int,
+	 *      org.hibernate.engine.spi.SharedSessionContractImplementor,
+	 *      java.lang.Object)
+	 */
+	@Override
+	public LazyJsonValue<Object> nullSafeGet(
+			final ResultSet resultSet,
+			final int position,
+			final SharedSessionContractImplementor session,
+			final Object owner) throws SQLException {
+		// Keeps the raw bytes only (parsed on first access).
+		final byte[] rawValue = resultSet.getBytes(position);
+		return rawValue == null ? null : LazyJsonValue.ofRawValue(this.converter, rawValue);
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#nullSafeSet(java.sql.PreparedStatement,
+	 *      java.lang.Object, int,
+	 *      org.hibernate.engine.spi.SharedSessionContractImplementor)
+	 */
+	@Override
+	public void nullSafeSet(
+			final PreparedStatement statement,
+			final LazyJsonValue<Object> value,
+			final int index,
+			final SharedSessionContractImplementor session) throws SQLException {
+		// Gets the raw value (as persisted, if it has not been accessed).
+		final byte[] rawValue = (value == null ? null : value.getRawValue());
+		// If there is no value.
+		if (rawValue == null) {
+			statement.setNull(index, Types.OTHER);
+		}
+		// If there is a value, binds it as an untyped parameter (so the database casts
+		// it to the JSON column type).
+		else {
+			statement.setObject(index, new String(rawValue, StandardCharsets.UTF_8), Types.OTHER);
+		}
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#deepCopy(java.lang.Object)
+	 */
+	@Override
+	public LazyJsonValue<Object> deepCopy(
+			final LazyJsonValue<Object> value) {
+		return value == null ? null : value.copy();
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#isMutable()
+	 */
+	@Override
+	public boolean isMutable() {
+		return true;
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#disassemble(java.lang.Object)
+	 */
+	@Override
+	public Serializable disassemble(
+			final LazyJsonValue<Object> value) {
+		return value == null ? null : value.getRawValue();
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#assemble(java.io.Serializable,
+	 *      java.lang.Object)
+	 */
+	@Override
+	public LazyJsonValue<Object> assemble(
+			final Serializable cached,
+			final Object owner) {
+		return cached == null ? null : LazyJsonValue.ofRawValue(this.converter, (byte[]) cached);
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#replace(java.lang.Object,
+	 *      java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	public LazyJsonValue<Object> replace(
+			final LazyJsonValue<Object> detached,
+			final LazyJsonValue<Object> managed,
+			final Object owner) {
+		return this.deepCopy(detached);
+	}
+
+}
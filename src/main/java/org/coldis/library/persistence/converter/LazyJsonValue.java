@@ -0,0 +1,211 @@
+package org.coldis.library.persistence.converter;
+
+import java.io.ByteArrayInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.coldis.library.exception.IntegrationException;
+import org.coldis.library.model.SimpleMessage;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * JSON value that keeps the raw (persisted) JSON and is only parsed on first
+ * access. The raw JSON is written back as is, unless the value is accessed.
+ *
+ * @param <ObjectType> Any type.
+ */
+public class LazyJsonValue<ObjectType> implements Serializable {
+
+	/**
+	 * Serial.
+	 */
+	private static final long serialVersionUID = 1863496283478103297L;
+
+	/**
+	 * Converter type name (used to resolve the converter again after the value is
+	 * deserialized).
+	 */
+	private final String converterTypeName;
+
+	/**
+	 * Converter.
+	 */
+	private transient AbstractJsonConverter<ObjectType> converter;
+
+	/**
+	 * Raw (persisted) JSON value.
+	 */
+	private byte[] rawValue;
+
+	/**
+	 * Value.
+	 */
+	private ObjectType value;
+
+	/**
+	 * If the value has been materialized.
+	 */
+	private boolean materialized;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param converter    Converter.
+	 * @param rawValue     Raw (persisted) JSON value.
+	 * @param value        Value.
+	 * @param materialized If the value has been materialized.
+	 */
+	private LazyJsonValue(final AbstractJsonConverter<ObjectType> converter, final byte[] rawValue, final ObjectType value, final boolean materialized) {
+		super();
+		this.converterTypeName = converter.getClass().getName();
+		this.converter = converter;
+		this.rawValue = rawValue;
+		this.value = value;
+		this.materialized = materialized;
+	}
+
+	/**
+	 * Creates a lazy value from the raw (persisted) JSON.
+	 *
+	 * @param  <ObjectType> Any type.
+	 * @param  converter    Converter.
+	 * @param  rawValue     Raw (persisted) JSON value.
+	 * @return              The lazy value.
+	 */
+	public static <ObjectType> LazyJsonValue<ObjectType> ofRawValue(
+			final AbstractJsonConverter<ObjectType> converter,
+			final byte[] rawValue) {
+		return new LazyJsonValue<>(converter, rawValue, null, rawValue == null);
+	}
+
+	/**
+	 * Creates a lazy value from an (already materialized) value.
+	 *
+	 * @param  <ObjectType> Any type.
+	 * @param  converter    Converter.
+	 * @param  value        Value.
+	 * @return              The lazy value.
+	 */
+	public static <ObjectType> LazyJsonValue<ObjectType> of(
+			final AbstractJsonConverter<ObjectType> converter,
+			final ObjectType value) {
+		return new LazyJsonValue<>(converter, null, value, true);
+	}
+
+	/**
+	 * Gets the value (parsing the raw JSON on first access).
+	 *
+	 * @return The value.
+	 */
+	@JsonValue
+	public ObjectType get() {
+		// If the value has not been materialized yet.
+		if (!this.materialized) {
+			// Parses the raw value (that might be changed from now on).
+			this.value = this.getConverter().convertToEntityAttribute(new ByteArrayInputStream(this.rawValue));
+			this.rawValue = null;
+			this.materialized = true;
+		}
+		// Returns the value.
+		return this.value;
+	}
+
+	/**
+	 * Sets the value.
+	 *
+	 * @param value New value.
+	 */
+	public void set(
+			final ObjectType value) {
+		this.value = value;
+		this.rawValue = null;
+		this.materialized = true;
+	}
+
+	/**
+	 * If the value has been materialized.
+	 *
+	 * @return If the value has been materialized.
+	 */
+	public boolean isMaterialized() {
+		return this.materialized;
+	}
+
+	/**
+	 * Gets the raw JSON value (the persisted JSON, if the value has not been
+	 * accessed, or the value serialized with the persistent view).
+	 *
+	 * @return The raw JSON value.
+	 */
+	public byte[] getRawValue() {
+		return this.materialized ? (this.value == null ? null : this.getConverter().convertToDatabaseBytes(this.value)) : this.rawValue;
+	}
+
+	/**
+	 * Gets the converter.
+	 *
+	 * @return The converter.
+	 */
+	@SuppressWarnings("unchecked")
+	public AbstractJsonConverter<ObjectType> getConverter() {
+		// If the converter is not available (the value has been deserialized), resolves
+		// it again.
+		if (this.converter == null) {
+			try {
+				this.converter = (AbstractJsonConverter<ObjectType>) Class.forName(this.converterTypeName).getDeclaredConstructor().newInstance();
+			}
+			// If the converter cannot be instantiated.
+			catch (final Exception exception) {
+				throw new IntegrationException(new SimpleMessage("json.converter.invalid"), exception);
+			}
+		}
+		return this.converter;
+	}
+
+	/**
+	 * Copies the lazy value (without materializing it, if it has not been
+	 * materialized yet).
+	 *
+	 * @return The copied value.
+	 */
+	public LazyJsonValue<ObjectType> copy() {
+		return this.materialized ? LazyJsonValue.of(this.getConverter(), JsonMutabilityPlan.copy(this.value))
+				: LazyJsonValue.ofRawValue(this.getConverter(), this.rawValue);
+	}
+
+	/**
+	 * Gets the hash code. Values that have not been accessed are hashed by their
+	 * raw JSON (so they are not parsed), which means a value that has not been
+	 * accessed and an equal accessed value may have different hash codes.
+	 *
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return this.materialized ? Objects.hashCode(this.value) : Arrays.hashCode(this.rawValue);
+	}
+
+	/**
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(
+			final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof LazyJsonValue)) {
+			return false;
+		}
+		final LazyJsonValue<?> other = (LazyJsonValue<?>) obj;
+		// If none of the values have been accessed, compares the raw values.
+		if (!this.materialized && !other.materialized) {
+			return (this.rawValue == other.rawValue) || Arrays.equals(this.rawValue, other.rawValue);
+		}
+		// Otherwise, compares the values.
+		return Objects.equals(this.get(), other.get());
+	}
+
+}
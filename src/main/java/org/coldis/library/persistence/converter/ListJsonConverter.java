@@ -2,10 +2,9 @@ package org.coldis.library.persistence.converter;
 
 import java.util.List;
 
-import org.coldis.library.serialization.ObjectMapperHelper;
+import org.hibernate.annotations.Mutability;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.persistence.Converter;
 
@@ -13,16 +12,21 @@ import jakarta.persistence.Converter;
  * List from/to JSON converter.
  */
 @Converter(autoApply = true)
+@Mutability(JsonMutabilityPlan.class)
 public class ListJsonConverter extends AbstractJsonConverter<List<Object>> {
 
 	/**
-	 * @see org.coldis.library.persistence.converter.AbstractJsonConverter#convertToEntityAttribute(com.fasterxml.jackson.databind.ObjectMapper,
-	 *      java.lang.String)
+	 * Type reference.
+	 */
+	private static final TypeReference<List<Object>> TYPE_REFERENCE = new TypeReference<List<Object>>() {
+	};
+
+	/**
+	 * @see org.coldis.library.persistence.converter.AbstractJsonConverter#getTypeReference()
 	 */
 	@Override
-	protected List<Object> convertToEntityAttribute(final ObjectMapper jsonMapper, final String jsonObject) {
-		return ObjectMapperHelper.deserialize(jsonMapper, jsonObject, new TypeReference<List<Object>>() {
-		}, false);
+	protected TypeReference<List<Object>> getTypeReference() {
+		return ListJsonConverter.TYPE_REFERENCE;
 	}
 
 }
@@ -0,0 +1,32 @@
+package org.coldis.library.persistence.converter;
+
+import java.util.List;
+
+/**
+ * List from/to JSON (bytes) user type.
+ */
+public class ListJsonUserType extends AbstractJsonUserType<List<Object>> {
+
+	/**
+	 * Converter.
+	 */
+	private static final ListJsonConverter CONVERTER = new ListJsonConverter();
+
+	/**
+	 * @see org.coldis.library.persistence.converter.AbstractJsonUserType#getConverter()
+	 */
+	@Override
+	protected AbstractJsonConverter<List<Object>> getConverter() {
+		return ListJsonUserType.CONVERTER;
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#returnedClass()
+	 */
+	@Override
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Class<List<Object>> returnedClass() {
+		return (Class) List.class;
+	}
+
+}
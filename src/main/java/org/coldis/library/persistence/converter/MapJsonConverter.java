@@ -2,10 +2,9 @@ package org.coldis.library.persistence.converter;
 
 import java.util.Map;
 
-import org.coldis.library.serialization.ObjectMapperHelper;
+import org.hibernate.annotations.Mutability;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.persistence.Converter;
 
@@ -13,16 +12,21 @@ import jakarta.persistence.Converter;
  * Map from/to JSON converter.
  */
 @Converter(autoApply = true)
+@Mutability(JsonMutabilityPlan.class)
 public class MapJsonConverter extends AbstractJsonConverter<Map<String, Object>> {
 
 	/**
-	 * @see org.coldis.library.persistence.converter.AbstractJsonConverter#convertToEntityAttribute(com.fasterxml.jackson.databind.ObjectMapper,
-	 *      java.lang.String)
+	 * Type reference.
+	 */
+	private static final TypeReference<Map<String, Object>> TYPE_REFERENCE = new TypeReference<Map<String, Object>>() {
+	};
+
+	/**
+	 * @see org.coldis.library.persistence.converter.AbstractJsonConverter#getTypeReference()
 	 */
 	@Override
-	protected Map<String, Object> convertToEntityAttribute(final ObjectMapper jsonMapper, final String jsonObject) {
-		return ObjectMapperHelper.deserialize(jsonMapper, jsonObject, new TypeReference<Map<String, Object>>() {
-		}, false);
+	protected TypeReference<Map<String, Object>> getTypeReference() {
+		return MapJsonConverter.TYPE_REFERENCE;
 	}
 
 }
@@ -0,0 +1,32 @@
+package org.coldis.library.persistence.converter;
+
+import java.util.Map;
+
+/**
+ * Map from/to JSON (bytes) user type.
+ */
+public class MapJsonUserType extends AbstractJsonUserType<Map<String, Object>> {
+
+	/**
+	 * Converter.
+	 */
+	private static final MapJsonConverter CONVERTER = new MapJsonConverter();
+
+	/**
+	 * @see org.coldis.library.persistence.converter.AbstractJsonUserType#getConverter()
+	 */
+	@Override
+	protected AbstractJsonConverter<Map<String, Object>> getConverter() {
+		return MapJsonUserType.CONVERTER;
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#returnedClass()
+	 */
+	@Override
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Class<Map<String, Object>> returnedClass() {
+		return (Class) Map.class;
+	}
+
+}
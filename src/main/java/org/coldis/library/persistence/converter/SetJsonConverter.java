@@ -2,10 +2,9 @@ package org.coldis.library.persistence.converter;
 
 import java.util.Set;
 
-import org.coldis.library.serialization.ObjectMapperHelper;
+import org.hibernate.annotations.Mutability;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.persistence.Converter;
 
@@ -13,16 +12,21 @@ import jakarta.persistence.Converter;
  * Set from/to JSON converter.
  */
 @Converter(autoApply = true)
+@Mutability(JsonMutabilityPlan.class)
 public class SetJsonConverter extends AbstractJsonConverter<Set<Object>> {
 
 	/**
-	 * @see org.coldis.library.persistence.converter.AbstractJsonConverter#convertToEntityAttribute(com.fasterxml.jackson.databind.ObjectMapper,
-	 *      java.lang.String)
+	 * Type reference.
+	 */
+	private static final TypeReference<Set<Object>> TYPE_REFERENCE = new TypeReference<Set<Object>>() {
+	};
+
+	/**
+	 * @see org.coldis.library.persistence.converter.AbstractJsonConverter#getTypeReference()
 	 */
 	@Override
-	protected Set<Object> convertToEntityAttribute(final ObjectMapper jsonMapper, final String jsonObject) {
-		return ObjectMapperHelper.deserialize(jsonMapper, jsonObject, new TypeReference<Set<Object>>() {
-		}, false);
+	protected TypeReference<Set<Object>> getTypeReference() {
+		return SetJsonConverter.TYPE_REFERENCE;
 	}
 
 }
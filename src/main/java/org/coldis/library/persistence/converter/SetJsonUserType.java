@@ -0,0 +1,32 @@
+package org.coldis.library.persistence.converter;
+
+import java.util.Set;
+
+/**
+ * Set from/to JSON (bytes) user type.
+ */
+public class SetJsonUserType extends AbstractJsonUserType<Set<Object>> {
+
+	/**
+	 * Converter.
+	 */
+	private static final SetJsonConverter CONVERTER = new SetJsonConverter();
+
+	/**
+	 * @see org.coldis.library.persistence.converter.AbstractJsonUserType#getConverter()
+	 */
+	@Override
+	protected AbstractJsonConverter<Set<Object>> getConverter() {
+		return SetJsonUserType.CONVERTER;
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#returnedClass()
+	 */
+	@Override
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Class<Set<Object>> returnedClass() {
+		return (Class) Set.class;
+	}
+
+}
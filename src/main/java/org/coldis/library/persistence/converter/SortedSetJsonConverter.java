@@ -3,10 +3,9 @@ package org.coldis.library.persistence.converter;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
-import org.coldis.library.serialization.ObjectMapperHelper;
+import org.hibernate.annotations.Mutability;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.persistence.Converter;
 
@@ -14,16 +13,21 @@ import jakarta.persistence.Converter;
  * Sorted set from/to JSON converter.
  */
 @Converter(autoApply = true)
+@Mutability(JsonMutabilityPlan.class)
 public class SortedSetJsonConverter extends AbstractJsonConverter<SortedSet<Object>> {
 
 	/**
-	 * @see org.coldis.library.persistence.converter.AbstractJsonConverter#convertToEntityAttribute(com.fasterxml.jackson.databind.ObjectMapper,
-	 *      java.lang.String)
+	 * Type reference.
+	 */
+	private static final TypeReference<TreeSet<Object>> TYPE_REFERENCE = new TypeReference<TreeSet<Object>>() {
+	};
+
+	/**
+	 * @see org.coldis.library.persistence.converter.AbstractJsonConverter#getTypeReference()
 	 */
 	@Override
-	protected SortedSet<Object> convertToEntityAttribute(final ObjectMapper jsonMapper, final String jsonObject) {
-		return ObjectMapperHelper.deserialize(jsonMapper, jsonObject, new TypeReference<TreeSet<Object>>() {
-		}, false);
+	protected TypeReference<TreeSet<Object>> getTypeReference() {
+		return SortedSetJsonConverter.TYPE_REFERENCE;
 	}
 
 }
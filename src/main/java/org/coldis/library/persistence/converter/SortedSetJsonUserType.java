@@ -0,0 +1,32 @@
+package org.coldis.library.persistence.converter;
+
+import java.util.SortedSet;
+
+/**
+ * Sorted set from/to JSON (bytes) user type.
+ */
+public class SortedSetJsonUserType extends AbstractJsonUserType<SortedSet<Object>> {
+
+	/**
+	 * Converter.
+	 */
+	private static final SortedSetJsonConverter CONVERTER = new SortedSetJsonConverter();
+
+	/**
+	 * @see org.coldis.library.persistence.converter.AbstractJsonUserType#getConverter()
+	 */
+	@Override
+	protected AbstractJsonConverter<SortedSet<Object>> getConverter() {
+		return SortedSetJsonUserType.CONVERTER;
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#returnedClass()
+	 */
+	@Override
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Class<SortedSet<Object>> returnedClass() {
+		return (Class) SortedSet.class;
+	}
+
+}
@@ -0,0 +1,31 @@
+package org.coldis.library.persistence.converter;
+
+import org.coldis.library.model.Typable;
+
+/**
+ * Type object from/to JSON (bytes) user type.
+ */
+public class TypableJsonUserType extends AbstractJsonUserType<Typable> {
+
+	/**
+	 * Converter.
+	 */
+	private static final TypableJsonConverter CONVERTER = new TypableJsonConverter();
+
+	/**
+	 * @see org.coldis.library.persistence.converter.AbstractJsonUserType#getConverter()
+	 */
+	@Override
+	protected AbstractJsonConverter<Typable> getConverter() {
+		return TypableJsonUserType.CONVERTER;
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#returnedClass()
+	 */
+	@Override
+	public Class<Typable> returnedClass() {
+		return Typable.class;
+	}
+
+}
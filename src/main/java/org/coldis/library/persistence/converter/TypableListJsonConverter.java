@@ -3,10 +3,9 @@ package org.coldis.library.persistence.converter;
 import java.util.List;
 
 import org.coldis.library.model.Typable;
-import org.coldis.library.serialization.ObjectMapperHelper;
+import org.hibernate.annotations.Mutability;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.persistence.Converter;
 
@@ -14,16 +13,21 @@ import jakarta.persistence.Converter;
  * List from/to JSON converter.
  */
 @Converter(autoApply = true)
+@Mutability(JsonMutabilityPlan.class)
 public class TypableListJsonConverter extends AbstractJsonConverter<List<Typable>> {
 
 	/**
-	 * @see org.coldis.library.persistence.converter.AbstractJsonConverter#convertToEntityAttribute(com.fasterxml.jackson.databind.ObjectMapper,
-	 *      java.lang.String)
+	 * Type reference.
+	 */
+	private static final TypeReference<List<Typable>> TYPE_REFERENCE = new TypeReference<List<Typable>>() {
+	};
+
+	/**
+	 * @see org.coldis.library.persistence.converter.AbstractJsonConverter#getTypeReference()
 	 */
 	@Override
-	protected List<Typable> convertToEntityAttribute(final ObjectMapper jsonMapper, final String jsonObject) {
-		return ObjectMapperHelper.deserialize(jsonMapper, jsonObject, new TypeReference<List<Typable>>() {
-		}, false);
+	protected TypeReference<List<Typable>> getTypeReference() {
+		return TypableListJsonConverter.TYPE_REFERENCE;
 	}
 
 }
@@ -0,0 +1,34 @@
+package org.coldis.library.persistence.converter;
+
+import java.util.List;
+
+import org.coldis.library.model.Typable;
+
+/**
+ * Typable list from/to JSON (bytes) user type.
+ */
+public class TypableListJsonUserType extends AbstractJsonUserType<List<Typable>> {
+
+	/**
+	 * Converter.
+	 */
+	private static final TypableListJsonConverter CONVERTER = new TypableListJsonConverter();
+
+	/**
+	 * @see org.coldis.library.persistence.converter.AbstractJsonUserType#getConverter()
+	 */
+	@Override
+	protected AbstractJsonConverter<List<Typable>> getConverter() {
+		return TypableListJsonUserType.CONVERTER;
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#returnedClass()
+	 */
+	@Override
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Class<List<Typable>> returnedClass() {
+		return (Class) List.class;
+	}
+
+}
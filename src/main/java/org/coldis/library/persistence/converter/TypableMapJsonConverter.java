@@ -3,10 +3,9 @@ package org.coldis.library.persistence.converter;
 import java.util.Map;
 
 import org.coldis.library.model.Typable;
-import org.coldis.library.serialization.ObjectMapperHelper;
+import org.hibernate.annotations.Mutability;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.persistence.Converter;
 
@@ -14,17 +13,21 @@ import jakarta.persistence.Converter;
  * Map from/to JSON converter.
  */
 @Converter(autoApply = true)
+@Mutability(JsonMutabilityPlan.class)
 public class TypableMapJsonConverter extends AbstractJsonConverter<Map<String, Typable>> {
 
 	/**
-	 * @see org.coldis.library.persistence.converter.AbstractJsonConverter#convertToEntityAttribute(com.fasterxml.jackson.databind.ObjectMapper,
-	 *      java.lang.String)
+	 * Type reference.
+	 */
+	private static final TypeReference<Map<String, Typable>> TYPE_REFERENCE = new TypeReference<Map<String, Typable>>() {
+	};
+
+	/**
+	 * @see org.coldis.library.persistence.converter.AbstractJsonConverter#getTypeReference()
 	 */
 	@Override
-	protected Map<String, Typable> convertToEntityAttribute(final ObjectMapper jsonMapper,
-			final String jsonObject) {
-		return ObjectMapperHelper.deserialize(jsonMapper, jsonObject, new TypeReference<Map<String, Typable>>() {
-		}, false);
+	protected TypeReference<Map<String, Typable>> getTypeReference() {
+		return TypableMapJsonConverter.TYPE_REFERENCE;
 	}
 
 }
@@ -0,0 +1,34 @@
+package org.coldis.library.persistence.converter;
+
+import java.util.Map;
+
+import org.coldis.library.model.Typable;
+
+/**
+ * Typable map from/to JSON (bytes) user type.
+ */
+public class TypableMapJsonUserType extends AbstractJsonUserType<Map<String, Typable>> {
+
+	/**
+	 * Converter.
+	 */
+	private static final TypableMapJsonConverter CONVERTER = new TypableMapJsonConverter();
+
+	/**
+	 * @see org.coldis.library.persistence.converter.AbstractJsonUserType#getConverter()
+	 */
+	@Override
+	protected AbstractJsonConverter<Map<String, Typable>> getConverter() {
+		return TypableMapJsonUserType.CONVERTER;
+	}
+
+	/**
+	 * @see org.hibernate.usertype.UserType#returnedClass()
+	 */
+	@Override
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Class<Map<String, Typable>> returnedClass() {
+		return (Class) Map.class;
+	}
+
+}
@@ -0,0 +1,158 @@
+package org.coldis.library.persistence.history;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded entity history buffer, flushed when it reaches the maximum size or
+ * after a maximum wait.
+ *
+ * @param <ItemType> Item type.
+ */
+public class EntityHistoryBatcher<ItemType> implements AutoCloseable {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(EntityHistoryBatcher.class);
+
+	/**
+	 * Scheduler (shared by all batchers and coalescers).
+	 */
+	static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor((
+			runnable) -> {
+		final Thread thread = new Thread(runnable, "entity-history-batcher");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Maximum batch size.
+	 */
+	private final int maxSize;
+
+	/**
+	 * Flush action.
+	 */
+	private final Consumer<List<ItemType>> flushAction;
+
+	/**
+	 * Lock.
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * Buffer.
+	 */
+	private List<ItemType> buffer;
+
+	/**
+	 * Scheduled flush.
+	 */
+	private final ScheduledFuture<?> scheduledFlush;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param maxSize     Maximum batch size.
+	 * @param maxWait     Maximum wait (in milliseconds) before a batch is
+	 *                        flushed.
+	 * @param flushAction Flush action.
+	 */
+	public EntityHistoryBatcher(final int maxSize, final long maxWait, final Consumer<List<ItemType>> flushAction) {
+		this.maxSize = maxSize;
+		this.flushAction = flushAction;
+		this.buffer = new ArrayList<>(maxSize);
+		this.scheduledFlush = EntityHistoryBatcher.SCHEDULER.scheduleWithFixedDelay(this::flush, maxWait, maxWait, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Drains the buffer.
+	 *
+	 * @return The buffered items.
+	 */
+	private List<ItemType> drain() {
+		if (this.buffer.isEmpty()) {
+			return List.of();
+		}
+		final List<ItemType> items = this.buffer;
+		this.buffer = new ArrayList<>(this.maxSize);
+		return items;
+	}
+
+	/**
+	 * Flushes the items (if any).
+	 *
+	 * @param items Items.
+	 */
+	private void flush(
+			final List<ItemType> items) {
+		if (!items.isEmpty()) {
+			try {
+				this.flushAction.accept(items);
+			}
+			// If the items cannot be flushed.
+			catch (final Exception exception) {
+				EntityHistoryBatcher.LOGGER.error("Could not flush entity history batch: " + exception.getClass().getName() + " - " + exception.getLocalizedMessage());
+				EntityHistoryBatcher.LOGGER.debug("Could not flush entity history batch.", exception);
+			}
+		}
+	}
+
+	/**
+	 * Adds an item to the buffer, flushing it if it reaches the maximum size.
+	 *
+	 * @param item Item.
+	 */
+	public void add(
+			final ItemType item) {
+		List<ItemType> items = null;
+		this.lock.lock();
+		try {
+			this.buffer.add(item);
+			if (this.buffer.size() >= this.maxSize) {
+				items = this.drain();
+			}
+		}
+		finally {
+			this.lock.unlock();
+		}
+		if (items != null) {
+			this.flush(items);
+		}
+	}
+
+	/**
+	 * Flushes the buffered items.
+	 */
+	public void flush() {
+		final List<ItemType> items;
+		this.lock.lock();
+		try {
+			items = this.drain();
+		}
+		finally {
+			this.lock.unlock();
+		}
+		this.flush(items);
+	}
+
+	/**
+	 * @see java.lang.AutoCloseable#close()
+	 */
+	@Override
+	public void close() {
+		this.scheduledFlush.cancel(false);
+		this.flush();
+	}
+
+}
@@ -0,0 +1,237 @@
+package org.coldis.library.persistence.history;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Entity history coalescer. Items for the same key within a window are
+ * coalesced, and only the latest (or the first and the latest) item is emitted
+ * when the window ends (in the given executor, so the shared scheduler is not
+ * held by the emit action).
+ *
+ * @param <ItemType> Item type.
+ */
+public class EntityHistoryCoalescer<ItemType> implements AutoCloseable {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(EntityHistoryCoalescer.class);
+
+	/**
+	 * Pending items for a key.
+	 *
+	 * @param <ItemType> Item type.
+	 */
+	private static class PendingItems<ItemType> {
+
+		/**
+		 * First item within the window.
+		 */
+		private final ItemType first;
+
+		/**
+		 * Latest item within the window.
+		 */
+		private ItemType latest;
+
+		/**
+		 * Scheduled window end.
+		 */
+		private volatile ScheduledFuture<?> windowEnd;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param first First item within the window.
+		 */
+		private PendingItems(final ItemType first) {
+			this.first = first;
+			this.latest = first;
+		}
+
+	}
+
+	/**
+	 * Window (in milliseconds).
+	 */
+	private final long window;
+
+	/**
+	 * If the first item within the window should also be emitted.
+	 */
+	private final boolean keepFirst;
+
+	/**
+	 * Emit executor.
+	 */
+	private final Executor executor;
+
+	/**
+	 * Emit action.
+	 */
+	private final Consumer<ItemType> emitAction;
+
+	/**
+	 * Pending items by key.
+	 */
+	private final Map<Object, PendingItems<ItemType>> pending = new ConcurrentHashMap<>();
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param window     Window (in milliseconds).
+	 * @param keepFirst  If the first item within the window should also be
+	 *                       emitted.
+	 * @param executor   Emit executor (items are emitted in the scheduler thread
+	 *                       if <code>null</code>).
+	 * @param emitAction Emit action.
+	 */
+	public EntityHistoryCoalescer(final long window, final boolean keepFirst, final Executor executor, final Consumer<ItemType> emitAction) {
+		this.window = window;
+		this.keepFirst = keepFirst;
+		this.executor = (executor == null ? Runnable::run : executor);
+		this.emitAction = emitAction;
+	}
+
+	/**
+	 * Constructor (items are emitted in the scheduler thread).
+	 *
+	 * @param window     Window (in milliseconds).
+	 * @param keepFirst  If the first item within the window should also be
+	 *                       emitted.
+	 * @param emitAction Emit action.
+	 */
+	public EntityHistoryCoalescer(final long window, final boolean keepFirst, final Consumer<ItemType> emitAction) {
+		this(window, keepFirst, null, emitAction);
+	}
+
+	/**
+	 * Emits an item.
+	 *
+	 * @param item Item.
+	 */
+	private void emit(
+			final ItemType item) {
+		try {
+			this.emitAction.accept(item);
+		}
+		// If the item cannot be emitted.
+		catch (final Exception exception) {
+			EntityHistoryCoalescer.LOGGER.error("Could not emit coalesced entity history: " + exception.getClass().getName() + " - " + exception.getLocalizedMessage());
+			EntityHistoryCoalescer.LOGGER.debug("Could not emit coalesced entity history.", exception);
+		}
+	}
+
+	/**
+	 * Emits the pending items for a key (if they are still pending, so a stale
+	 * window end is ignored).
+	 *
+	 * @param key          Key.
+	 * @param pendingItems Pending items (for the window).
+	 */
+	private void emitPending(
+			final Object key,
+			final PendingItems<ItemType> pendingItems) {
+		if (this.pending.remove(key, pendingItems)) {
+			if (this.keepFirst && (pendingItems.first != pendingItems.latest)) {
+				this.emit(pendingItems.first);
+			}
+			this.emit(pendingItems.latest);
+		}
+	}
+
+	/**
+	 * Ends a window, emitting its items in the executor (or in the current thread,
+	 * if the executor does not accept it).
+	 *
+	 * @param key          Key.
+	 * @param pendingItems Pending items (for the window).
+	 */
+	private void endWindow(
+			final Object key,
+			final PendingItems<ItemType> pendingItems) {
+		try {
+			this.executor.execute(() -> this.emitPending(key, pendingItems));
+		}
+		catch (final Exception exception) {
+			EntityHistoryCoalescer.LOGGER.warn("Coalesced entity history emitted in the scheduler thread: " + exception.getLocalizedMessage());
+			this.emitPending(key, pendingItems);
+		}
+	}
+
+	/**
+	 * Adds an item. The first item for a key opens the window, and the following
+	 * ones replace the latest item until the window ends.
+	 *
+	 * @param key  Key (items without a key are emitted immediately).
+	 * @param item Item.
+	 */
+	public void add(
+			final Object key,
+			final ItemType item) {
+		// Items without a key cannot be coalesced.
+		if (key == null) {
+			this.emit(item);
+		}
+		else {
+			final Object[] openedWindow = { null };
+			this.pending.compute(key, (
+					currentKey,
+					pendingItems) -> {
+				if (pendingItems == null) {
+					final PendingItems<ItemType> newPendingItems = new PendingItems<>(item);
+					openedWindow[0] = newPendingItems;
+					return newPendingItems;
+				}
+				pendingItems.latest = item;
+				return pendingItems;
+			});
+			// Schedules the window end for new keys.
+			if (openedWindow[0] != null) {
+				@SuppressWarnings("unchecked")
+				final PendingItems<ItemType> pendingItems = (PendingItems<ItemType>) openedWindow[0];
+				pendingItems.windowEnd = EntityHistoryBatcher.SCHEDULER.schedule(() -> this.endWindow(key, pendingItems), this.window, TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of keys with pending items.
+	 *
+	 * @return The number of keys with pending items.
+	 */
+	public int getPendingCount() {
+		return this.pending.size();
+	}
+
+	/**
+	 * Emits all pending items (in the current thread), cancelling their window
+	 * ends.
+	 */
+	public void flush() {
+		for (final Map.Entry<Object, PendingItems<ItemType>> pendingEntry : this.pending.entrySet()) {
+			final ScheduledFuture<?> windowEnd = pendingEntry.getValue().windowEnd;
+			if (windowEnd != null) {
+				windowEnd.cancel(false);
+			}
+			this.emitPending(pendingEntry.getKey(), pendingEntry.getValue());
+		}
+	}
+
+	/**
+	 * @see java.lang.AutoCloseable#close()
+	 */
+	@Override
+	public void close() {
+		this.flush();
+	}
+
+}
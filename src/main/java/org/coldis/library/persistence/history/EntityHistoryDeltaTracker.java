@@ -0,0 +1,156 @@
+package org.coldis.library.persistence.history;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks the last state sent for each entity (serialized), so entity history
+ * can be sent as JSON patches (RFC 6902) against the previous state, with a
+ * periodic full state (keyframe). The base state is chosen in the update order
+ * (see {@link #getBase(Object, String)}), and the patch can be created later,
+ * in another thread (see {@link #createPatch(Map, Map)}). States are only tracked in memory, so each entity must be
+ * updated by a single producer: a keyframe is sent for entities without a
+ * tracked state (not sent by this tracker yet), and the tracker must be reset
+ * when an update is lost. Patches start with a test on the previous update
+ * date, so a patch created from a stale state (when another producer updated
+ * the entity) does not apply, and the state is only rebuilt again from the next
+ * keyframe.
+ */
+public class EntityHistoryDeltaTracker {
+
+	/**
+	 * Update date attribute.
+	 */
+	public static final String UPDATED_AT_ATTRIBUTE = "updatedAt";
+
+	/**
+	 * Last state sent for an entity.
+	 */
+	private static final class LastState {
+
+		/**
+		 * State (serialized).
+		 */
+		private final String state;
+
+		/**
+		 * Patches sent since the last keyframe.
+		 */
+		private final int patches;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param state   State.
+		 * @param patches Patches sent since the last keyframe.
+		 */
+		private LastState(final String state, final int patches) {
+			this.state = state;
+			this.patches = patches;
+		}
+
+	}
+
+	/**
+	 * Keyframe interval (a full state is sent every given number of updates).
+	 */
+	private final int keyframeInterval;
+
+	/**
+	 * Lock.
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * Last states (least recently used entities are discarded first).
+	 */
+	private final Map<Object, LastState> lastStates;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param keyframeInterval Keyframe interval.
+	 * @param maxEntities      Maximum number of tracked entities.
+	 */
+	public EntityHistoryDeltaTracker(final int keyframeInterval, final int maxEntities) {
+		this.keyframeInterval = keyframeInterval;
+		this.lastStates = new LinkedHashMap<>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 7425131093012452165L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					final Map.Entry<Object, LastState> eldest) {
+				return this.size() > maxEntities;
+			}
+
+		};
+	}
+
+	/**
+	 * Resets the tracked states (so a keyframe is sent on the next update of each
+	 * entity).
+	 */
+	public void reset() {
+		this.lock.lock();
+		try {
+			this.lastStates.clear();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the state the current entity state should be sent as a patch against,
+	 * and tracks the current state as the last one sent.
+	 *
+	 * @param  entityId Entity identifier.
+	 * @param  state    Current entity state (serialized).
+	 * @return          The base state (serialized), or <code>null</code> if a
+	 *                  keyframe (the full state) should be sent.
+	 */
+	public String getBase(
+			final Object entityId,
+			final String state) {
+		// Gets the last state sent for the entity.
+		this.lock.lock();
+		try {
+			final LastState lastState = this.lastStates.get(entityId);
+			// If a keyframe should be sent.
+			if ((entityId == null) || (lastState == null) || ((lastState.patches + 1) >= this.keyframeInterval)) {
+				if (entityId != null) {
+					this.lastStates.put(entityId, new LastState(state, 0));
+				}
+				return null;
+			}
+			this.lastStates.put(entityId, new LastState(state, lastState.patches + 1));
+			return lastState.state;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Creates the patch from the base state to the current entity state, making
+	 * sure it is only applied to the base state.
+	 *
+	 * @param  base  Base state.
+	 * @param  state Current entity state.
+	 * @return       The patch.
+	 */
+	public static List<Map<String, Object>> createPatch(
+			final Map<String, Object> base,
+			final Map<String, Object> state) {
+		final List<Map<String, Object>> patch = JsonPatchHelper.diff(base, state);
+		final Object baseUpdatedAt = base.get(EntityHistoryDeltaTracker.UPDATED_AT_ATTRIBUTE);
+		if (baseUpdatedAt != null) {
+			patch.add(0, JsonPatchHelper.createOperation(JsonPatchHelper.TEST, "/" + EntityHistoryDeltaTracker.UPDATED_AT_ATTRIBUTE, baseUpdatedAt));
+		}
+		return patch;
+	}
+
+}
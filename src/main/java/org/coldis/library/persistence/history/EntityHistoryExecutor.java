@@ -0,0 +1,282 @@
+package org.coldis.library.persistence.history;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Entity history executor (applies the overflow policy when the underlying pool
+ * rejects a task, and keeps the pool metrics).
+ */
+public class EntityHistoryExecutor implements Executor {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(EntityHistoryExecutor.class);
+
+	/**
+	 * Maximum wait between retries (in milliseconds) when blocking.
+	 */
+	private static final long MAX_RETRY_WAIT = 50;
+
+	/**
+	 * Underlying pool.
+	 */
+	private final Executor delegate;
+
+	/**
+	 * Overflow policy.
+	 */
+	private final EntityHistoryOverflowPolicy overflowPolicy;
+
+	/**
+	 * Maximum wait for room in the pool (when blocking).
+	 */
+	private final Duration blockTimeout;
+
+	/**
+	 * Journal supplier (when spilling).
+	 */
+	private final Supplier<EntityHistoryJournal> journal;
+
+	/**
+	 * Queued tasks.
+	 */
+	private final LongAdder queued = new LongAdder();
+
+	/**
+	 * Rejected tasks.
+	 */
+	private final LongAdder rejected = new LongAdder();
+
+	/**
+	 * Dropped tasks.
+	 */
+	private final LongAdder dropped = new LongAdder();
+
+	/**
+	 * Spilled tasks.
+	 */
+	private final LongAdder spilled = new LongAdder();
+
+	/**
+	 * Completed tasks.
+	 */
+	private final LongAdder completed = new LongAdder();
+
+	/**
+	 * Total enqueue to completion latency (in nanoseconds).
+	 */
+	private final LongAdder totalLatency = new LongAdder();
+
+	/**
+	 * Maximum enqueue to completion latency (in nanoseconds).
+	 */
+	private final AtomicLong maxLatency = new AtomicLong();
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param delegate       Underlying pool.
+	 * @param overflowPolicy Overflow policy.
+	 * @param blockTimeout   Maximum wait for room in the pool (when blocking).
+	 * @param journal        Journal supplier (when spilling).
+	 */
+	public EntityHistoryExecutor(
+			final Executor delegate,
+			final EntityHistoryOverflowPolicy overflowPolicy,
+			final Duration blockTimeout,
+			final Supplier<EntityHistoryJournal> journal) {
+		this.delegate = delegate;
+		this.overflowPolicy = (overflowPolicy == null ? EntityHistoryOverflowPolicy.DROP : overflowPolicy);
+		this.blockTimeout = (blockTimeout == null ? Duration.ZERO : blockTimeout);
+		this.journal = journal;
+	}
+
+	/**
+	 * Gets the number of tasks waiting in the pool queue.
+	 *
+	 * @return The number of tasks waiting in the pool queue.
+	 */
+	public long getQueueDepth() {
+		return this.queued.sum();
+	}
+
+	/**
+	 * Gets the number of tasks rejected by the pool.
+	 *
+	 * @return The number of tasks rejected by the pool.
+	 */
+	public long getRejectedCount() {
+		return this.rejected.sum();
+	}
+
+	/**
+	 * Gets the number of tasks dropped.
+	 *
+	 * @return The number of tasks dropped.
+	 */
+	public long getDroppedCount() {
+		return this.dropped.sum();
+	}
+
+	/**
+	 * Gets the number of tasks spilled to the journal.
+	 *
+	 * @return The number of tasks spilled to the journal.
+	 */
+	public long getSpilledCount() {
+		return this.spilled.sum();
+	}
+
+	/**
+	 * Gets the number of tasks completed in the pool.
+	 *
+	 * @return The number of tasks completed in the pool.
+	 */
+	public long getCompletedCount() {
+		return this.completed.sum();
+	}
+
+	/**
+	 * Gets the average enqueue to completion latency.
+	 *
+	 * @return The average enqueue to completion latency.
+	 */
+	public Duration getAverageLatency() {
+		final long completedCount = this.completed.sum();
+		return Duration.ofNanos(completedCount == 0 ? 0 : this.totalLatency.sum() / completedCount);
+	}
+
+	/**
+	 * Gets the maximum enqueue to completion latency.
+	 *
+	 * @return The maximum enqueue to completion latency.
+	 */
+	public Duration getMaxLatency() {
+		return Duration.ofNanos(this.maxLatency.get());
+	}
+
+	/**
+	 * Wraps the task so queue depth and latency are measured.
+	 *
+	 * @param  task Task.
+	 * @return      The measured task.
+	 */
+	private Runnable measure(
+			final Runnable task) {
+		final long enqueuedAt = System.nanoTime();
+		this.queued.increment();
+		return () -> {
+			this.queued.decrement();
+			try {
+				task.run();
+			}
+			finally {
+				final long latency = System.nanoTime() - enqueuedAt;
+				this.completed.increment();
+				this.totalLatency.add(latency);
+				this.maxLatency.accumulateAndGet(latency, Math::max);
+			}
+		};
+	}
+
+	/**
+	 * Tries to queue the task in the pool.
+	 *
+	 * @param  task Task.
+	 * @return      If the task was queued.
+	 */
+	private boolean tryExecute(
+			final Runnable task) {
+		final Runnable measuredTask = this.measure(task);
+		try {
+			this.delegate.execute(measuredTask);
+			return true;
+		}
+		catch (final RejectedExecutionException exception) {
+			this.queued.decrement();
+			return false;
+		}
+	}
+
+	/**
+	 * Waits for room in the pool (up to the block timeout).
+	 *
+	 * @param  task Task.
+	 * @return      If the task was queued.
+	 */
+	private boolean executeBlocking(
+			final Runnable task) {
+		final long deadline = System.nanoTime() + this.blockTimeout.toNanos();
+		long wait = 1;
+		while (System.nanoTime() < deadline) {
+			try {
+				TimeUnit.MILLISECONDS.sleep(wait);
+			}
+			catch (final InterruptedException exception) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+			if (this.tryExecute(task)) {
+				return true;
+			}
+			wait = Math.min(wait * 2, EntityHistoryExecutor.MAX_RETRY_WAIT);
+		}
+		return false;
+	}
+
+	/**
+	 * Drops the task.
+	 *
+	 * @param task Task.
+	 */
+	private void drop(
+			final Runnable task) {
+		this.dropped.increment();
+		throw new RejectedExecutionException("Entity history task dropped (history pool is saturated).");
+	}
+
+	/**
+	 * @see java.util.concurrent.Executor#execute(java.lang.Runnable)
+	 */
+	@Override
+	public void execute(
+			final Runnable task) {
+		// Tries to queue the task in the pool.
+		if (this.tryExecute(task)) {
+			return;
+		}
+		// If the pool is saturated, applies the overflow policy.
+		this.rejected.increment();
+		switch (this.overflowPolicy) {
+			case CALLER_RUNS -> task.run();
+			case BLOCK -> {
+				if (!this.executeBlocking(task)) {
+					this.drop(task);
+				}
+			}
+			case SPILL -> {
+				final EntityHistoryJournal currentJournal = (this.journal == null ? null : this.journal.get());
+				if ((currentJournal != null) && (task instanceof final EntityHistoryTask historyTask)) {
+					currentJournal.append(historyTask.getDestination(), historyTask.getUpdate());
+					this.spilled.increment();
+				}
+				else {
+					EntityHistoryExecutor.LOGGER.warn("Entity history task cannot be spilled (no journal available) and runs in the calling thread.");
+					task.run();
+				}
+			}
+			case DROP -> this.drop(task);
+		}
+	}
+
+}
@@ -0,0 +1,29 @@
+package org.coldis.library.persistence.history;
+
+/**
+ * Local entity history journal (keeps updates that could not be queued, so they
+ * can be replayed later).
+ */
+public interface EntityHistoryJournal {
+
+	/**
+	 * Appends an update to the journal (must not block on the broker).
+	 *
+	 * @param destination Entity history queue.
+	 * @param update      Update.
+	 */
+	void append(
+			String destination,
+			EntityHistoryUpdate update);
+
+	/**
+	 * Gets if there are updates not replayed yet (new updates should then be
+	 * appended as well, so they are not delivered before the pending ones).
+	 *
+	 * @return If there are updates not replayed yet.
+	 */
+	default boolean hasPending() {
+		return false;
+	}
+
+}
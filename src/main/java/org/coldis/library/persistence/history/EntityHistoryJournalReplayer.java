@@ -0,0 +1,134 @@
+package org.coldis.library.persistence.history;
+
+import java.util.Map;
+
+import org.coldis.library.service.jms.JmsMessage;
+import org.coldis.library.service.jms.JmsTemplateHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Entity history journal replayer (drains the journal back to JMS, in order,
+ * once the broker is available again). While the journal has pending updates,
+ * the producers append new updates to the journal instead of sending them (see
+ * {@link EntityHistoryJournal#hasPending()}), so spilled updates are not
+ * delivered after newer ones. Until the journal is drained, history throughput
+ * is therefore limited to the replay rate.
+ */
+@Component
+@ConditionalOnProperty(
+		name = "org.coldis.library.persistence.history.journal.enabled",
+		havingValue = "true",
+		matchIfMissing = false
+)
+public class EntityHistoryJournalReplayer {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(EntityHistoryJournalReplayer.class);
+
+	/**
+	 * Journal.
+	 */
+	@Autowired
+	private MappedEntityHistoryJournal journal;
+
+	/**
+	 * JMS template.
+	 */
+	@Autowired
+	@Qualifier(value = "entityHistoryJmsTemplate")
+	private JmsTemplate jmsTemplate;
+
+	/**
+	 * JMS template helper.
+	 */
+	@Autowired
+	private JmsTemplateHelper jmsTemplateHelper;
+
+	/**
+	 * Replay interval (in milliseconds).
+	 */
+	@Value("${org.coldis.library.persistence.history.journal.replay-interval:5000}")
+	private Long replayInterval;
+
+	/**
+	 * Replay thread.
+	 */
+	private Thread replayThread;
+
+	/**
+	 * If the replayer is running.
+	 */
+	private volatile boolean running;
+
+	/**
+	 * Sends an update to JMS (as live updates are sent).
+	 *
+	 * @param destination Entity history queue.
+	 * @param update      Update.
+	 */
+	private void send(
+			final String destination,
+			final EntityHistoryUpdate update) {
+		this.jmsTemplateHelper.send(this.jmsTemplate,
+				new JmsMessage<>().withDestination(destination).withMessage(update.getContent()).withProperties(Map.copyOf(update.getProperties())));
+	}
+
+	/**
+	 * Replays the journal.
+	 *
+	 * @return The number of updates replayed.
+	 */
+	public int replay() {
+		final int replayed = this.journal.replay(this::send);
+		if (replayed > 0) {
+			EntityHistoryJournalReplayer.LOGGER.info("Replayed " + replayed + " entity history updates from the journal.");
+		}
+		return replayed;
+	}
+
+	/**
+	 * Starts the replayer.
+	 */
+	@PostConstruct
+	public void start() {
+		this.running = true;
+		this.replayThread = new Thread(() -> {
+			while (this.running) {
+				try {
+					this.replay();
+					Thread.sleep(this.replayInterval);
+				}
+				catch (final InterruptedException exception) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}, "entity-history-journal-replayer");
+		this.replayThread.setDaemon(true);
+		this.replayThread.start();
+	}
+
+	/**
+	 * Stops the replayer.
+	 */
+	@PreDestroy
+	public void stop() {
+		this.running = false;
+		if (this.replayThread != null) {
+			this.replayThread.interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,177 @@
+package org.coldis.library.persistence.history;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.coldis.library.exception.IntegrationException;
+import org.coldis.library.model.SimpleMessage;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Entity history outbox (history updates are written to a local table in the
+ * same transaction as the entity change, and later relayed by
+ * {@link EntityHistoryOutboxRelay}). The outbox table is not mapped as an
+ * entity, so it must be created by migrations (with
+ * {@link #TABLE_STATEMENT}) or by enabling
+ * <code>org.coldis.library.persistence.history.outbox.table.enabled</code>.
+ */
+@Component
+public class EntityHistoryOutbox {
+
+	/**
+	 * Table.
+	 */
+	public static final String TABLE = "entity_history_outbox";
+
+	/**
+	 * Table statement.
+	 */
+	public static final String TABLE_STATEMENT = "CREATE TABLE IF NOT EXISTS " + EntityHistoryOutbox.TABLE
+			+ " (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, destination TEXT NOT NULL, properties JSONB, content JSONB, created_at TIMESTAMP)";
+
+	/**
+	 * Insert statement.
+	 */
+	private static final String INSERT = "INSERT INTO " + EntityHistoryOutbox.TABLE
+			+ " (destination, properties, content, created_at) VALUES (?, CAST(? AS JSONB), CAST(? AS JSONB), ?)";
+
+	/**
+	 * Entity manager.
+	 */
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * JDBC template.
+	 */
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Object mapper.
+	 */
+	@Autowired
+	@Qualifier(value = "persistenceJsonMapper")
+	private ObjectMapper objectMapper;
+
+	/**
+	 * If the outbox table should be created on start up.
+	 */
+	@Value("${org.coldis.library.persistence.history.outbox.table.enabled:false}")
+	private Boolean tableEnabled;
+
+	/**
+	 * Creates the outbox table, if enabled.
+	 */
+	@PostConstruct
+	public void init() {
+		if (this.tableEnabled) {
+			this.jdbcTemplate.execute(EntityHistoryOutbox.TABLE_STATEMENT);
+		}
+	}
+
+	/**
+	 * Serializes the update properties.
+	 *
+	 * @param  update Update.
+	 * @return        The serialized update properties.
+	 */
+	private String serializeProperties(
+			final EntityHistoryUpdate update) {
+		try {
+			return this.objectMapper.writeValueAsString(update.getProperties());
+		}
+		// If the properties cannot be serialized.
+		catch (final JsonProcessingException exception) {
+			throw new IntegrationException(new SimpleMessage("json.serialization.failed"), exception);
+		}
+	}
+
+	/**
+	 * Inserts the pending updates in a single JDBC batch.
+	 *
+	 * @param session Session.
+	 * @param pending Pending updates (by queue).
+	 */
+	private void insert(
+			final SessionImplementor session,
+			final List<Map.Entry<String, EntityHistoryUpdate>> pending) {
+		if (!pending.isEmpty()) {
+			session.doWork((
+					connection) -> {
+				try (PreparedStatement statement = connection.prepareStatement(EntityHistoryOutbox.INSERT)) {
+					for (final Map.Entry<String, EntityHistoryUpdate> entry : pending) {
+						statement.setString(1, entry.getKey());
+						statement.setString(2, this.serializeProperties(entry.getValue()));
+						statement.setString(3, entry.getValue().getContent());
+						statement.setTimestamp(4, new Timestamp(entry.getValue().getTimestamp()));
+						statement.addBatch();
+					}
+					statement.executeBatch();
+				}
+			});
+			pending.clear();
+		}
+	}
+
+	/**
+	 * Adds an update to the outbox. Within a transaction, updates are buffered
+	 * and inserted in a single JDBC batch right before the transaction commits
+	 * (after the last flush); otherwise, the update is inserted immediately.
+	 *
+	 * @param destination Entity history queue.
+	 * @param update      Update.
+	 */
+	@SuppressWarnings("unchecked")
+	public void add(
+			final String destination,
+			final EntityHistoryUpdate update) {
+		// If there is no transaction, inserts the update immediately.
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			this.jdbcTemplate.update(EntityHistoryOutbox.INSERT, destination, this.serializeProperties(update), update.getContent(),
+					new Timestamp(update.getTimestamp()));
+			return;
+		}
+		// Gets the pending updates for the transaction.
+		List<Map.Entry<String, EntityHistoryUpdate>> pending = (List<Map.Entry<String, EntityHistoryUpdate>>) TransactionSynchronizationManager.getResource(this);
+		if (pending == null) {
+			final List<Map.Entry<String, EntityHistoryUpdate>> transactionPending = new ArrayList<>();
+			pending = transactionPending;
+			TransactionSynchronizationManager.bindResource(this, transactionPending);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCompletion(
+						final int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(EntityHistoryOutbox.this);
+				}
+
+			});
+			// Inserts the pending updates after the session is flushed, right before the
+			// transaction commits.
+			final SessionImplementor session = this.entityManager.unwrap(SessionImplementor.class);
+			session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) (
+					currentSession) -> this.insert(currentSession, transactionPending));
+		}
+		pending.add(Map.entry(destination, update));
+	}
+
+}
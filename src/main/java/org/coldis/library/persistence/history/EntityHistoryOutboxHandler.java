@@ -0,0 +1,26 @@
+package org.coldis.library.persistence.history;
+
+import java.util.List;
+
+/**
+ * Entity history outbox handler (saves the history updates relayed from the
+ * outbox directly, without a broker).
+ */
+public interface EntityHistoryOutboxHandler {
+
+	/**
+	 * Gets the entity history queue handled.
+	 *
+	 * @return The entity history queue handled.
+	 */
+	String getQueue();
+
+	/**
+	 * Handles the entity history updates (in the relay transaction).
+	 *
+	 * @param updates Entity history updates.
+	 */
+	void handle(
+			List<EntityHistoryUpdate> updates);
+
+}
@@ -0,0 +1,255 @@
+package org.coldis.library.persistence.history;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.coldis.library.exception.IntegrationException;
+import org.coldis.library.model.SimpleMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.jms.TextMessage;
+
+/**
+ * Entity history outbox relay (drains the outbox in chunks, saving the history
+ * directly with the registered {@link EntityHistoryOutboxHandler} or sending it
+ * to JMS).
+ */
+@Component
+@ConditionalOnProperty(
+		name = "org.coldis.library.persistence.history.outbox-relay.enabled",
+		havingValue = "true",
+		matchIfMissing = false
+)
+public class EntityHistoryOutboxRelay {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(EntityHistoryOutboxRelay.class);
+
+	/**
+	 * Select statement (locked rows are skipped, so multiple relays can run in
+	 * parallel).
+	 */
+	private static final String SELECT = "SELECT id, destination, properties, content, created_at FROM " + EntityHistoryOutbox.TABLE
+			+ " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+	/**
+	 * Delete statement.
+	 */
+	private static final String DELETE = "DELETE FROM " + EntityHistoryOutbox.TABLE + " WHERE id = ANY(?)";
+
+	/**
+	 * Properties type.
+	 */
+	private static final TypeReference<Map<String, String>> PROPERTIES_TYPE = new TypeReference<Map<String, String>>() {};
+
+	/**
+	 * JDBC template.
+	 */
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Transaction manager.
+	 */
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/**
+	 * Object mapper.
+	 */
+	@Autowired
+	@Qualifier(value = "persistenceJsonMapper")
+	private ObjectMapper objectMapper;
+
+	/**
+	 * Direct handlers.
+	 */
+	@Autowired(required = false)
+	private List<EntityHistoryOutboxHandler> handlers;
+
+	/**
+	 * JMS template (used when updates are not saved directly).
+	 */
+	@Autowired
+	@Qualifier(value = "entityHistoryJmsTemplate")
+	private ObjectProvider<JmsTemplate> jmsTemplate;
+
+	/**
+	 * If updates should be saved directly (when a handler exists for the queue),
+	 * instead of sent to JMS.
+	 */
+	@Value("${org.coldis.library.persistence.history.outbox-relay.direct:true}")
+	private Boolean direct;
+
+	/**
+	 * Maximum number of updates relayed per transaction.
+	 */
+	@Value("${org.coldis.library.persistence.history.outbox-relay.batch-size:500}")
+	private Integer batchSize;
+
+	/**
+	 * Poll interval (in milliseconds) when the outbox is empty.
+	 */
+	@Value("${org.coldis.library.persistence.history.outbox-relay.poll-interval:500}")
+	private Long pollInterval;
+
+	/**
+	 * Handlers by queue.
+	 */
+	private final Map<String, EntityHistoryOutboxHandler> handlersByQueue = new LinkedHashMap<>();
+
+	/**
+	 * Transaction template.
+	 */
+	private TransactionTemplate transactionTemplate;
+
+	/**
+	 * Relay thread.
+	 */
+	private Thread relayThread;
+
+	/**
+	 * If the relay is running.
+	 */
+	private volatile boolean running;
+
+	/**
+	 * Relays the updates for a queue.
+	 *
+	 * @param destination Entity history queue.
+	 * @param updates     Updates.
+	 */
+	private void relayUpdates(
+			final String destination,
+			final List<EntityHistoryUpdate> updates) {
+		final EntityHistoryOutboxHandler handler = this.handlersByQueue.get(destination);
+		// Saves the updates directly.
+		if (this.direct && (handler != null)) {
+			handler.handle(updates);
+		}
+		// Sends the updates to JMS in a single batch message.
+		else {
+			final String batch = EntityHistoryUpdate.serializeBatch(this.objectMapper, updates);
+			this.jmsTemplate.getObject().send(destination, (
+					session) -> {
+				final TextMessage message = session.createTextMessage(batch);
+				message.setStringProperty(EntityHistoryUpdate.BATCH_PROPERTY, "true");
+				return message;
+			});
+		}
+	}
+
+	/**
+	 * Relays a chunk of updates from the outbox.
+	 *
+	 * @return The number of updates relayed.
+	 */
+	public int relay() {
+		final Integer relayed = this.transactionTemplate.execute((
+				status) -> {
+			// Locks the next updates.
+			final List<Long> ids = new ArrayList<>();
+			final Map<String, List<EntityHistoryUpdate>> updatesByQueue = new LinkedHashMap<>();
+			this.jdbcTemplate.query(EntityHistoryOutboxRelay.SELECT, (RowCallbackHandler) (
+					row) -> {
+				try {
+					ids.add(row.getLong("id"));
+					updatesByQueue.computeIfAbsent(row.getString("destination"), (
+							destination) -> new ArrayList<>())
+							.add(new EntityHistoryUpdate(row.getString("content"),
+									this.objectMapper.readValue(row.getString("properties"), EntityHistoryOutboxRelay.PROPERTIES_TYPE),
+									row.getTimestamp("created_at").getTime()));
+				}
+				catch (final JsonProcessingException exception) {
+					throw new IntegrationException(new SimpleMessage("json.deserialization.failed"), exception);
+				}
+			}, this.batchSize);
+			// Relays and removes the updates.
+			if (!ids.isEmpty()) {
+				updatesByQueue.forEach(this::relayUpdates);
+				this.jdbcTemplate.update(EntityHistoryOutboxRelay.DELETE, (
+						statement) -> statement.setArray(1, statement.getConnection().createArrayOf("bigint", ids.toArray())));
+			}
+			return ids.size();
+		});
+		return relayed == null ? 0 : relayed;
+	}
+
+	/**
+	 * Starts the relay.
+	 */
+	@PostConstruct
+	public void start() {
+		// Indexes the handlers.
+		if (this.handlers != null) {
+			this.handlers.forEach((
+					handler) -> this.handlersByQueue.put(handler.getQueue(), handler));
+		}
+		this.transactionTemplate = new TransactionTemplate(this.transactionManager);
+		// Starts the relay thread.
+		this.running = true;
+		this.relayThread = new Thread(() -> {
+			while (this.running) {
+				try {
+					// Waits if the outbox is drained.
+					if (this.relay() < this.batchSize) {
+						Thread.sleep(this.pollInterval);
+					}
+				}
+				catch (final InterruptedException exception) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				// If the updates cannot be relayed.
+				catch (final Exception exception) {
+					EntityHistoryOutboxRelay.LOGGER.error("Could not relay entity history outbox: " + exception.getClass().getName() + " - "
+							+ exception.getLocalizedMessage());
+					EntityHistoryOutboxRelay.LOGGER.debug("Could not relay entity history outbox.", exception);
+					try {
+						Thread.sleep(this.pollInterval);
+					}
+					catch (final InterruptedException interruptedException) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+			}
+		}, "entity-history-outbox-relay");
+		this.relayThread.setDaemon(true);
+		this.relayThread.start();
+	}
+
+	/**
+	 * Stops the relay.
+	 */
+	@PreDestroy
+	public void stop() {
+		this.running = false;
+		if (this.relayThread != null) {
+			this.relayThread.interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,31 @@
+package org.coldis.library.persistence.history;
+
+/**
+ * Entity history thread pool overflow policy (what happens to a history task
+ * when the pool queue is full).
+ */
+public enum EntityHistoryOverflowPolicy {
+
+	/**
+	 * The task runs in the calling thread.
+	 */
+	CALLER_RUNS,
+
+	/**
+	 * The calling thread waits (up to a timeout) for room in the pool queue, and
+	 * the task is dropped after that.
+	 */
+	BLOCK,
+
+	/**
+	 * The update is written to the entity history journal, to be replayed later
+	 * (the task runs in the calling thread if there is no journal).
+	 */
+	SPILL,
+
+	/**
+	 * The task is dropped.
+	 */
+	DROP
+
+}
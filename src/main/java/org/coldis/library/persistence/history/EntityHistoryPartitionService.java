@@ -0,0 +1,568 @@
+package org.coldis.library.persistence.history;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+
+/**
+ * Entity history partition service. Converts empty history tables annotated
+ * with {@link EntityHistoryPartitioned} into PostgreSQL range partitioned
+ * tables (by update date), pre-creates the next partitions and detaches (or
+ * drops) the partitions past the retention. History tables with rows are
+ * migrated (copied in batches) if enabled, or can be migrated with
+ * {@link #migrateTable(String, String, String, EntityHistoryPartitioning, int)}.
+ */
+@Component
+@ConditionalOnProperty(
+		name = "org.coldis.library.persistence.history.partition-maintenance.enabled",
+		havingValue = "true",
+		matchIfMissing = false
+)
+public class EntityHistoryPartitionService {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(EntityHistoryPartitionService.class);
+
+	/**
+	 * Partition attribute (history update date).
+	 */
+	public static final String PARTITION_ATTRIBUTE = "updatedAt";
+
+	/**
+	 * Partition name suffix (followed by the partition period).
+	 */
+	public static final String PARTITION_SUFFIX = "_p";
+
+	/**
+	 * Default partition name suffix (rows outside the existing partitions).
+	 */
+	public static final String DEFAULT_PARTITION_SUFFIX = "_default";
+
+	/**
+	 * Partitioned copy suffix (while a table with rows is migrated).
+	 */
+	public static final String MIGRATION_SUFFIX = "_partitioned";
+
+	/**
+	 * Partitioned table select statement.
+	 */
+	private static final String SELECT_PARTITIONED = "SELECT COUNT(*) FROM pg_partitioned_table WHERE partrelid = to_regclass(?)";
+
+	/**
+	 * Non unique indexes select statement.
+	 */
+	private static final String SELECT_INDEXES = "SELECT pg_get_indexdef(indexrelid) FROM pg_index WHERE indrelid = to_regclass(?) AND NOT indisunique";
+
+	/**
+	 * Partitions select statement.
+	 */
+	private static final String SELECT_PARTITIONS = "SELECT child.relname FROM pg_inherits JOIN pg_class child ON child.oid = pg_inherits.inhrelid "
+			+ "WHERE pg_inherits.inhparent = to_regclass(?)";
+
+	/**
+	 * Partition key select statement (the range partition column).
+	 */
+	private static final String SELECT_PARTITION_KEY = "SELECT substring(pg_get_partkeydef(to_regclass(?)) FROM '\\((.*)\\)')";
+
+	/**
+	 * Primary key name select statement.
+	 */
+	private static final String SELECT_PRIMARY_KEY = "SELECT conname FROM pg_constraint WHERE conrelid = to_regclass(?) AND contype = 'p'";
+
+	/**
+	 * Partitioned history table.
+	 */
+	private static class PartitionedTable {
+
+		/**
+		 * Table name.
+		 */
+		private final String table;
+
+		/**
+		 * Identifier column name.
+		 */
+		private final String idColumn;
+
+		/**
+		 * Partition (update date) column name.
+		 */
+		private final String partitionColumn;
+
+		/**
+		 * Partitioning.
+		 */
+		private final EntityHistoryPartitioning partitioning;
+
+		/**
+		 * Number of past partitions kept.
+		 */
+		private final int retention;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param table           Table name.
+		 * @param idColumn        Identifier column name.
+		 * @param partitionColumn Partition (update date) column name.
+		 * @param partitioning    Partitioning.
+		 * @param retention       Number of past partitions kept.
+		 */
+		private PartitionedTable(
+				final String table,
+				final String idColumn,
+				final String partitionColumn,
+				final EntityHistoryPartitioning partitioning,
+				final int retention) {
+			this.table = table;
+			this.idColumn = idColumn;
+			this.partitionColumn = partitionColumn;
+			this.partitioning = partitioning;
+			this.retention = retention;
+		}
+
+	}
+
+	/**
+	 * JDBC template.
+	 */
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Transaction manager.
+	 */
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/**
+	 * Entity manager factory (used to find the partitioned history tables).
+	 */
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * Number of partitions created ahead of the current one.
+	 */
+	@Value("${org.coldis.library.persistence.history.partition-maintenance.ahead:3}")
+	private Integer ahead;
+
+	/**
+	 * If partitions past the retention should be dropped (instead of only
+	 * detached, so they can be archived).
+	 */
+	@Value("${org.coldis.library.persistence.history.partition-maintenance.drop:false}")
+	private Boolean drop;
+
+	/**
+	 * If history tables with rows should be migrated by the maintenance (see
+	 * {@link #migrateTable(String, String, String, EntityHistoryPartitioning, int)}).
+	 */
+	@Value("${org.coldis.library.persistence.history.partition-maintenance.migrate:false}")
+	private Boolean migrate;
+
+	/**
+	 * Number of rows copied in each transaction when a table is migrated.
+	 */
+	@Value("${org.coldis.library.persistence.history.partition-maintenance.migrate-batch-size:10000}")
+	private Integer migrateBatchSize;
+
+	/**
+	 * Maintenance interval (in milliseconds).
+	 */
+	@Value("${org.coldis.library.persistence.history.partition-maintenance.interval:3600000}")
+	private Long interval;
+
+	/**
+	 * Partitioned history tables.
+	 */
+	private final List<PartitionedTable> partitionedTables = new ArrayList<>();
+
+	/**
+	 * Transaction template.
+	 */
+	private TransactionTemplate transactionTemplate;
+
+	/**
+	 * Maintenance thread.
+	 */
+	private Thread maintenanceThread;
+
+	/**
+	 * If the maintenance is running.
+	 */
+	private volatile boolean running;
+
+	/**
+	 * Gets the schema prefix of a table name (empty if the name is not
+	 * qualified).
+	 *
+	 * @param  table Table name.
+	 * @return       The schema prefix.
+	 */
+	private static String getSchemaPrefix(
+			final String table) {
+		return table.substring(0, table.lastIndexOf('.') + 1);
+	}
+
+	/**
+	 * Gets if a table is partitioned.
+	 *
+	 * @param  table Table name.
+	 * @return       If the table is partitioned.
+	 */
+	public boolean isPartitioned(
+			final String table) {
+		return this.jdbcTemplate.queryForObject(EntityHistoryPartitionService.SELECT_PARTITIONED, Long.class, table) > 0;
+	}
+
+	/**
+	 * Converts an empty table into a range partitioned table (by the partition
+	 * column), with a default partition. The primary key is extended with the
+	 * partition column, and non unique indexes are recreated on the partitioned
+	 * table. Tables with rows are not converted (see
+	 * {@link #migrateTable(String, String, String, EntityHistoryPartitioning, int)}).
+	 * The table is locked (exclusively) before it is checked, so no rows are
+	 * written while it is converted.
+	 *
+	 * @param  table           Table name.
+	 * @param  idColumn        Identifier column name.
+	 * @param  partitionColumn Partition column name.
+	 * @return                 If the table has been converted.
+	 */
+	public boolean partitionTable(
+			final String table,
+			final String idColumn,
+			final String partitionColumn) {
+		return this.transactionTemplate.execute((
+				status) -> {
+			// Tables already partitioned or with rows are not converted (checked again
+			// once the table is locked).
+			if (this.isPartitioned(table)) {
+				return false;
+			}
+			this.jdbcTemplate.execute("LOCK TABLE " + table + " IN ACCESS EXCLUSIVE MODE");
+			if (this.isPartitioned(table)) {
+				return false;
+			}
+			if (this.jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + table + ")", Boolean.class)) {
+				EntityHistoryPartitionService.LOGGER.warn("History table '" + table + "' has rows and must be migrated to be partitioned.");
+				return false;
+			}
+			// Recreates the table as a partitioned table.
+			final List<String> indexes = this.jdbcTemplate.queryForList(EntityHistoryPartitionService.SELECT_INDEXES, String.class, table);
+			final String unpartitionedTable = table + "_unpartitioned";
+			this.jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + unpartitionedTable.substring(EntityHistoryPartitionService.getSchemaPrefix(table).length()));
+			this.jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE " + unpartitionedTable + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE ("
+					+ partitionColumn + ")");
+			this.jdbcTemplate.execute("ALTER TABLE " + table + " ADD PRIMARY KEY (" + idColumn + ", " + partitionColumn + ")");
+			this.jdbcTemplate.execute("DROP TABLE " + unpartitionedTable);
+			indexes.forEach(this.jdbcTemplate::execute);
+			this.jdbcTemplate.execute("CREATE TABLE " + table + EntityHistoryPartitionService.DEFAULT_PARTITION_SUFFIX + " PARTITION OF " + table + " DEFAULT");
+			EntityHistoryPartitionService.LOGGER.info("History table '" + table + "' partitioned by '" + partitionColumn + "'.");
+			return true;
+		});
+	}
+
+	/**
+	 * Migrates a table with rows into a range partitioned table (by the partition
+	 * column). A partitioned copy of the table is created (with the partitions
+	 * for the existing rows and the next ones), and the rows are copied in
+	 * batches (ordered by identifier, each batch in its own transaction) while
+	 * the table is still written. The table is then locked (exclusively) to copy
+	 * the remaining rows, replace the table by the copy and recreate the non
+	 * unique indexes.
+	 *
+	 * @param  table           Table name.
+	 * @param  idColumn        Identifier column name (numeric).
+	 * @param  partitionColumn Partition column name.
+	 * @param  partitioning    Partitioning.
+	 * @param  batchSize       Number of rows copied in each transaction.
+	 * @return                 If the table has been migrated.
+	 */
+	public boolean migrateTable(
+			final String table,
+			final String idColumn,
+			final String partitionColumn,
+			final EntityHistoryPartitioning partitioning,
+			final int batchSize) {
+		if (this.isPartitioned(table)) {
+			return false;
+		}
+		// Creates the partitioned copy of the table (from scratch, if a previous
+		// migration did not finish).
+		final String partitionedTable = table + EntityHistoryPartitionService.MIGRATION_SUFFIX;
+		this.transactionTemplate.executeWithoutResult((
+				status) -> {
+			this.jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionedTable);
+			this.jdbcTemplate.execute("CREATE TABLE " + partitionedTable + " (LIKE " + table + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE ("
+					+ partitionColumn + ")");
+			this.jdbcTemplate.execute("ALTER TABLE " + partitionedTable + " ADD PRIMARY KEY (" + idColumn + ", " + partitionColumn + ")");
+			this.jdbcTemplate.execute("CREATE TABLE " + table + EntityHistoryPartitionService.DEFAULT_PARTITION_SUFFIX + " PARTITION OF " + partitionedTable + " DEFAULT");
+		});
+		// Creates the partitions for the existing rows and the next ones.
+		final LocalDate first = this.jdbcTemplate.queryForObject("SELECT MIN(" + partitionColumn + ")::date FROM " + table, LocalDate.class);
+		final LocalDate last = this.jdbcTemplate.queryForObject("SELECT MAX(" + partitionColumn + ")::date FROM " + table, LocalDate.class);
+		if (first != null) {
+			for (LocalDate start = partitioning.getStart(first); !start.isAfter(last); start = partitioning.getNext(start, 1)) {
+				this.createPartition(partitionedTable, table, partitioning, start);
+			}
+		}
+		final LocalDate currentStart = partitioning.getStart(LocalDate.now());
+		for (long index = 0; index <= this.ahead; index++) {
+			this.createPartition(partitionedTable, table, partitioning, partitioning.getNext(currentStart, index));
+		}
+		// Copies the rows in batches.
+		final String copyStatement = "WITH copied AS (INSERT INTO " + partitionedTable + " SELECT * FROM " + table + " WHERE " + idColumn + " > ? ORDER BY "
+				+ idColumn + " LIMIT ? RETURNING " + idColumn + ") SELECT MAX(" + idColumn + ") FROM copied";
+		Long lastId = Long.MIN_VALUE;
+		while (lastId != null) {
+			final Long afterId = lastId;
+			lastId = this.transactionTemplate.execute((
+					status) -> this.jdbcTemplate.queryForObject(copyStatement, Long.class, afterId, batchSize));
+			EntityHistoryPartitionService.LOGGER.debug("Rows up to identifier '" + lastId + "' copied to '" + partitionedTable + "'.");
+		}
+		// Copies the remaining rows (written or committed since they were copied) and
+		// replaces the table by the partitioned copy.
+		return this.transactionTemplate.execute((
+				status) -> {
+			this.jdbcTemplate.execute("LOCK TABLE " + table + " IN ACCESS EXCLUSIVE MODE");
+			if (this.isPartitioned(table)) {
+				return false;
+			}
+			this.jdbcTemplate.update("INSERT INTO " + partitionedTable + " SELECT * FROM " + table + " unpartitioned WHERE NOT EXISTS (SELECT 1 FROM "
+					+ partitionedTable + " partitioned WHERE partitioned." + idColumn + " = unpartitioned." + idColumn + " AND partitioned." + partitionColumn
+					+ " = unpartitioned." + partitionColumn + ")");
+			final List<String> indexes = this.jdbcTemplate.queryForList(EntityHistoryPartitionService.SELECT_INDEXES, String.class, table);
+			final String primaryKey = this.jdbcTemplate.queryForObject(EntityHistoryPartitionService.SELECT_PRIMARY_KEY, String.class, partitionedTable);
+			final String tableName = table.substring(EntityHistoryPartitionService.getSchemaPrefix(table).length());
+			this.jdbcTemplate.execute("DROP TABLE " + table);
+			this.jdbcTemplate.execute("ALTER TABLE " + partitionedTable + " RENAME TO " + tableName);
+			this.jdbcTemplate.execute("ALTER TABLE " + table + " RENAME CONSTRAINT " + primaryKey + " TO " + tableName + "_pkey");
+			indexes.forEach(this.jdbcTemplate::execute);
+			EntityHistoryPartitionService.LOGGER.info("History table '" + table + "' migrated to a table partitioned by '" + partitionColumn + "'.");
+			return true;
+		});
+	}
+
+	/**
+	 * Creates the partition for a period (if it does not exist). Rows for the
+	 * period already in the default partition are moved into the new partition
+	 * (the default partition is locked while they are moved), as the partition
+	 * cannot be created otherwise.
+	 *
+	 * @param  parentTable  Partitioned table name.
+	 * @param  table        Table name (used to name the partitions, as it is
+	 *                          the partitioned table name once migrated).
+	 * @param  partitioning Partitioning.
+	 * @param  start        Period start.
+	 * @return              The partition name.
+	 */
+	private String createPartition(
+			final String parentTable,
+			final String table,
+			final EntityHistoryPartitioning partitioning,
+			final LocalDate start) {
+		final String partition = table + EntityHistoryPartitionService.PARTITION_SUFFIX + partitioning.getSuffix(start);
+		final String defaultPartition = table + EntityHistoryPartitionService.DEFAULT_PARTITION_SUFFIX;
+		final String bounds = "FROM ('" + start + "') TO ('" + partitioning.getNext(start, 1) + "')";
+		this.transactionTemplate.executeWithoutResult((
+				status) -> {
+			// If the partition does not exist yet and the default partition has rows for
+			// the period.
+			final String partitionColumn = this.jdbcTemplate.queryForObject(EntityHistoryPartitionService.SELECT_PARTITION_KEY, String.class, parentTable);
+			final String periodCondition = " WHERE " + partitionColumn + " >= '" + start + "' AND " + partitionColumn + " < '" + partitioning.getNext(start, 1)
+					+ "'";
+			if (this.jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NULL AND to_regclass(?) IS NOT NULL", Boolean.class, partition, defaultPartition)
+					&& this.jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + defaultPartition + periodCondition + ")", Boolean.class)) {
+				// Moves the rows into the new partition (before it is attached).
+				this.jdbcTemplate.execute("LOCK TABLE " + defaultPartition + " IN ACCESS EXCLUSIVE MODE");
+				this.jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + parentTable + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+				final int movedRows = this.jdbcTemplate.update("WITH moved AS (DELETE FROM " + defaultPartition + periodCondition + " RETURNING *) INSERT INTO "
+						+ partition + " SELECT * FROM moved");
+				this.jdbcTemplate.execute("ALTER TABLE " + parentTable + " ATTACH PARTITION " + partition + " FOR VALUES " + bounds);
+				EntityHistoryPartitionService.LOGGER.info(movedRows + " history rows moved from '" + defaultPartition + "' to '" + partition + "'.");
+			}
+			// Otherwise, creates the partition.
+			else {
+				this.jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + parentTable + " FOR VALUES " + bounds);
+			}
+		});
+		return partition;
+	}
+
+	/**
+	 * Creates the partition for the date period and the following ones (if they
+	 * do not exist).
+	 *
+	 * @param  table        Table name.
+	 * @param  partitioning Partitioning.
+	 * @param  date         Date.
+	 * @return              The partitions names.
+	 */
+	public List<String> createPartitions(
+			final String table,
+			final EntityHistoryPartitioning partitioning,
+			final LocalDate date) {
+		final List<String> partitions = new ArrayList<>();
+		final LocalDate currentStart = partitioning.getStart(date);
+		for (long index = 0; index <= this.ahead; index++) {
+			final LocalDate start = partitioning.getNext(currentStart, index);
+			// Creates the partition.
+			try {
+				partitions.add(this.createPartition(table, table, partitioning, start));
+			}
+			catch (final DataAccessException exception) {
+				EntityHistoryPartitionService.LOGGER.error("Could not create history partition for '" + table + "' starting at '" + start + "': "
+						+ exception.getLocalizedMessage());
+				EntityHistoryPartitionService.LOGGER.debug("Could not create history partition.", exception);
+			}
+		}
+		return partitions;
+	}
+
+	/**
+	 * Detaches (or drops) the partitions that end before the retention.
+	 *
+	 * @param  table        Table name.
+	 * @param  partitioning Partitioning.
+	 * @param  retention    Number of past partitions kept (if not greater than 0,
+	 *                          partitions are kept indefinitely).
+	 * @param  date         Date.
+	 * @return              The removed partitions names.
+	 */
+	public List<String> removePartitions(
+			final String table,
+			final EntityHistoryPartitioning partitioning,
+			final int retention,
+			final LocalDate date) {
+		final List<String> partitions = new ArrayList<>();
+		if (retention > 0) {
+			final String schemaPrefix = EntityHistoryPartitionService.getSchemaPrefix(table);
+			final String partitionPrefix = (table.substring(schemaPrefix.length()) + EntityHistoryPartitionService.PARTITION_SUFFIX).toLowerCase();
+			final LocalDate cutoff = partitioning.getNext(partitioning.getStart(date), -retention);
+			for (final String partitionName : this.jdbcTemplate.queryForList(EntityHistoryPartitionService.SELECT_PARTITIONS, String.class, table)) {
+				if (partitionName.startsWith(partitionPrefix)) {
+					// Partitions with other names are ignored.
+					LocalDate start = null;
+					try {
+						start = partitioning.parseSuffix(partitionName.substring(partitionPrefix.length()));
+					}
+					catch (final DateTimeParseException exception) {
+						EntityHistoryPartitionService.LOGGER.debug("Partition '" + partitionName + "' ignored.");
+					}
+					// Detaches (and drops) the partition if it ends before the cutoff.
+					if ((start != null) && !partitioning.getNext(start, 1).isAfter(cutoff)) {
+						final String partition = schemaPrefix + partitionName;
+						this.jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+						if (this.drop) {
+							this.jdbcTemplate.execute("DROP TABLE " + partition);
+						}
+						partitions.add(partition);
+					}
+				}
+			}
+		}
+		return partitions;
+	}
+
+	/**
+	 * Maintains the partitioned history tables.
+	 */
+	public void maintain() {
+		final LocalDate today = LocalDate.now();
+		for (final PartitionedTable partitionedTable : this.partitionedTables) {
+			try {
+				this.partitionTable(partitionedTable.table, partitionedTable.idColumn, partitionedTable.partitionColumn);
+				if (this.migrate && !this.isPartitioned(partitionedTable.table)) {
+					this.migrateTable(partitionedTable.table, partitionedTable.idColumn, partitionedTable.partitionColumn, partitionedTable.partitioning,
+							this.migrateBatchSize);
+				}
+				if (this.isPartitioned(partitionedTable.table)) {
+					this.createPartitions(partitionedTable.table, partitionedTable.partitioning, today);
+					final List<String> removedPartitions = this.removePartitions(partitionedTable.table, partitionedTable.partitioning,
+							partitionedTable.retention, today);
+					if (!removedPartitions.isEmpty()) {
+						EntityHistoryPartitionService.LOGGER.info("History partitions " + removedPartitions + " " + (this.drop ? "dropped." : "detached."));
+					}
+				}
+			}
+			// If the table cannot be maintained.
+			catch (final Exception exception) {
+				EntityHistoryPartitionService.LOGGER.error("Could not maintain history table '" + partitionedTable.table + "': " + exception.getClass().getName()
+						+ " - " + exception.getLocalizedMessage());
+				EntityHistoryPartitionService.LOGGER.debug("Could not maintain history table.", exception);
+			}
+		}
+	}
+
+	/**
+	 * Starts the maintenance.
+	 */
+	@PostConstruct
+	public void start() {
+		this.transactionTemplate = new TransactionTemplate(this.transactionManager);
+		// Finds the partitioned history tables (and their physical names).
+		final SessionFactoryImplementor sessionFactory = this.entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+		for (final EntityType<?> entityType : this.entityManagerFactory.getMetamodel().getEntities()) {
+			final EntityHistoryPartitioned partitioned = entityType.getJavaType().getAnnotation(EntityHistoryPartitioned.class);
+			if ((partitioned != null) && (partitioned.partitioning() != EntityHistoryPartitioning.NONE)) {
+				final AbstractEntityPersister persister = (AbstractEntityPersister) sessionFactory.getMappingMetamodel()
+						.getEntityDescriptor(entityType.getJavaType());
+				this.partitionedTables.add(new PartitionedTable(persister.getTableName(), persister.getIdentifierColumnNames()[0],
+						persister.getPropertyColumnNames(EntityHistoryPartitionService.PARTITION_ATTRIBUTE)[0], partitioned.partitioning(), partitioned.retention()));
+			}
+		}
+		// Starts the maintenance thread.
+		if (!this.partitionedTables.isEmpty()) {
+			this.running = true;
+			this.maintenanceThread = new Thread(() -> {
+				while (this.running) {
+					this.maintain();
+					try {
+						Thread.sleep(this.interval);
+					}
+					catch (final InterruptedException exception) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+			}, "entity-history-partition-maintenance");
+			this.maintenanceThread.setDaemon(true);
+			this.maintenanceThread.start();
+		}
+	}
+
+	/**
+	 * Stops the maintenance.
+	 */
+	@PreDestroy
+	public void stop() {
+		this.running = false;
+		if (this.maintenanceThread != null) {
+			this.maintenanceThread.interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,30 @@
+package org.coldis.library.persistence.history;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Entity history with a partitioned table (maintained by
+ * {@link EntityHistoryPartitionService}).
+ */
+@Documented
+@Target(TYPE)
+@Retention(RUNTIME)
+public @interface EntityHistoryPartitioned {
+
+	/**
+	 * Partitioning.
+	 */
+	public EntityHistoryPartitioning partitioning();
+
+	/**
+	 * Number of past partitions kept (older partitions are detached or dropped).
+	 * If not greater than 0, partitions are kept indefinitely.
+	 */
+	public int retention() default 0;
+
+}
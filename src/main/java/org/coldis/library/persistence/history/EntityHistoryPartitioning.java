@@ -0,0 +1,88 @@
+package org.coldis.library.persistence.history;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Entity history table partitioning (PostgreSQL native range partitions by
+ * update date).
+ */
+public enum EntityHistoryPartitioning {
+
+	/**
+	 * The table is not partitioned.
+	 */
+	NONE(null),
+
+	/**
+	 * One partition per day.
+	 */
+	DAILY(DateTimeFormatter.ofPattern("yyyyMMdd")),
+
+	/**
+	 * One partition per month.
+	 */
+	MONTHLY(DateTimeFormatter.ofPattern("yyyyMM"));
+
+	/**
+	 * Partition suffix format.
+	 */
+	private final DateTimeFormatter suffixFormat;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param suffixFormat Partition suffix format.
+	 */
+	EntityHistoryPartitioning(final DateTimeFormatter suffixFormat) {
+		this.suffixFormat = suffixFormat;
+	}
+
+	/**
+	 * Gets the start of the partition period for a date.
+	 *
+	 * @param  date Date.
+	 * @return      The start of the partition period.
+	 */
+	public LocalDate getStart(
+			final LocalDate date) {
+		return (this == EntityHistoryPartitioning.MONTHLY ? date.withDayOfMonth(1) : date);
+	}
+
+	/**
+	 * Gets the start of the partition period after the given one.
+	 *
+	 * @param  start Start of the partition period.
+	 * @param  count Number of periods after the given one.
+	 * @return       The start of the next partition period.
+	 */
+	public LocalDate getNext(
+			final LocalDate start,
+			final long count) {
+		return (this == EntityHistoryPartitioning.MONTHLY ? start.plusMonths(count) : start.plusDays(count));
+	}
+
+	/**
+	 * Gets the partition suffix for a partition period.
+	 *
+	 * @param  start Start of the partition period.
+	 * @return       The partition suffix.
+	 */
+	public String getSuffix(
+			final LocalDate start) {
+		return start.format(this.suffixFormat);
+	}
+
+	/**
+	 * Parses the start of a partition period from its suffix.
+	 *
+	 * @param  suffix Partition suffix.
+	 * @return        The start of the partition period.
+	 */
+	public LocalDate parseSuffix(
+			final String suffix) {
+		return (this == EntityHistoryPartitioning.MONTHLY ? YearMonth.parse(suffix, this.suffixFormat).atDay(1) : LocalDate.parse(suffix, this.suffixFormat));
+	}
+
+}
@@ -0,0 +1,85 @@
+package org.coldis.library.persistence.history;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.coldis.library.exception.IntegrationException;
+import org.coldis.library.model.SimpleMessage;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Entity history snapshot helper (cheap copies of the entity state, taken
+ * during the flush, so the state can be serialized later in another thread).
+ */
+public class EntityHistorySnapshotHelper {
+
+	/**
+	 * Copies a collection or map (one level), keeping its kind (so it can be
+	 * assigned to the same attribute).
+	 *
+	 * @param  value Value.
+	 * @return       The copied value (or the value itself, if it is not a
+	 *               collection or map).
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object copyContainer(
+			final Object value) {
+		Object copy = value;
+		if (value instanceof final SortedSet sortedSet) {
+			copy = new TreeSet<>(sortedSet);
+		}
+		else if (value instanceof final Set set) {
+			copy = new LinkedHashSet<>(set);
+		}
+		else if (value instanceof final Collection collection) {
+			copy = new ArrayList<>(collection);
+		}
+		else if (value instanceof final SortedMap sortedMap) {
+			copy = new TreeMap<>(sortedMap);
+		}
+		else if (value instanceof final Map map) {
+			copy = new LinkedHashMap<>(map);
+		}
+		return copy;
+	}
+
+	/**
+	 * Creates a shallow snapshot of the entity state: attributes are copied by
+	 * reference, and collections and maps are copied one level (so elements added
+	 * or removed after the flush are not seen, and lazy collections are loaded
+	 * within the session). Objects referenced by the state must not be changed
+	 * until the snapshot is serialized.
+	 *
+	 * @param  <EntityType> Entity type.
+	 * @param  state        Entity state.
+	 * @return              The entity state snapshot.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <EntityType> EntityType createSnapshot(
+			final EntityType state) {
+		try {
+			final EntityType snapshot = (EntityType) BeanUtils.instantiateClass(state.getClass());
+			ReflectionUtils.doWithFields(state.getClass(), (
+					field) -> {
+				ReflectionUtils.makeAccessible(field);
+				final Object value = EntityHistorySnapshotHelper.copyContainer(field.get(state));
+				field.set(snapshot, field.getType().isInstance(value) ? value : field.get(state));
+			}, ReflectionUtils.COPYABLE_FIELDS);
+			return snapshot;
+		}
+		// If the state cannot be copied.
+		catch (final Exception exception) {
+			throw new IntegrationException(new SimpleMessage("entity.history.snapshot.failed"), exception);
+		}
+	}
+
+}
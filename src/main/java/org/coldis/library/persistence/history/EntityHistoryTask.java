@@ -0,0 +1,90 @@
+package org.coldis.library.persistence.history;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Entity history task (sends an update and keeps it, so it can be spilled to
+ * the journal if the task cannot run). The update may be created lazily (in
+ * the pool, or in the calling thread when spilled).
+ */
+public class EntityHistoryTask implements Runnable {
+
+	/**
+	 * Entity history queue.
+	 */
+	private final String destination;
+
+	/**
+	 * Update supplier.
+	 */
+	private final Supplier<EntityHistoryUpdate> updateSupplier;
+
+	/**
+	 * Send action.
+	 */
+	private final Consumer<EntityHistoryUpdate> action;
+
+	/**
+	 * Update (once created).
+	 */
+	private volatile EntityHistoryUpdate update;
+
+	/**
+	 * Lazy update constructor.
+	 *
+	 * @param destination    Entity history queue.
+	 * @param updateSupplier Update supplier.
+	 * @param action         Send action.
+	 */
+	public EntityHistoryTask(final String destination, final Supplier<EntityHistoryUpdate> updateSupplier, final Consumer<EntityHistoryUpdate> action) {
+		this.destination = destination;
+		this.updateSupplier = updateSupplier;
+		this.action = action;
+	}
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param destination Entity history queue.
+	 * @param update      Update.
+	 * @param action      Send action.
+	 */
+	public EntityHistoryTask(final String destination, final EntityHistoryUpdate update, final Runnable action) {
+		this(destination, () -> update, (
+				currentUpdate) -> action.run());
+		this.update = update;
+	}
+
+	/**
+	 * Gets the entity history queue.
+	 *
+	 * @return The entity history queue.
+	 */
+	public String getDestination() {
+		return this.destination;
+	}
+
+	/**
+	 * Gets the update (creating it, if not created yet).
+	 *
+	 * @return The update.
+	 */
+	public EntityHistoryUpdate getUpdate() {
+		EntityHistoryUpdate currentUpdate = this.update;
+		if (currentUpdate == null) {
+			currentUpdate = this.updateSupplier.get();
+			this.update = currentUpdate;
+		}
+		return currentUpdate;
+	}
+
+	/**
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run() {
+		this.action.accept(this.getUpdate());
+	}
+
+}
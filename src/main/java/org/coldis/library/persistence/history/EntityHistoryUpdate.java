@@ -0,0 +1,125 @@
+package org.coldis.library.persistence.history;
+
+import java.util.List;
+import java.util.Map;
+
+import org.coldis.library.exception.IntegrationException;
+import org.coldis.library.model.SimpleMessage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Entity history update (message content and properties) to be queued.
+ */
+public class EntityHistoryUpdate {
+
+	/**
+	 * Batch message property.
+	 */
+	public static final String BATCH_PROPERTY = "batch";
+
+	/**
+	 * Properties attribute (in a batch message).
+	 */
+	public static final String PROPERTIES_ATTRIBUTE = "properties";
+
+	/**
+	 * Content attribute (in a batch message).
+	 */
+	public static final String CONTENT_ATTRIBUTE = "content";
+
+	/**
+	 * Message content (JSON).
+	 */
+	private final String content;
+
+	/**
+	 * Message properties.
+	 */
+	private final Map<String, String> properties;
+
+	/**
+	 * Update timestamp (epoch milliseconds).
+	 */
+	private final long timestamp;
+
+	/**
+	 * Complete constructor.
+	 *
+	 * @param content    Message content (JSON).
+	 * @param properties Message properties.
+	 * @param timestamp  Update timestamp (epoch milliseconds).
+	 */
+	public EntityHistoryUpdate(final String content, final Map<String, String> properties, final long timestamp) {
+		this.content = content;
+		this.properties = properties;
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param content    Message content (JSON).
+	 * @param properties Message properties.
+	 */
+	public EntityHistoryUpdate(final String content, final Map<String, String> properties) {
+		this(content, properties, System.currentTimeMillis());
+	}
+
+	/**
+	 * Gets the message content (JSON).
+	 *
+	 * @return The message content (JSON).
+	 */
+	public String getContent() {
+		return this.content;
+	}
+
+	/**
+	 * Gets the message properties.
+	 *
+	 * @return The message properties.
+	 */
+	public Map<String, String> getProperties() {
+		return this.properties;
+	}
+
+	/**
+	 * Gets the update timestamp (epoch milliseconds).
+	 *
+	 * @return The update timestamp (epoch milliseconds).
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	/**
+	 * Serializes a batch of updates into a single JSON array (the content of each
+	 * update is embedded as is, without being parsed again).
+	 *
+	 * @param  objectMapper Object mapper.
+	 * @param  updates      Updates.
+	 * @return              The batch JSON.
+	 */
+	public static String serializeBatch(
+			final ObjectMapper objectMapper,
+			final List<EntityHistoryUpdate> updates) {
+		try {
+			final StringBuilder batch = new StringBuilder("[");
+			for (final EntityHistoryUpdate update : updates) {
+				if (batch.length() > 1) {
+					batch.append(',');
+				}
+				batch.append("{\"").append(EntityHistoryUpdate.PROPERTIES_ATTRIBUTE).append("\":").append(objectMapper.writeValueAsString(update.getProperties()))
+						.append(",\"").append(EntityHistoryUpdate.CONTENT_ATTRIBUTE).append("\":").append(update.getContent()).append('}');
+			}
+			return batch.append(']').toString();
+		}
+		// If the batch cannot be serialized.
+		catch (final JsonProcessingException exception) {
+			throw new IntegrationException(new SimpleMessage("json.serialization.failed"), exception);
+		}
+	}
+
+}
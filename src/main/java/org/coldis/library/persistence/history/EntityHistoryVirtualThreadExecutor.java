@@ -0,0 +1,72 @@
+package org.coldis.library.persistence.history;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual thread per task executor, with a limit of tasks in flight (so broker
+ * sends are bounded). Tasks beyond the limit are rejected, so the overflow
+ * policy of {@link EntityHistoryExecutor} applies.
+ */
+public class EntityHistoryVirtualThreadExecutor implements Executor {
+
+	/**
+	 * Tasks in flight.
+	 */
+	private final Semaphore inFlight;
+
+	/**
+	 * Thread factory.
+	 */
+	private final ThreadFactory threadFactory;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param name        Thread name prefix.
+	 * @param maxInFlight Maximum tasks in flight.
+	 */
+	public EntityHistoryVirtualThreadExecutor(final String name, final int maxInFlight) {
+		this.inFlight = new Semaphore(maxInFlight);
+		this.threadFactory = Thread.ofVirtual().name(name + "-", 0).factory();
+	}
+
+	/**
+	 * Gets the number of tasks that can still be started.
+	 *
+	 * @return The number of tasks that can still be started.
+	 */
+	public int getAvailablePermits() {
+		return this.inFlight.availablePermits();
+	}
+
+	/**
+	 * @see java.util.concurrent.Executor#execute(java.lang.Runnable)
+	 */
+	@Override
+	public void execute(
+			final Runnable task) {
+		// Rejects the task if the in flight limit is reached.
+		if (!this.inFlight.tryAcquire()) {
+			throw new RejectedExecutionException("Entity history in flight limit reached.");
+		}
+		// Runs the task in a new virtual thread.
+		try {
+			this.threadFactory.newThread(() -> {
+				try {
+					task.run();
+				}
+				finally {
+					this.inFlight.release();
+				}
+			}).start();
+		}
+		catch (final RuntimeException exception) {
+			this.inFlight.release();
+			throw exception;
+		}
+	}
+
+}
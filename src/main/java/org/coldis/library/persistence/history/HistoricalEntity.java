@@ -30,6 +30,86 @@ public @interface HistoricalEntity {
 	 */
 	public String stateColumnDefinition() default "JSONB";
 
+	/**
+	 * If the entity state should be stored compressed (in a <code>BYTEA</code>
+	 * column, see {@link org.coldis.library.persistence.converter.JsonCompressionHelper}).
+	 * The state column definition must not be set for compressed state.
+	 */
+	public boolean stateCompressed() default false;
+
+	/**
+	 * If entity history should be sent and stored as JSON patches (RFC 6902)
+	 * against the previous state, with a periodic full state (keyframe). The
+	 * previous state is tracked in memory by each producer, so entities must
+	 * have a single writer (an update from another producer is not part of the
+	 * patch chain). A keyframe is sent for entities the producer has not sent
+	 * yet, and after an update cannot be sent; updates dropped by the thread
+	 * pool break the chain until the next keyframe.
+	 */
+	public boolean stateDelta() default false;
+
+	/**
+	 * Keyframe interval (a full state is stored every given number of updates)
+	 * for delta history.
+	 */
+	public int stateDeltaKeyframeInterval() default 20;
+
+	/**
+	 * Entity history sequence allocation size (identifiers are pooled, so
+	 * batched inserts do not fetch the sequence for every row). Must match the
+	 * sequence increment in the database.
+	 */
+	public int sequenceAllocationSize() default 50;
+
+	/**
+	 * If entity history should be written to a local outbox table in the same
+	 * transaction as the entity change (instead of being sent to JMS after the
+	 * change). The outbox is drained by {@link EntityHistoryOutboxRelay}
+	 * (enabled with
+	 * <code>org.coldis.library.persistence.history.outbox-relay.enabled</code>),
+	 * directly into the history table or to JMS. The outbox table must exist (see
+	 * {@link EntityHistoryOutbox}).
+	 */
+	public boolean outbox() default false;
+
+	/**
+	 * Coalescing window (in milliseconds). If greater than 0, updates for the
+	 * same entity within the window are coalesced and only the latest state is
+	 * sent (must not be combined with state delta or outbox).
+	 */
+	public long coalescingWindow() default 0;
+
+	/**
+	 * If the first state within the coalescing window should also be sent
+	 * (besides the latest one).
+	 */
+	public boolean coalescingKeepFirst() default false;
+
+	/**
+	 * Entity history table partitioning (PostgreSQL native range partitions by
+	 * update date). Partitions are maintained by
+	 * {@link EntityHistoryPartitionService} (enabled with
+	 * <code>org.coldis.library.persistence.history.partition-maintenance.enabled</code>),
+	 * which also converts the history table while it is still empty.
+	 */
+	public EntityHistoryPartitioning partitioning() default EntityHistoryPartitioning.NONE;
+
+	/**
+	 * Number of past partitions kept (older partitions are detached or dropped).
+	 * If not greater than 0, partitions are kept indefinitely.
+	 */
+	public int partitionRetention() default 0;
+
+	/**
+	 * If the entity state should be passed through as raw JSON from the producer
+	 * to the state column (the consumer does not parse it, and the update date,
+	 * user and entity identifier are sent as message properties). Must not be
+	 * combined with state delta or compressed state, nor with history batches
+	 * (history batch size greater than 1, as batches are parsed as a whole by the
+	 * consumer), which fails the producer startup.
+	 */
+	public boolean statePassThrough() default false;
+
 	/**
 	 * Entity history repository template relative path (from resources).
 	 */
@@ -46,9 +126,13 @@ public @interface HistoricalEntity {
 	public String producerServiceTemplatePath() default "persistence/history/template/EntityHistoryProducerService.java";
 
 	/**
-	 * Producer classes target path. Default is "src/main/java".
+	 * Producer classes target path. Only used if the
+	 * <code>org.coldis.library.persistence.history.targetPathEnabled</code>
+	 * processor option is <code>true</code> (otherwise, or if empty, classes are
+	 * written through the annotation processing filer to the generated sources,
+	 * which allows incremental builds).
 	 */
-	public String producerTargetPath() default "src/main/java";
+	public String producerTargetPath() default "";
 
 	/**
 	 * JMS template qualifier.
@@ -61,9 +145,13 @@ public @interface HistoricalEntity {
 	public String consumerServiceTemplatePath() default "persistence/history/template/EntityHistoryConsumerService.java";
 
 	/**
-	 * Consumer classes target path. Default is "src/main/java".
+	 * Consumer classes target path. Only used if the
+	 * <code>org.coldis.library.persistence.history.targetPathEnabled</code>
+	 * processor option is <code>true</code> (otherwise, or if empty, classes are
+	 * written through the annotation processing filer to the generated sources,
+	 * which allows incremental builds).
 	 */
-	public String consumerTargetPath() default "src/main/java";
+	public String consumerTargetPath() default "";
 
 	/**
 	 * Consumer container factory.
@@ -1,20 +1,34 @@
 package org.coldis.library.persistence.history;
 
+import java.beans.Introspector;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic.Kind;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
@@ -35,69 +49,265 @@ public class HistoricalEntityGenerator extends AbstractProcessor {
 	 */
 	private static final Logger LOGGER = LoggerFactory.getLogger(HistoricalEntityGenerator.class);
 
+	/**
+	 * Processor option that enables the target paths (classes are written
+	 * directly to the target paths instead of through the filer, which disables
+	 * incremental annotation processing).
+	 */
+	public static final String TARGET_PATH_ENABLED_OPTION = "org.coldis.library.persistence.history.targetPathEnabled";
+
+	/**
+	 * Gradle isolating incremental annotation processing option.
+	 */
+	private static final String GRADLE_ISOLATING_OPTION = "org.gradle.annotation.processing.isolating";
+
+	/**
+	 * Compressed state column definition.
+	 */
+	private static final String COMPRESSED_STATE_COLUMN_DEFINITION = "BYTEA";
+
+	/**
+	 * Identifier annotation.
+	 */
+	private static final String ID_ANNOTATION = "jakarta.persistence.Id";
+
+	/**
+	 * Composite identifier annotations (not supported).
+	 */
+	private static final Set<String> COMPOSITE_ID_ANNOTATIONS = Set.of("jakarta.persistence.EmbeddedId", "jakarta.persistence.IdClass");
+
+	/**
+	 * Velocity engine (shared by all entities).
+	 */
+	private VelocityEngine velocityEngine;
+
+	/**
+	 * Templates (by path).
+	 */
+	private final Map<String, Template> templates = new HashMap<>();
+
+	/**
+	 * Gets the velocity engine (initialized on first use).
+	 *
+	 * @return The velocity engine.
+	 */
+	private VelocityEngine getVelocityEngine() {
+		if (this.velocityEngine == null) {
+			this.velocityEngine = new VelocityEngine();
+			// Configures the resource loader to also look at the classpath.
+			this.velocityEngine.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
+			this.velocityEngine.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
+			// Initializes the velocity engine.
+			this.velocityEngine.init();
+		}
+		return this.velocityEngine;
+	}
+
+	/**
+	 * Gets if the target paths are enabled.
+	 *
+	 * @return If the target paths are enabled.
+	 */
+	private boolean isTargetPathEnabled() {
+		return Boolean.parseBoolean(this.processingEnv.getOptions().get(HistoricalEntityGenerator.TARGET_PATH_ENABLED_OPTION));
+	}
+
+	/**
+	 * Supported options. The processor is isolating (for Gradle incremental
+	 * builds) unless the target paths are enabled.
+	 *
+	 * @see javax.annotation.processing.AbstractProcessor#getSupportedOptions()
+	 */
+	@Override
+	public Set<String> getSupportedOptions() {
+		return ((this.processingEnv != null) && this.isTargetPathEnabled() ? Set.of(HistoricalEntityGenerator.TARGET_PATH_ENABLED_OPTION)
+				: Set.of(HistoricalEntityGenerator.TARGET_PATH_ENABLED_OPTION, HistoricalEntityGenerator.GRADLE_ISOLATING_OPTION));
+	}
+
+	/**
+	 * Gets a template (cached by path).
+	 *
+	 * @param  templatePath Template path.
+	 * @return              The template.
+	 */
+	private Template getTemplate(
+			final String templatePath) {
+		return this.templates.computeIfAbsent(templatePath, (
+				path) -> this.getVelocityEngine().getTemplate(path));
+	}
+
+	/**
+	 * Generates a class from a template. By default, the class is written through
+	 * the filer (to the generated sources). If the target paths are enabled (by
+	 * the {@link #TARGET_PATH_ENABLED_OPTION} processor option) and the target
+	 * path is not empty, it is written to the target path instead, only if its
+	 * content has changed (so unchanged classes are not recompiled).
+	 *
+	 * @param  velocityContext    Velocity context.
+	 * @param  templatePath       Template path.
+	 * @param  targetPath         Target path.
+	 * @param  packageName        Class package name.
+	 * @param  typeName           Class type name.
+	 * @param  originatingElement Originating element.
+	 * @throws IOException        If the class cannot be generated.
+	 */
+	private void generateClass(
+			final VelocityContext velocityContext,
+			final String templatePath,
+			final String targetPath,
+			final String packageName,
+			final String typeName,
+			final Element originatingElement) throws IOException {
+		// Generates the class.
+		final StringWriter classWriter = new StringWriter();
+		this.getTemplate(templatePath).merge(velocityContext, classWriter);
+		final String classContent = classWriter.toString();
+		// If the class should be written through the filer.
+		if (!this.isTargetPathEnabled() || StringUtils.isEmpty(targetPath)) {
+			final Filer filer = this.processingEnv.getFiler();
+			try (Writer fileWriter = filer.createSourceFile(packageName + "." + typeName, originatingElement).openWriter()) {
+				fileWriter.write(classContent);
+			}
+		}
+		// If the class should be written to the target path.
+		else {
+			final File classFile = new File(targetPath + File.separator + packageName.replace('.', File.separatorChar), typeName + ".java");
+			if (!classFile.exists() || !classContent.equals(FileUtils.readFileToString(classFile, StandardCharsets.UTF_8))) {
+				FileUtils.forceMkdir(classFile.getParentFile());
+				FileUtils.writeStringToFile(classFile, classContent, StandardCharsets.UTF_8);
+			}
+		}
+	}
+
 	/**
 	 * Generates the classes from the metadata.
 	 *
+	 * @param  entityType               Entity type.
 	 * @param  historicalEntityMetadata Metadata.
 	 * @throws IOException              If the classes cannot be generated.
 	 */
 	private void generateClasses(
+			final TypeElement entityType,
 			final HistoricalEntityMetadata historicalEntityMetadata) throws IOException {
-		// Gets the velocity engine.
-		final VelocityEngine velocityEngine = new VelocityEngine();
-		// Configures the resource loader to also look at the classpath.
-		velocityEngine.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
-		velocityEngine.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
-		// Initializes the velocity engine.
-		velocityEngine.init();
 		// Creates a new velocity context and sets its variables.
 		final VelocityContext velocityContext = new VelocityContext();
 		// Sets the context values.
 		velocityContext.put("historicalEntity", historicalEntityMetadata);
 		velocityContext.put("h", "#");
-		// Gets the templates for the entity history classes.
-		final Template entityTemplate = velocityEngine.getTemplate(historicalEntityMetadata.getEntityTemplatePath());
-		final Template repositoryTemplate = velocityEngine.getTemplate(historicalEntityMetadata.getRepositoryTemplatePath());
-		final Template producerServiceTemplate = velocityEngine.getTemplate(historicalEntityMetadata.getProducerServiceTemplatePath());
-		final Template consumerServiceTemplate = velocityEngine.getTemplate(historicalEntityMetadata.getConsumerServiceTemplatePath());
-		// Gets the writer for the generated classes.
-		final File entityFile = new File(
-				historicalEntityMetadata.getConsumerTargetPath() + File.separator + historicalEntityMetadata.getEntityFilePackageName(),
-				historicalEntityMetadata.getEntityTypeName() + ".java");
-		final File daoFile = new File(
-				historicalEntityMetadata.getConsumerTargetPath() + File.separator + historicalEntityMetadata.getRepositoryFilePackageName(),
-				historicalEntityMetadata.getRepositoryTypeName() + ".java");
-		final File producerServiceFile = new File(
-				historicalEntityMetadata.getProducerTargetPath() + File.separator + historicalEntityMetadata.getServiceFilePackageName(),
-				historicalEntityMetadata.getProducerServiceTypeName() + ".java");
-		final File consumerServiceFile = new File(
-				historicalEntityMetadata.getConsumerTargetPath() + File.separator + historicalEntityMetadata.getServiceFilePackageName(),
-				historicalEntityMetadata.getConsumerServiceTypeName() + ".java");
-		FileUtils.forceMkdir(entityFile.getParentFile());
-		FileUtils.forceMkdir(daoFile.getParentFile());
-		FileUtils.forceMkdir(producerServiceFile.getParentFile());
-		FileUtils.forceMkdir(consumerServiceFile.getParentFile());
-		final Writer entityWriter = new FileWriter(entityFile);
-		final Writer daoWriter = new FileWriter(daoFile);
-		final Writer producerServiceWriter = new FileWriter(producerServiceFile);
-		final Writer consumerServiceWriter = new FileWriter(consumerServiceFile);
 		// Generates the classes.
-		entityTemplate.merge(velocityContext, entityWriter);
-		repositoryTemplate.merge(velocityContext, daoWriter);
-		producerServiceTemplate.merge(velocityContext, producerServiceWriter);
-		consumerServiceTemplate.merge(velocityContext, consumerServiceWriter);
-		// Closes the writers.
-		entityWriter.close();
-		daoWriter.close();
-		producerServiceWriter.close();
-		consumerServiceWriter.close();
+		this.generateClass(velocityContext, historicalEntityMetadata.getEntityTemplatePath(), historicalEntityMetadata.getConsumerTargetPath(),
+				historicalEntityMetadata.getEntityPackageName(), historicalEntityMetadata.getEntityTypeName(), entityType);
+		this.generateClass(velocityContext, historicalEntityMetadata.getRepositoryTemplatePath(), historicalEntityMetadata.getConsumerTargetPath(),
+				historicalEntityMetadata.getRepositoryPackageName(), historicalEntityMetadata.getRepositoryTypeName(), entityType);
+		this.generateClass(velocityContext, historicalEntityMetadata.getProducerServiceTemplatePath(), historicalEntityMetadata.getProducerTargetPath(),
+				historicalEntityMetadata.getServicePackageName(), historicalEntityMetadata.getProducerServiceTypeName(), entityType);
+		this.generateClass(velocityContext, historicalEntityMetadata.getConsumerServiceTemplatePath(), historicalEntityMetadata.getConsumerTargetPath(),
+				historicalEntityMetadata.getServicePackageName(), historicalEntityMetadata.getConsumerServiceTypeName(), entityType);
+	}
+
+	/**
+	 * Gets if an annotation attribute is explicitly set in an element.
+	 *
+	 * @param  element        Element.
+	 * @param  annotationType Annotation type.
+	 * @param  attribute      Attribute name.
+	 * @return                If the annotation attribute is explicitly set.
+	 */
+	private static boolean isAttributeSet(
+			final Element element,
+			final Class<?> annotationType,
+			final String attribute) {
+		return element.getAnnotationMirrors().stream()
+				.filter((annotation) -> annotation.getAnnotationType().toString().equals(annotationType.getName()))
+				.flatMap((annotation) -> annotation.getElementValues().keySet().stream())
+				.anyMatch((annotationAttribute) -> annotationAttribute.getSimpleName().contentEquals(attribute));
+	}
+
+	/**
+	 * Gets if an element is annotated with any of the given annotations.
+	 *
+	 * @param  element     Element.
+	 * @param  annotations Annotations (qualified names).
+	 * @return             If an element is annotated with any of the given
+	 *                     annotations.
+	 */
+	private static boolean isAnnotated(
+			final Element element,
+			final Set<String> annotations) {
+		return element.getAnnotationMirrors().stream().anyMatch((
+				annotation) -> annotations.contains(annotation.getAnnotationType().toString()));
+	}
+
+	/**
+	 * Sets the original entity identifier attribute (the single field or getter
+	 * annotated with <code>@Id</code>, in the entity type or its super classes)
+	 * in the metadata. Composite identifiers (<code>@EmbeddedId</code> or
+	 * <code>@IdClass</code>) and missing identifiers are reported as compilation
+	 * errors, as the history <code>entityId</code> column needs a single basic
+	 * identifier.
+	 *
+	 * @param  entityType               Entity type.
+	 * @param  historicalEntityMetadata Metadata.
+	 * @return                          If the identifier is supported.
+	 */
+	private boolean setEntityIdAttribute(
+			final TypeElement entityType,
+			final HistoricalEntityMetadata historicalEntityMetadata) {
+		Element idElement = null;
+		// For the entity type and its super classes.
+		for (TypeElement currentType = entityType; currentType != null; currentType = ((currentType.getSuperclass().getKind() == TypeKind.DECLARED)
+				? (TypeElement) ((DeclaredType) currentType.getSuperclass()).asElement()
+				: null)) {
+			// If the identifier is composite.
+			if (HistoricalEntityGenerator.isAnnotated(currentType, HistoricalEntityGenerator.COMPOSITE_ID_ANNOTATIONS)) {
+				this.processingEnv.getMessager().printMessage(Kind.ERROR, "Historical entities with composite identifiers (@IdClass) are not supported.",
+						entityType);
+				return false;
+			}
+			for (final Element element : currentType.getEnclosedElements()) {
+				// If the identifier is composite.
+				if (HistoricalEntityGenerator.isAnnotated(element, HistoricalEntityGenerator.COMPOSITE_ID_ANNOTATIONS)) {
+					this.processingEnv.getMessager().printMessage(Kind.ERROR,
+							"Historical entities with composite identifiers (@EmbeddedId) are not supported.", entityType);
+					return false;
+				}
+				// If the element is the identifier.
+				if (HistoricalEntityGenerator.isAnnotated(element, Set.of(HistoricalEntityGenerator.ID_ANNOTATION))) {
+					// If there is more than one identifier attribute.
+					if (idElement != null) {
+						this.processingEnv.getMessager().printMessage(Kind.ERROR,
+								"Historical entities with composite identifiers (multiple @Id) are not supported.", entityType);
+						return false;
+					}
+					idElement = element;
+				}
+			}
+		}
+		// If no identifier is found.
+		if (idElement == null) {
+			this.processingEnv.getMessager().printMessage(Kind.ERROR, "Historical entities must declare an @Id attribute.", entityType);
+			return false;
+		}
+		// Gets the identifier attribute name and type.
+		TypeMirror idType = idElement.asType();
+		String idName = idElement.getSimpleName().toString();
+		if (idElement.getKind() == ElementKind.METHOD) {
+			idType = ((ExecutableElement) idElement).getReturnType();
+			idName = Introspector.decapitalize(idName.replaceFirst("^(get|is)", ""));
+		}
+		historicalEntityMetadata.setEntityIdAttributeName(idName);
+		historicalEntityMetadata.setEntityIdQualifiedTypeName(idType.getKind().isPrimitive()
+				? this.processingEnv.getTypeUtils().boxedClass((PrimitiveType) idType).getQualifiedName().toString()
+				: this.processingEnv.getTypeUtils().erasure(idType).toString());
+		return true;
 	}
 
 	/**
 	 * Gets the historical entity metadata from the entity type.
 	 *
 	 * @param  entityType Entity type.
-	 * @return            Entity type.
+	 * @return            Entity type (or <code>null</code> if the entity is not
+	 *                    supported).
 	 */
 	private HistoricalEntityMetadata getEntityHistoryMetadata(
 			final TypeElement entityType) {
@@ -118,8 +328,43 @@ public class HistoricalEntityGenerator extends AbstractProcessor {
 				historicalEntity.consumerServiceTemplatePath(), 
 				historicalEntity.consumerTargetPath(), 
 				historicalEntity.consumerJmsContainerFactory());
-		// Returns the historical entity metadata.
-		return historicalEntityMetadata;
+		// Compressed state is stored as bytes (so other column definitions are not
+		// supported).
+		historicalEntityMetadata.setStateCompressed(historicalEntity.stateCompressed());
+		if (historicalEntity.stateCompressed()) {
+			if (HistoricalEntityGenerator.isAttributeSet(entityType, HistoricalEntity.class, "stateColumnDefinition")
+					&& !HistoricalEntityGenerator.COMPRESSED_STATE_COLUMN_DEFINITION.equalsIgnoreCase(historicalEntity.stateColumnDefinition())) {
+				this.processingEnv.getMessager().printMessage(Kind.ERROR, "Historical entities with compressed state must not set stateColumnDefinition (the state is stored as "
+						+ HistoricalEntityGenerator.COMPRESSED_STATE_COLUMN_DEFINITION + ").", entityType);
+				return null;
+			}
+			historicalEntityMetadata.setStateColumnDefinition(HistoricalEntityGenerator.COMPRESSED_STATE_COLUMN_DEFINITION);
+		}
+		historicalEntityMetadata.setStateDelta(historicalEntity.stateDelta());
+		historicalEntityMetadata.setStateDeltaKeyframeInterval(historicalEntity.stateDeltaKeyframeInterval());
+		historicalEntityMetadata.setSequenceAllocationSize(historicalEntity.sequenceAllocationSize());
+		historicalEntityMetadata.setOutbox(historicalEntity.outbox());
+		historicalEntityMetadata.setCoalescingWindow(historicalEntity.coalescingWindow());
+		historicalEntityMetadata.setCoalescingKeepFirst(historicalEntity.coalescingKeepFirst());
+		historicalEntityMetadata.setPartitioning(historicalEntity.partitioning().name());
+		historicalEntityMetadata.setPartitionRetention(historicalEntity.partitionRetention());
+		historicalEntityMetadata.setStatePassThrough(historicalEntity.statePassThrough());
+		// Pass through keeps the raw JSON state (so it cannot be stored as patches or
+		// compressed).
+		if (historicalEntity.statePassThrough() && (historicalEntity.stateDelta() || historicalEntity.stateCompressed())) {
+			this.processingEnv.getMessager().printMessage(Kind.ERROR,
+					"Historical entities with state pass through must not set stateDelta or stateCompressed (the raw state is stored).", entityType);
+			return null;
+		}
+		// Coalescing drops intermediate updates (so it cannot be used with patches or
+		// the outbox).
+		if ((historicalEntity.coalescingWindow() > 0) && (historicalEntity.stateDelta() || historicalEntity.outbox())) {
+			this.processingEnv.getMessager().printMessage(Kind.ERROR,
+					"Historical entities with coalescingWindow must not set stateDelta or outbox (every update must be kept).", entityType);
+			return null;
+		}
+		// Returns the historical entity metadata (if the entity is supported).
+		return (this.setEntityIdAttribute(entityType, historicalEntityMetadata) ? historicalEntityMetadata : null);
 	}
 
 	/**
@@ -137,12 +382,17 @@ public class HistoricalEntityGenerator extends AbstractProcessor {
 			HistoricalEntityGenerator.LOGGER.debug("Generating entity history classes for '" + entityType.getSimpleName() + "'...");
 			// Tries to generate the entity history classes.
 			try {
-				this.generateClasses(this.getEntityHistoryMetadata(entityType));
-				HistoricalEntityGenerator.LOGGER.debug("Historical entity '" + entityType.getSimpleName() + "' processed successfully.");
+				final HistoricalEntityMetadata historicalEntityMetadata = this.getEntityHistoryMetadata(entityType);
+				if (historicalEntityMetadata != null) {
+					this.generateClasses(entityType, historicalEntityMetadata);
+					HistoricalEntityGenerator.LOGGER.debug("Historical entity '" + entityType.getSimpleName() + "' processed successfully.");
+				}
 			}
 			// If the historical entity could not be processed correctly.
 			catch (final IOException exception) {
-				// Logs the error.
+				// Reports the error.
+				this.processingEnv.getMessager().printMessage(Kind.ERROR,
+						"Entity history classes could not be generated: " + exception.getClass().getName() + " - " + exception.getLocalizedMessage(), entityType);
 				HistoricalEntityGenerator.LOGGER.debug("Historical entity '" + entityType.getSimpleName() + "' not processed successfully.", exception);
 			}
 		}
@@ -1,7 +1,9 @@
 package org.coldis.library.persistence.history;
 
 import java.time.Duration;
+import java.util.Optional;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.coldis.library.exception.IntegrationException;
 import org.coldis.library.model.SimpleMessage;
@@ -10,6 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
@@ -35,6 +38,19 @@ public class HistoricalEntityListener implements ApplicationContextAware {
 	 */
 	private static ApplicationContext appContext;
 
+	/**
+	 * Entity history services by entity class (resolved once per class for the
+	 * current application context, empty for non historical entities).
+	 */
+	private static volatile ClassValue<Optional<EntityHistoryProducerService<Object>>> entityHistoryServices = HistoricalEntityListener
+			.createEntityHistoryServices();
+
+	/**
+	 * Number of entity history service resolutions (once per entity class for
+	 * each application context).
+	 */
+	private static final AtomicLong entityHistoryServiceResolutionCount = new AtomicLong();
+
 	/**
 	 * Thread pool.
 	 */
@@ -47,15 +63,24 @@ public class HistoricalEntityListener implements ApplicationContextAware {
 	public void setApplicationContext(
 			final ApplicationContext applicationContext) throws BeansException {
 		HistoricalEntityListener.appContext = applicationContext;
+		HistoricalEntityListener.entityHistoryServices = HistoricalEntityListener.createEntityHistoryServices();
 	}
 
 	/**
 	 * Sets the thread pool size.
 	 *
-	 * @param corePoolSize Core pool size (activates blocking thread pool).
-	 * @param maxPoolSize  Max pool size.
-	 * @param maxQueueSize Queue size.
-	 * @param keepAlive    Keep alive.
+	 * @param corePoolSize         Core pool size (activates blocking thread pool).
+	 * @param maxPoolSize          Max pool size.
+	 * @param maxQueueSize         Queue size.
+	 * @param keepAlive            Keep alive.
+	 * @param overflowPolicy       Overflow policy (when the pool queue is full).
+	 * @param overflowBlockTimeout Maximum wait for room in the pool (when
+	 *                                 blocking).
+	 * @param virtualPerTask       If a virtual thread should be started per task
+	 *                                 (instead of using a pool).
+	 * @param maxInFlight          Maximum tasks in flight (virtual thread per
+	 *                                 task).
+	 * @param journal              Entity history journal (when spilling).
 	 */
 	@Autowired
 	private void setThreadPoolSize(
@@ -84,34 +109,91 @@ public class HistoricalEntityListener implements ApplicationContextAware {
 			@Value("${org.coldis.library.persistence.history.history-producer.max-queue-size:5000}")
 			final Integer maxQueueSize,
 			@Value("${org.coldis.library.persistence.history.history-producer.keep-alive-seconds:60}")
-			final Integer keepAliveSeconds) {
-		if (((corePoolSize != null) && (corePoolSize > 0)) || ((corePoolSizeCpuMultiplier != null) && (corePoolSizeCpuMultiplier > 0))) {
-			HistoricalEntityListener.THREAD_POOL = new DynamicThreadPoolFactory().withName(name).withPriority(priority).withVirtual(virtual)
+			final Integer keepAliveSeconds,
+			@Value("${org.coldis.library.persistence.history.history-producer.overflow-policy:DROP}")
+			final EntityHistoryOverflowPolicy overflowPolicy,
+			@Value("${org.coldis.library.persistence.history.history-producer.overflow-block-timeout-millis:1000}")
+			final Long overflowBlockTimeout,
+			@Value("${org.coldis.library.persistence.history.history-producer.virtual-per-task:false}")
+			final Boolean virtualPerTask,
+			@Value("${org.coldis.library.persistence.history.history-producer.max-in-flight:256}")
+			final Integer maxInFlight,
+			final ObjectProvider<EntityHistoryJournal> journal) {
+		// Uses a virtual thread per task, limited by the tasks in flight.
+		if (virtualPerTask) {
+			HistoricalEntityListener.THREAD_POOL = new EntityHistoryExecutor(new EntityHistoryVirtualThreadExecutor(name, maxInFlight), overflowPolicy,
+					Duration.ofMillis(overflowBlockTimeout), journal::getIfAvailable);
+		}
+		// Uses a thread pool.
+		else if (((corePoolSize != null) && (corePoolSize > 0)) || ((corePoolSizeCpuMultiplier != null) && (corePoolSizeCpuMultiplier > 0))) {
+			final Executor threadPool = new DynamicThreadPoolFactory().withName(name).withPriority(priority).withVirtual(virtual)
 					.withParallelism(parallelism).withParallelismCpuMultiplier(parallelismCpuMultiplier).withMinRunnable(minRunnable)
 					.withMinRunnableCpuMultiplier(minRunnableCpuMultiplier).withCorePoolSize(corePoolSize)
 					.withCorePoolSizeCpuMultiplier(corePoolSizeCpuMultiplier).withMaxPoolSize(maxPoolSize)
 					.withMaxPoolSizeCpuMultiplier(maxPoolSizeCpuMultiplier).withMaxQueueSize(maxQueueSize).withKeepAlive(Duration.ofSeconds(keepAliveSeconds))
 					.build();
+			HistoricalEntityListener.THREAD_POOL = new EntityHistoryExecutor(threadPool, overflowPolicy, Duration.ofMillis(overflowBlockTimeout),
+					journal::getIfAvailable);
 		}
 	}
 
+	/**
+	 * Creates the entity history services cache.
+	 *
+	 * @return The entity history services cache.
+	 */
+	private static ClassValue<Optional<EntityHistoryProducerService<Object>>> createEntityHistoryServices() {
+		return new ClassValue<>() {
+
+			@Override
+			protected Optional<EntityHistoryProducerService<Object>> computeValue(
+					final Class<?> entityType) {
+				// Only historical entities have an entity history service.
+				HistoricalEntityListener.entityHistoryServiceResolutionCount.incrementAndGet();
+				return (entityType.getAnnotation(HistoricalEntity.class) == null ? Optional.empty()
+						: Optional.of(HistoricalEntityListener.getEntityHistoryService(entityType)));
+			}
+
+		};
+	}
+
+	/**
+	 * Gets the number of entity history service resolutions.
+	 *
+	 * @return The number of entity history service resolutions.
+	 */
+	public static long getEntityHistoryServiceResolutionCount() {
+		return HistoricalEntityListener.entityHistoryServiceResolutionCount.get();
+	}
+
+	/**
+	 * Finds the entity history service for an entity type (resolved once per
+	 * entity type).
+	 *
+	 * @param  entityType The entity type.
+	 * @return            The entity history service (or empty if the entity type
+	 *                    does not track its history).
+	 */
+	public static Optional<EntityHistoryProducerService<Object>> findEntityHistoryService(
+			final Class<?> entityType) {
+		return HistoricalEntityListener.entityHistoryServices.get(entityType);
+	}
+
 	/**
 	 * Gets the entity history service.
 	 *
 	 * @param  <EntityType>             Entity type.
-	 * @param  entity                   The entity.
-	 * @param  historicalEntityMetadata The entity historical metadata.
+	 * @param  entityType               The entity type.
 	 * @return                          The entity history service.
 	 * @throws IntegrationException     If the entity history service cannot be
 	 *                                      found.
 	 */
 	@SuppressWarnings("unchecked")
-	private <EntityType> EntityHistoryProducerService<EntityType> getEntityHistoryService(
-			final Object entity,
-			final HistoricalEntity historicalEntityMetadata) throws IntegrationException {
+	private static <EntityType> EntityHistoryProducerService<EntityType> getEntityHistoryService(
+			final Class<?> entityType) throws IntegrationException {
 
 		// Tries to get the entity history service.
-		String serviceName = (entity.getClass().getSimpleName() + HistoricalEntityMetadata.PRODUCER_SERVICE_TYPE_SUFFIX);
+		String serviceName = (entityType.getSimpleName() + HistoricalEntityMetadata.PRODUCER_SERVICE_TYPE_SUFFIX);
 		serviceName = serviceName.substring(0, 1).toLowerCase() + serviceName.substring(1);
 		try {
 			return HistoricalEntityListener.appContext.getBean(serviceName, EntityHistoryProducerService.class);
@@ -135,12 +217,12 @@ public class HistoricalEntityListener implements ApplicationContextAware {
 	@PostPersist
 	public void handleUpdate(
 			final Object entity) {
-		// Gets the entity history metadata.
-		final HistoricalEntity historicalEntityMetadata = entity.getClass().getAnnotation(HistoricalEntity.class);
+		// Gets the entity history service (if the entity should track its history).
+		final Optional<EntityHistoryProducerService<Object>> entityHistoryService = HistoricalEntityListener.findEntityHistoryService(entity.getClass());
 		// If the entity is should track its history.
-		if (historicalEntityMetadata != null) {
+		if (entityHistoryService.isPresent()) {
 			// Handles the update for the entity.
-			this.getEntityHistoryService(entity, historicalEntityMetadata).handleUpdate(entity);
+			entityHistoryService.get().handleUpdate(entity);
 		}
 	}
 
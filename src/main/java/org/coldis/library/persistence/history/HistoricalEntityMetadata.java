@@ -22,6 +22,11 @@ public class HistoricalEntityMetadata {
 	 */
 	public static final String SERVICE_PACKAGE_SUFFIX = ".service";
 
+	/**
+	 * Converters package.
+	 */
+	public static final String CONVERTER_PACKAGE = "org.coldis.library.persistence.converter";
+
 	/**
 	 * Entity history name suffix.
 	 */
@@ -67,6 +72,66 @@ public class HistoricalEntityMetadata {
 	 */
 	private String stateColumnDefinition;
 
+	/**
+	 * If the entity state is stored compressed.
+	 */
+	private Boolean stateCompressed = false;
+
+	/**
+	 * If entity history is stored as JSON patches.
+	 */
+	private Boolean stateDelta = false;
+
+	/**
+	 * Keyframe interval for delta history.
+	 */
+	private Integer stateDeltaKeyframeInterval = 20;
+
+	/**
+	 * Entity history sequence allocation size.
+	 */
+	private Integer sequenceAllocationSize = 50;
+
+	/**
+	 * If entity history is written to the outbox.
+	 */
+	private Boolean outbox = false;
+
+	/**
+	 * Coalescing window (in milliseconds).
+	 */
+	private Long coalescingWindow = 0L;
+
+	/**
+	 * If the first state within the coalescing window is also sent.
+	 */
+	private Boolean coalescingKeepFirst = false;
+
+	/**
+	 * Entity history table partitioning.
+	 */
+	private String partitioning = EntityHistoryPartitioning.NONE.name();
+
+	/**
+	 * Number of past partitions kept.
+	 */
+	private Integer partitionRetention = 0;
+
+	/**
+	 * Original entity identifier attribute name.
+	 */
+	private String entityIdAttributeName = "id";
+
+	/**
+	 * Original entity identifier qualified type name.
+	 */
+	private String entityIdQualifiedTypeName = String.class.getName();
+
+	/**
+	 * If the entity state is passed through as raw JSON.
+	 */
+	private Boolean statePassThrough = false;
+
 	/**
 	 * Entity history repository template path.
 	 */
@@ -296,6 +361,283 @@ public class HistoricalEntityMetadata {
 		this.stateColumnDefinition = stateColumnDefinition;
 	}
 
+	/**
+	 * Gets the stateCompressed.
+	 *
+	 * @return The stateCompressed.
+	 */
+	public Boolean getStateCompressed() {
+		return this.stateCompressed;
+	}
+
+	/**
+	 * Sets the stateCompressed.
+	 *
+	 * @param stateCompressed New stateCompressed.
+	 */
+	public void setStateCompressed(
+			final Boolean stateCompressed) {
+		this.stateCompressed = stateCompressed;
+	}
+
+	/**
+	 * Gets the stateDelta.
+	 *
+	 * @return The stateDelta.
+	 */
+	public Boolean getStateDelta() {
+		return this.stateDelta;
+	}
+
+	/**
+	 * Sets the stateDelta.
+	 *
+	 * @param stateDelta New stateDelta.
+	 */
+	public void setStateDelta(
+			final Boolean stateDelta) {
+		this.stateDelta = stateDelta;
+	}
+
+	/**
+	 * Gets the stateDeltaKeyframeInterval.
+	 *
+	 * @return The stateDeltaKeyframeInterval.
+	 */
+	public Integer getStateDeltaKeyframeInterval() {
+		return this.stateDeltaKeyframeInterval;
+	}
+
+	/**
+	 * Sets the stateDeltaKeyframeInterval.
+	 *
+	 * @param stateDeltaKeyframeInterval New stateDeltaKeyframeInterval.
+	 */
+	public void setStateDeltaKeyframeInterval(
+			final Integer stateDeltaKeyframeInterval) {
+		this.stateDeltaKeyframeInterval = stateDeltaKeyframeInterval;
+	}
+
+	/**
+	 * Gets the sequenceAllocationSize.
+	 *
+	 * @return The sequenceAllocationSize.
+	 */
+	public Integer getSequenceAllocationSize() {
+		return this.sequenceAllocationSize;
+	}
+
+	/**
+	 * Sets the sequenceAllocationSize.
+	 *
+	 * @param sequenceAllocationSize New sequenceAllocationSize.
+	 */
+	public void setSequenceAllocationSize(
+			final Integer sequenceAllocationSize) {
+		this.sequenceAllocationSize = sequenceAllocationSize;
+	}
+
+	/**
+	 * Gets the outbox.
+	 *
+	 * @return The outbox.
+	 */
+	public Boolean getOutbox() {
+		return this.outbox;
+	}
+
+	/**
+	 * Sets the outbox.
+	 *
+	 * @param outbox New outbox.
+	 */
+	public void setOutbox(
+			final Boolean outbox) {
+		this.outbox = outbox;
+	}
+
+	/**
+	 * Gets the coalescing window.
+	 *
+	 * @return The coalescing window.
+	 */
+	public Long getCoalescingWindow() {
+		return this.coalescingWindow;
+	}
+
+	/**
+	 * Sets the coalescing window.
+	 *
+	 * @param coalescingWindow New coalescing window.
+	 */
+	public void setCoalescingWindow(
+			final Long coalescingWindow) {
+		this.coalescingWindow = coalescingWindow;
+	}
+
+	/**
+	 * Gets if the first state within the coalescing window is also sent.
+	 *
+	 * @return If the first state within the coalescing window is also sent.
+	 */
+	public Boolean getCoalescingKeepFirst() {
+		return this.coalescingKeepFirst;
+	}
+
+	/**
+	 * Sets if the first state within the coalescing window is also sent.
+	 *
+	 * @param coalescingKeepFirst If the first state within the coalescing window
+	 *                                is also sent.
+	 */
+	public void setCoalescingKeepFirst(
+			final Boolean coalescingKeepFirst) {
+		this.coalescingKeepFirst = coalescingKeepFirst;
+	}
+
+	/**
+	 * Gets the entity history table partitioning.
+	 *
+	 * @return The entity history table partitioning.
+	 */
+	public String getPartitioning() {
+		return this.partitioning;
+	}
+
+	/**
+	 * Sets the entity history table partitioning.
+	 *
+	 * @param partitioning New entity history table partitioning.
+	 */
+	public void setPartitioning(
+			final String partitioning) {
+		this.partitioning = partitioning;
+	}
+
+	/**
+	 * Gets the number of past partitions kept.
+	 *
+	 * @return The number of past partitions kept.
+	 */
+	public Integer getPartitionRetention() {
+		return this.partitionRetention;
+	}
+
+	/**
+	 * Sets the number of past partitions kept.
+	 *
+	 * @param partitionRetention New number of past partitions kept.
+	 */
+	public void setPartitionRetention(
+			final Integer partitionRetention) {
+		this.partitionRetention = partitionRetention;
+	}
+
+	/**
+	 * Gets the original entity identifier attribute name.
+	 *
+	 * @return The original entity identifier attribute name.
+	 */
+	public String getEntityIdAttributeName() {
+		return this.entityIdAttributeName;
+	}
+
+	/**
+	 * Sets the original entity identifier attribute name.
+	 *
+	 * @param entityIdAttributeName New original entity identifier attribute name.
+	 */
+	public void setEntityIdAttributeName(
+			final String entityIdAttributeName) {
+		this.entityIdAttributeName = entityIdAttributeName;
+	}
+
+	/**
+	 * Gets the original entity identifier qualified type name.
+	 *
+	 * @return The original entity identifier qualified type name.
+	 */
+	public String getEntityIdQualifiedTypeName() {
+		return this.entityIdQualifiedTypeName;
+	}
+
+	/**
+	 * Sets the original entity identifier qualified type name.
+	 *
+	 * @param entityIdQualifiedTypeName New original entity identifier qualified
+	 *                                      type name.
+	 */
+	public void setEntityIdQualifiedTypeName(
+			final String entityIdQualifiedTypeName) {
+		this.entityIdQualifiedTypeName = entityIdQualifiedTypeName;
+	}
+
+	/**
+	 * Gets the original entity identifier type name (qualified, unless it is a
+	 * <code>java.lang</code> type).
+	 *
+	 * @return The original entity identifier type name.
+	 */
+	public String getEntityIdTypeName() {
+		return (this.entityIdQualifiedTypeName.matches("java\\.lang\\.[^.]+") ? this.entityIdQualifiedTypeName.substring("java.lang.".length())
+				: this.entityIdQualifiedTypeName);
+	}
+
+	/**
+	 * Gets if the entity state is passed through as raw JSON.
+	 *
+	 * @return If the entity state is passed through as raw JSON.
+	 */
+	public Boolean getStatePassThrough() {
+		return Boolean.TRUE.equals(this.statePassThrough);
+	}
+
+	/**
+	 * Sets if the entity state is passed through as raw JSON.
+	 *
+	 * @param statePassThrough If the entity state is passed through as raw JSON.
+	 */
+	public void setStatePassThrough(
+			final Boolean statePassThrough) {
+		this.statePassThrough = statePassThrough;
+	}
+
+	/**
+	 * Gets if the entity history table is partitioned.
+	 *
+	 * @return If the entity history table is partitioned.
+	 */
+	public Boolean getPartitioned() {
+		return (this.partitioning != null) && !EntityHistoryPartitioning.NONE.name().equals(this.partitioning);
+	}
+
+	/**
+	 * Gets if entity history updates are coalesced.
+	 *
+	 * @return If entity history updates are coalesced.
+	 */
+	public Boolean getCoalescing() {
+		return (this.coalescingWindow != null) && (this.coalescingWindow > 0);
+	}
+
+	/**
+	 * Gets the state converter qualified type name.
+	 *
+	 * @return The state converter qualified type name.
+	 */
+	public String getStateConverterQualifiedTypeName() {
+		return HistoricalEntityMetadata.CONVERTER_PACKAGE + "." + this.getStateConverterTypeName();
+	}
+
+	/**
+	 * Gets the state converter type name.
+	 *
+	 * @return The state converter type name.
+	 */
+	public String getStateConverterTypeName() {
+		return this.getStateCompressed() ? "CompressedMapJsonConverter" : "MapJsonConverter";
+	}
+
 	/**
 	 * Gets the sequence name.
 	 *
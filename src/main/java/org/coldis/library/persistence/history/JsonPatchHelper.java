@@ -0,0 +1,250 @@
+package org.coldis.library.persistence.history;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.coldis.library.exception.IntegrationException;
+import org.coldis.library.model.SimpleMessage;
+import org.coldis.library.persistence.converter.JsonMutabilityPlan;
+
+/**
+ * JSON patch (RFC 6902) helper for JSON trees (maps, lists and values).
+ */
+public class JsonPatchHelper {
+
+	/**
+	 * Operation attribute.
+	 */
+	public static final String OPERATION = "op";
+
+	/**
+	 * Path attribute.
+	 */
+	public static final String PATH = "path";
+
+	/**
+	 * Value attribute.
+	 */
+	public static final String VALUE = "value";
+
+	/**
+	 * Add operation.
+	 */
+	public static final String ADD = "add";
+
+	/**
+	 * Remove operation.
+	 */
+	public static final String REMOVE = "remove";
+
+	/**
+	 * Replace operation.
+	 */
+	public static final String REPLACE = "replace";
+
+	/**
+	 * Test operation.
+	 */
+	public static final String TEST = "test";
+
+	/**
+	 * Creates a patch operation.
+	 *
+	 * @param  operation Operation.
+	 * @param  path      Path.
+	 * @param  value     Value.
+	 * @return           The patch operation.
+	 */
+	public static Map<String, Object> createOperation(
+			final String operation,
+			final String path,
+			final Object value) {
+		final Map<String, Object> patchOperation = new LinkedHashMap<>();
+		patchOperation.put(JsonPatchHelper.OPERATION, operation);
+		patchOperation.put(JsonPatchHelper.PATH, path);
+		if (!JsonPatchHelper.REMOVE.equals(operation)) {
+			patchOperation.put(JsonPatchHelper.VALUE, value);
+		}
+		return patchOperation;
+	}
+
+	/**
+	 * Escapes a JSON pointer token.
+	 *
+	 * @param  token Token.
+	 * @return       The escaped token.
+	 */
+	private static String escape(
+			final Object token) {
+		return token.toString().replace("~", "~0").replace("/", "~1");
+	}
+
+	/**
+	 * Unescapes a JSON pointer token.
+	 *
+	 * @param  token Escaped token.
+	 * @return       The token.
+	 */
+	private static String unescape(
+			final String token) {
+		return token.replace("~1", "/").replace("~0", "~");
+	}
+
+	/**
+	 * Adds the operations that transform the source into the target to the
+	 * patch.
+	 *
+	 * @param patch  Patch.
+	 * @param path   Current path.
+	 * @param source Source value.
+	 * @param target Target value.
+	 */
+	@SuppressWarnings("unchecked")
+	private static void diff(
+			final List<Map<String, Object>> patch,
+			final String path,
+			final Object source,
+			final Object target) {
+		// If both values are objects, compares the attributes.
+		if ((source instanceof Map) && (target instanceof Map)) {
+			final Map<String, Object> sourceMap = (Map<String, Object>) source;
+			final Map<String, Object> targetMap = (Map<String, Object>) target;
+			for (final Map.Entry<String, Object> sourceEntry : sourceMap.entrySet()) {
+				final String entryPath = path + "/" + JsonPatchHelper.escape(sourceEntry.getKey());
+				if (!targetMap.containsKey(sourceEntry.getKey())) {
+					patch.add(JsonPatchHelper.createOperation(JsonPatchHelper.REMOVE, entryPath, null));
+				}
+				else {
+					JsonPatchHelper.diff(patch, entryPath, sourceEntry.getValue(), targetMap.get(sourceEntry.getKey()));
+				}
+			}
+			for (final Map.Entry<String, Object> targetEntry : targetMap.entrySet()) {
+				if (!sourceMap.containsKey(targetEntry.getKey())) {
+					patch.add(JsonPatchHelper.createOperation(JsonPatchHelper.ADD, path + "/" + JsonPatchHelper.escape(targetEntry.getKey()),
+							targetEntry.getValue()));
+				}
+			}
+		}
+		// If both values are arrays of the same size, compares the items.
+		else if ((source instanceof List) && (target instanceof List) && (((List<?>) source).size() == ((List<?>) target).size())) {
+			for (int index = 0; index < ((List<?>) source).size(); index++) {
+				JsonPatchHelper.diff(patch, path + "/" + index, ((List<?>) source).get(index), ((List<?>) target).get(index));
+			}
+		}
+		// Otherwise, replaces the value (if it has changed).
+		else if (!Objects.equals(source, target)) {
+			patch.add(JsonPatchHelper.createOperation(JsonPatchHelper.REPLACE, path, target));
+		}
+	}
+
+	/**
+	 * Creates the patch that transforms the source into the target.
+	 *
+	 * @param  source Source value.
+	 * @param  target Target value.
+	 * @return        The patch.
+	 */
+	public static List<Map<String, Object>> diff(
+			final Object source,
+			final Object target) {
+		final List<Map<String, Object>> patch = new ArrayList<>();
+		JsonPatchHelper.diff(patch, "", source, target);
+		return patch;
+	}
+
+	/**
+	 * Applies a patch operation to a (mutable) document.
+	 *
+	 * @param  document  Document.
+	 * @param  operation Patch operation.
+	 * @return           The patched document.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Object apply(
+			final Object document,
+			final Map<String, Object> operation) {
+		// Gets the operation attributes.
+		final String operationName = (String) operation.get(JsonPatchHelper.OPERATION);
+		final String path = (String) operation.get(JsonPatchHelper.PATH);
+		final Object value = JsonMutabilityPlan.copy(operation.get(JsonPatchHelper.VALUE));
+		// If the operation is on the document root.
+		if (path.isEmpty()) {
+			if (JsonPatchHelper.TEST.equals(operationName)) {
+				if (!Objects.equals(document, value)) {
+					throw new IntegrationException(new SimpleMessage("json.patch.test.failed"));
+				}
+				return document;
+			}
+			return JsonPatchHelper.REMOVE.equals(operationName) ? null : value;
+		}
+		// Gets the parent of the target value.
+		final String[] tokens = path.substring(1).split("/", -1);
+		Object parent = document;
+		for (int index = 0; index < (tokens.length - 1); index++) {
+			final String token = JsonPatchHelper.unescape(tokens[index]);
+			parent = (parent instanceof List ? ((List<Object>) parent).get(Integer.parseInt(token)) : ((Map<String, Object>) parent).get(token));
+		}
+		final String token = JsonPatchHelper.unescape(tokens[tokens.length - 1]);
+		// Applies the operation to an array item.
+		if (parent instanceof List) {
+			final List<Object> parentList = (List<Object>) parent;
+			final int index = ("-".equals(token) ? parentList.size() : Integer.parseInt(token));
+			switch (operationName) {
+				case ADD -> parentList.add(index, value);
+				case REMOVE -> parentList.remove(index);
+				case REPLACE -> parentList.set(index, value);
+				case TEST -> {
+					if (!Objects.equals(parentList.get(index), value)) {
+						throw new IntegrationException(new SimpleMessage("json.patch.test.failed"));
+					}
+				}
+				default -> throw new IntegrationException(new SimpleMessage("json.patch.operation.unsupported"));
+			}
+		}
+		// Applies the operation to an object attribute.
+		else if (parent instanceof Map) {
+			final Map<String, Object> parentMap = (Map<String, Object>) parent;
+			switch (operationName) {
+				case ADD, REPLACE -> parentMap.put(token, value);
+				case REMOVE -> parentMap.remove(token);
+				case TEST -> {
+					if (!Objects.equals(parentMap.get(token), value)) {
+						throw new IntegrationException(new SimpleMessage("json.patch.test.failed"));
+					}
+				}
+				default -> throw new IntegrationException(new SimpleMessage("json.patch.operation.unsupported"));
+			}
+		}
+		// If the path does not exist.
+		else {
+			throw new IntegrationException(new SimpleMessage("json.patch.path.invalid"));
+		}
+		// Returns the patched document.
+		return document;
+	}
+
+	/**
+	 * Applies a patch to a document (the original document is not changed).
+	 *
+	 * @param  <DocumentType> Document type.
+	 * @param  document       Document.
+	 * @param  patch          Patch.
+	 * @return                The patched document.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <DocumentType> DocumentType apply(
+			final DocumentType document,
+			final List<? extends Map<String, Object>> patch) {
+		Object patchedDocument = JsonMutabilityPlan.copy(document);
+		if (patch != null) {
+			for (final Map<String, Object> operation : patch) {
+				patchedDocument = JsonPatchHelper.apply(patchedDocument, operation);
+			}
+		}
+		return (DocumentType) patchedDocument;
+	}
+
+}
@@ -0,0 +1,633 @@
+package org.coldis.library.persistence.history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.coldis.library.exception.IntegrationException;
+import org.coldis.library.model.SimpleMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Append-only, memory-mapped entity history journal. Records are written to
+ * segment files (<code>length | CRC32 | payload</code>, a zero length marks the
+ * end of the segment data) and replayed in order from a persisted checkpoint,
+ * so pending updates survive restarts. Writes are forced to the storage device
+ * every configured number of records (every record, by default) and at a
+ * configured interval, and the checkpoint on every update, so they also
+ * survive operating system crashes. The next segment is mapped (and its pages
+ * touched) in the background, so appends do not wait for it.
+ */
+@Component
+@ConditionalOnProperty(
+		name = "org.coldis.library.persistence.history.journal.enabled",
+		havingValue = "true",
+		matchIfMissing = false
+)
+public class MappedEntityHistoryJournal implements EntityHistoryJournal {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(MappedEntityHistoryJournal.class);
+
+	/**
+	 * Segment file extension.
+	 */
+	private static final String SEGMENT_EXTENSION = ".journal";
+
+	/**
+	 * Checkpoint file.
+	 */
+	private static final String CHECKPOINT_FILE = "checkpoint";
+
+	/**
+	 * Record header size (length and CRC).
+	 */
+	private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+	/**
+	 * Number of replayed records between checkpoints (a crash may replay these
+	 * records again).
+	 */
+	private static final int CHECKPOINT_INTERVAL = 100;
+
+	/**
+	 * Page size used to touch pre-allocated segments.
+	 */
+	private static final int PAGE_SIZE = 4096;
+
+	/**
+	 * Properties type.
+	 */
+	private static final TypeReference<Map<String, String>> PROPERTIES_TYPE = new TypeReference<Map<String, String>>() {};
+
+	/**
+	 * Journal directory.
+	 */
+	@Value("${org.coldis.library.persistence.history.journal.directory:${java.io.tmpdir}/entity-history-journal}")
+	private Path directory;
+
+	/**
+	 * Segment size (in bytes).
+	 */
+	@Value("${org.coldis.library.persistence.history.journal.segment-size:67108864}")
+	private Integer segmentSize;
+
+	/**
+	 * Number of appended records after which writes are forced to the storage
+	 * device (writes are only forced at the interval, if not greater than 0).
+	 */
+	@Value("${org.coldis.library.persistence.history.journal.force-records:1}")
+	private Integer forceRecords;
+
+	/**
+	 * Interval (in milliseconds) at which pending writes are forced to the
+	 * storage device (writes are only forced by the number of records, if not
+	 * greater than 0).
+	 */
+	@Value("${org.coldis.library.persistence.history.journal.force-interval:1000}")
+	private Long forceInterval;
+
+	/**
+	 * Object mapper.
+	 */
+	@Autowired
+	@Qualifier(value = "persistenceJsonMapper")
+	private ObjectMapper objectMapper;
+
+	/**
+	 * Lock (guards the segments and positions).
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * Mapped segments (by segment number).
+	 */
+	private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+
+	/**
+	 * Journal background thread (segment pre-allocation and periodic forcing).
+	 */
+	private ScheduledExecutorService backgroundExecutor;
+
+	/**
+	 * Next write segment (pre-allocated in the background).
+	 */
+	private CompletableFuture<MappedByteBuffer> nextSegment;
+
+	/**
+	 * Current write segment.
+	 */
+	private long writeSegment;
+
+	/**
+	 * Current write position.
+	 */
+	private int writePosition;
+
+	/**
+	 * Write position (in the current write segment) up to which writes have been
+	 * forced.
+	 */
+	private int forcedPosition;
+
+	/**
+	 * Number of records appended since writes have been forced.
+	 */
+	private int unforcedRecords;
+
+	/**
+	 * Next read segment.
+	 */
+	private long readSegment;
+
+	/**
+	 * Next read position.
+	 */
+	private int readPosition;
+
+	/**
+	 * No arguments constructor.
+	 */
+	public MappedEntityHistoryJournal() {
+	}
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param directory    Journal directory.
+	 * @param segmentSize  Segment size (in bytes).
+	 * @param objectMapper Object mapper.
+	 */
+	public MappedEntityHistoryJournal(final Path directory, final Integer segmentSize, final ObjectMapper objectMapper) {
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.objectMapper = objectMapper;
+		this.forceRecords = 1;
+		this.forceInterval = 1000L;
+	}
+
+	/**
+	 * Gets the segment file.
+	 *
+	 * @param  segment Segment number.
+	 * @return         The segment file.
+	 */
+	private Path getSegmentFile(
+			final long segment) {
+		return this.directory.resolve(String.format("%020d", segment) + MappedEntityHistoryJournal.SEGMENT_EXTENSION);
+	}
+
+	/**
+	 * Maps a segment file.
+	 *
+	 * @param  segment     Segment number.
+	 * @param  size        Minimum segment size.
+	 * @return             The mapped segment.
+	 * @throws IOException If the segment cannot be mapped.
+	 */
+	private MappedByteBuffer mapSegmentFile(
+			final long segment,
+			final int size) throws IOException {
+		try (FileChannel channel = FileChannel.open(this.getSegmentFile(segment), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			return channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+		}
+	}
+
+	/**
+	 * Maps a segment file (and adds it to the journal segments).
+	 *
+	 * @param  segment     Segment number.
+	 * @param  size        Minimum segment size.
+	 * @return             The mapped segment.
+	 * @throws IOException If the segment cannot be mapped.
+	 */
+	private MappedByteBuffer mapSegment(
+			final long segment,
+			final int size) throws IOException {
+		final MappedByteBuffer buffer = this.mapSegmentFile(segment, size);
+		this.segments.put(segment, buffer);
+		return buffer;
+	}
+
+	/**
+	 * Pre-allocates the segment after the current write segment in the
+	 * background (maps it and touches its pages).
+	 */
+	private void preallocateNextSegment() {
+		final long segment = this.writeSegment + 1;
+		this.nextSegment = CompletableFuture.supplyAsync(() -> {
+			try {
+				final MappedByteBuffer buffer = this.mapSegmentFile(segment, this.segmentSize);
+				for (int position = 0; position < buffer.capacity(); position += MappedEntityHistoryJournal.PAGE_SIZE) {
+					buffer.put(position, (byte) 0);
+				}
+				return buffer;
+			}
+			// If the segment cannot be pre-allocated.
+			catch (final IOException exception) {
+				throw new IntegrationException(new SimpleMessage("entity.history.journal.preallocation.failed"), exception);
+			}
+		}, this.backgroundExecutor);
+	}
+
+	/**
+	 * Forces the pending writes (in the current write segment) to the storage
+	 * device. Must be called with the lock held.
+	 */
+	private void forceWrites() {
+		if (this.writePosition > this.forcedPosition) {
+			this.segments.get(this.writeSegment).force(this.forcedPosition, this.writePosition - this.forcedPosition);
+			this.forcedPosition = this.writePosition;
+		}
+		this.unforcedRecords = 0;
+	}
+
+	/**
+	 * Forces the pending writes to the storage device.
+	 */
+	public void force() {
+		this.lock.lock();
+		try {
+			if (!this.segments.isEmpty()) {
+				this.forceWrites();
+			}
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Moves to the next write segment (using the pre-allocated one, if ready and
+	 * large enough) and pre-allocates the one after it.
+	 *
+	 * @param  size        Minimum segment size.
+	 * @return             The new write segment.
+	 * @throws IOException If the segment cannot be mapped.
+	 */
+	private MappedByteBuffer nextWriteSegment(
+			final int size) throws IOException {
+		// Forces the pending writes in the current segment.
+		this.forceWrites();
+		this.writeSegment++;
+		this.writePosition = 0;
+		this.forcedPosition = 0;
+		// Gets the pre-allocated segment.
+		MappedByteBuffer buffer = null;
+		try {
+			buffer = (this.nextSegment == null ? null : this.nextSegment.join());
+		}
+		// If the segment could not be pre-allocated, maps it now.
+		catch (final CompletionException exception) {
+			MappedEntityHistoryJournal.LOGGER.warn("Entity history journal segment could not be pre-allocated: " + exception.getLocalizedMessage());
+			MappedEntityHistoryJournal.LOGGER.debug("Entity history journal segment could not be pre-allocated.", exception);
+		}
+		if ((buffer == null) || (buffer.capacity() < size)) {
+			buffer = this.mapSegmentFile(this.writeSegment, size);
+		}
+		this.segments.put(this.writeSegment, buffer);
+		this.preallocateNextSegment();
+		return buffer;
+	}
+
+	/**
+	 * Reads the record at a position (or <code>null</code> if there is no valid
+	 * record there).
+	 *
+	 * @param  buffer   Segment.
+	 * @param  position Position.
+	 * @return          The record payload.
+	 */
+	private static byte[] readRecord(
+			final ByteBuffer buffer,
+			final int position) {
+		if ((position + MappedEntityHistoryJournal.HEADER_SIZE) > buffer.capacity()) {
+			return null;
+		}
+		final int length = buffer.getInt(position);
+		if ((length <= 0) || ((position + MappedEntityHistoryJournal.HEADER_SIZE + length) > buffer.capacity())) {
+			return null;
+		}
+		final byte[] payload = new byte[length];
+		buffer.get(position + MappedEntityHistoryJournal.HEADER_SIZE, payload);
+		final CRC32 crc = new CRC32();
+		crc.update(payload);
+		return ((int) crc.getValue()) == buffer.getInt(position + Integer.BYTES) ? payload : null;
+	}
+
+	/**
+	 * Writes a length-prefixed string.
+	 *
+	 * @param buffer Buffer.
+	 * @param value  Value.
+	 */
+	private static void putString(
+			final ByteBuffer buffer,
+			final byte[] value) {
+		buffer.putInt(value.length);
+		buffer.put(value);
+	}
+
+	/**
+	 * Reads a length-prefixed string.
+	 *
+	 * @param  buffer Buffer.
+	 * @return        The value.
+	 */
+	private static String getString(
+			final ByteBuffer buffer) {
+		final byte[] value = new byte[buffer.getInt()];
+		buffer.get(value);
+		return new String(value, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Loads the checkpoint.
+	 *
+	 * @throws IOException If the checkpoint cannot be read.
+	 */
+	private void loadCheckpoint() throws IOException {
+		final Path checkpointFile = this.directory.resolve(MappedEntityHistoryJournal.CHECKPOINT_FILE);
+		if (Files.exists(checkpointFile)) {
+			final ByteBuffer checkpoint = ByteBuffer.wrap(Files.readAllBytes(checkpointFile));
+			this.readSegment = checkpoint.getLong();
+			this.readPosition = checkpoint.getInt();
+		}
+		else {
+			this.readSegment = (this.segments.isEmpty() ? 0 : this.segments.firstKey());
+			this.readPosition = 0;
+		}
+	}
+
+	/**
+	 * Saves the checkpoint (forcing it, and the directory entry, to the storage
+	 * device).
+	 *
+	 * @throws IOException If the checkpoint cannot be written.
+	 */
+	private void saveCheckpoint() throws IOException {
+		final ByteBuffer checkpoint = ByteBuffer.allocate(Long.BYTES + Integer.BYTES).putLong(this.readSegment).putInt(this.readPosition);
+		final Path temporaryFile = this.directory.resolve(MappedEntityHistoryJournal.CHECKPOINT_FILE + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE)) {
+			checkpoint.flip();
+			while (checkpoint.hasRemaining()) {
+				channel.write(checkpoint);
+			}
+			channel.force(true);
+		}
+		Files.move(temporaryFile, this.directory.resolve(MappedEntityHistoryJournal.CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+		// Forces the directory entry (not supported on every platform).
+		try (FileChannel channel = FileChannel.open(this.directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		}
+		catch (final IOException exception) {
+			MappedEntityHistoryJournal.LOGGER.debug("Entity history journal directory could not be forced.", exception);
+		}
+	}
+
+	/**
+	 * Opens the journal (maps the existing segments and finds the write position
+	 * after the last valid record).
+	 *
+	 * @throws IOException If the journal cannot be opened.
+	 */
+	@PostConstruct
+	public void open() throws IOException {
+		this.lock.lock();
+		try {
+			Files.createDirectories(this.directory);
+			// Maps the existing segments.
+			try (Stream<Path> files = Files.list(this.directory)) {
+				for (final Path file : files.filter((
+						file) -> file.getFileName().toString().endsWith(MappedEntityHistoryJournal.SEGMENT_EXTENSION)).toList()) {
+					final String fileName = file.getFileName().toString();
+					this.mapSegment(Long.parseLong(fileName.substring(0, fileName.length() - MappedEntityHistoryJournal.SEGMENT_EXTENSION.length())), 0);
+				}
+			}
+			// Finds the write position.
+			if (this.segments.isEmpty()) {
+				this.mapSegment(0, this.segmentSize);
+			}
+			this.writeSegment = this.segments.lastKey();
+			final MappedByteBuffer writeBuffer = this.segments.lastEntry().getValue();
+			this.writePosition = 0;
+			for (byte[] payload = MappedEntityHistoryJournal.readRecord(writeBuffer, 0); payload != null; payload = MappedEntityHistoryJournal
+					.readRecord(writeBuffer, this.writePosition)) {
+				this.writePosition += MappedEntityHistoryJournal.HEADER_SIZE + payload.length;
+			}
+			this.forcedPosition = 0;
+			this.loadCheckpoint();
+			// Pre-allocates the next segment and forces pending writes periodically.
+			this.backgroundExecutor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("entity-history-journal").daemon().factory());
+			this.preallocateNextSegment();
+			if ((this.forceInterval != null) && (this.forceInterval > 0)) {
+				this.backgroundExecutor.scheduleWithFixedDelay(this::force, this.forceInterval, this.forceInterval, TimeUnit.MILLISECONDS);
+			}
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Closes the journal (waits for the segment pre-allocation and flushes the
+	 * mapped segments).
+	 */
+	@PreDestroy
+	public void close() {
+		// Waits for the background thread (outside the lock, as periodic forcing
+		// takes it).
+		if (this.backgroundExecutor != null) {
+			this.backgroundExecutor.shutdown();
+			try {
+				this.backgroundExecutor.awaitTermination(1, TimeUnit.MINUTES);
+			}
+			catch (final InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		this.lock.lock();
+		try {
+			this.segments.values().forEach(MappedByteBuffer::force);
+			this.segments.clear();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.history.EntityHistoryJournal#append(java.lang.String,
+	 *      org.coldis.library.persistence.history.EntityHistoryUpdate)
+	 */
+	@Override
+	public void append(
+			final String destination,
+			final EntityHistoryUpdate update) {
+		try {
+			// Encodes the record (outside the lock).
+			final byte[] destinationBytes = destination.getBytes(StandardCharsets.UTF_8);
+			final byte[] propertiesBytes = this.objectMapper.writeValueAsBytes(update.getProperties());
+			final byte[] contentBytes = update.getContent().getBytes(StandardCharsets.UTF_8);
+			final ByteBuffer payload = ByteBuffer.allocate((Integer.BYTES * 3) + destinationBytes.length + propertiesBytes.length + contentBytes.length + Long.BYTES);
+			MappedEntityHistoryJournal.putString(payload, destinationBytes);
+			MappedEntityHistoryJournal.putString(payload, propertiesBytes);
+			MappedEntityHistoryJournal.putString(payload, contentBytes);
+			payload.putLong(update.getTimestamp());
+			final CRC32 crc = new CRC32();
+			crc.update(payload.array());
+			final int recordSize = MappedEntityHistoryJournal.HEADER_SIZE + payload.capacity();
+			// Writes the record (the payload before the header, so a torn record is never
+			// valid).
+			this.lock.lock();
+			try {
+				MappedByteBuffer writeBuffer = this.segments.get(this.writeSegment);
+				if ((this.writePosition + recordSize + Integer.BYTES) > writeBuffer.capacity()) {
+					writeBuffer = this.nextWriteSegment(Math.max(this.segmentSize, recordSize + Integer.BYTES));
+				}
+				writeBuffer.put(this.writePosition + MappedEntityHistoryJournal.HEADER_SIZE, payload.array());
+				writeBuffer.putInt(this.writePosition + Integer.BYTES, (int) crc.getValue());
+				writeBuffer.putInt(this.writePosition, payload.capacity());
+				this.writePosition += recordSize;
+				// Forces the writes, if enough records have been appended.
+				this.unforcedRecords++;
+				if ((this.forceRecords != null) && (this.forceRecords > 0) && (this.unforcedRecords >= this.forceRecords)) {
+					this.forceWrites();
+				}
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+		// If the record cannot be written.
+		catch (final IOException exception) {
+			throw new IntegrationException(new SimpleMessage("entity.history.journal.append.failed"), exception);
+		}
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.history.EntityHistoryJournal#hasPending()
+	 */
+	@Override
+	public boolean hasPending() {
+		this.lock.lock();
+		try {
+			return (this.readSegment < this.writeSegment) || (this.readPosition < this.writePosition);
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Replays the journal in order, from the checkpoint. Replay stops at the first
+	 * update that cannot be sent (it is retried in the next replay). Updates are
+	 * delivered at least once.
+	 *
+	 * @param  sender Update sender (by queue).
+	 * @return        The number of updates replayed.
+	 */
+	public int replay(
+			final BiConsumer<String, EntityHistoryUpdate> sender) {
+		int replayed = 0;
+		try {
+			while (true) {
+				// Reads the next record.
+				final byte[] payload;
+				this.lock.lock();
+				try {
+					final MappedByteBuffer readBuffer = this.segments.get(this.readSegment);
+					payload = (readBuffer == null ? null : MappedEntityHistoryJournal.readRecord(readBuffer, this.readPosition));
+					// If the segment is over, moves to the next one (removing the replayed one).
+					if ((payload == null) && (this.readSegment < this.writeSegment)) {
+						final Long nextSegment = this.segments.higherKey(this.readSegment);
+						if (this.segments.remove(this.readSegment) != null) {
+							Files.deleteIfExists(this.getSegmentFile(this.readSegment));
+						}
+						this.readSegment = (nextSegment == null ? this.writeSegment : nextSegment);
+						this.readPosition = 0;
+						this.saveCheckpoint();
+						continue;
+					}
+				}
+				finally {
+					this.lock.unlock();
+				}
+				if (payload == null) {
+					break;
+				}
+				// Sends the update (outside the lock).
+				final ByteBuffer record = ByteBuffer.wrap(payload);
+				final String destination = MappedEntityHistoryJournal.getString(record);
+				final Map<String, String> properties = this.objectMapper.readValue(MappedEntityHistoryJournal.getString(record),
+						MappedEntityHistoryJournal.PROPERTIES_TYPE);
+				final String content = MappedEntityHistoryJournal.getString(record);
+				sender.accept(destination, new EntityHistoryUpdate(content, properties, record.getLong()));
+				replayed++;
+				// Moves the checkpoint.
+				this.lock.lock();
+				try {
+					this.readPosition += MappedEntityHistoryJournal.HEADER_SIZE + payload.length;
+					if ((replayed % MappedEntityHistoryJournal.CHECKPOINT_INTERVAL) == 0) {
+						this.saveCheckpoint();
+					}
+				}
+				finally {
+					this.lock.unlock();
+				}
+			}
+			// Saves the final checkpoint.
+			if (replayed > 0) {
+				this.lock.lock();
+				try {
+					this.saveCheckpoint();
+				}
+				finally {
+					this.lock.unlock();
+				}
+			}
+		}
+		// If the journal cannot be replayed.
+		catch (final Exception exception) {
+			MappedEntityHistoryJournal.LOGGER.warn("Entity history journal replay stopped: " + exception.getClass().getName() + " - "
+					+ exception.getLocalizedMessage());
+			MappedEntityHistoryJournal.LOGGER.debug("Entity history journal replay stopped.", exception);
+		}
+		return replayed;
+	}
+
+}
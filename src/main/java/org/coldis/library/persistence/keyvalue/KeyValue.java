@@ -1,6 +1,7 @@
 package org.coldis.library.persistence.keyvalue;
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.Objects;
 
 import org.coldis.library.dto.DtoAttribute;
@@ -17,6 +18,8 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
 
 /**
@@ -30,6 +33,10 @@ import jakarta.persistence.Transient;
 		havingValue = "true",
 		matchIfMissing = true
 )
+@Table(indexes = { @Index(
+		name = KeyValue.EXPIRES_AT_INDEX,
+		columnList = "expiresAt"
+) })
 public class KeyValue<ValueType extends Typable> extends AbstractTimestampableEntity {
 
 	/**
@@ -37,6 +44,12 @@ public class KeyValue<ValueType extends Typable> extends AbstractTimestampableEn
 	 */
 	private static final long serialVersionUID = -4687758626282277950L;
 
+	/**
+	 * Expiration index name (the same index is created by the schema generation
+	 * and by {@link KeyValueService#getExpirationColumnStatements()}).
+	 */
+	public static final String EXPIRES_AT_INDEX = "keyvalue_expires_at_idx";
+
 	/**
 	 * Key.
 	 */
@@ -47,6 +60,11 @@ public class KeyValue<ValueType extends Typable> extends AbstractTimestampableEn
 	 */
 	private Serializable internalValue;
 
+	/**
+	 * When the entry expires (<code>null</code> if it does not expire).
+	 */
+	private LocalDateTime expiresAt;
+
 	/**
 	 * No arguments constructor.
 	 */
@@ -131,6 +149,40 @@ public class KeyValue<ValueType extends Typable> extends AbstractTimestampableEn
 		this.setInternalValue(value);
 	}
 
+	/**
+	 * Gets when the entry expires (<code>null</code> if it does not expire).
+	 *
+	 * @return When the entry expires.
+	 */
+	@DtoAttribute(usedInComparison = false)
+	@Column(columnDefinition = "TIMESTAMPTZ")
+	@JsonView({ ModelView.Persistent.class, ModelView.Public.class })
+	public LocalDateTime getExpiresAt() {
+		return this.expiresAt;
+	}
+
+	/**
+	 * Sets when the entry expires.
+	 *
+	 * @param expiresAt When the entry expires (<code>null</code> if it does not
+	 *                      expire).
+	 */
+	public void setExpiresAt(
+			final LocalDateTime expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+
+	/**
+	 * Gets if the entry is expired at the given date.
+	 *
+	 * @param  date Date.
+	 * @return      If the entry is expired at the given date.
+	 */
+	public boolean isExpiredAt(
+			final LocalDateTime date) {
+		return (this.expiresAt != null) && !this.expiresAt.isAfter(date);
+	}
+
 	/**
 	 * @see java.lang.Object#hashCode()
 	 */
@@ -0,0 +1,365 @@
+package org.coldis.library.persistence.keyvalue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.coldis.library.model.Typable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Key/value near cache (size and time bounded). Entries are invalidated when
+ * keys are changed and, if enabled, on other nodes through PostgreSQL
+ * <code>NOTIFY</code> (see {@link KeyValueCacheInvalidationListener}). Reads
+ * do not lock: each read gets its own key/value, but the (deserialized) value
+ * is shared between reads, so cached values must be treated as immutable
+ * (values to be changed must be copied first).
+ */
+@Component
+@ConditionalOnProperty(
+		name = "org.coldis.configuration.persistence-keyvalue-enabled",
+		havingValue = "true",
+		matchIfMissing = true
+)
+public class KeyValueCache {
+
+	/**
+	 * Invalidation channel.
+	 */
+	public static final String INVALIDATION_CHANNEL = "key_value_invalidation";
+
+	/**
+	 * Invalidation keys separator (keys invalidated together are sent in a single
+	 * notification).
+	 */
+	public static final String INVALIDATION_SEPARATOR = "\n";
+
+	/**
+	 * Maximum invalidation notification payload size (in bytes, PostgreSQL limits
+	 * payloads to 8000 bytes).
+	 */
+	private static final int MAX_INVALIDATION_PAYLOAD_SIZE = 7900;
+
+	/**
+	 * Number of version stripes (keys are invalidated by stripe, so loads of
+	 * other keys are rarely affected by an invalidation).
+	 */
+	private static final int VERSION_STRIPES = 1024;
+
+	/**
+	 * Number of entries sampled when an entry must be discarded (the least
+	 * recently used of them is discarded).
+	 */
+	private static final int EVICTION_SAMPLE_SIZE = 16;
+
+	/**
+	 * Cached entry.
+	 */
+	private static final class CachedEntry {
+
+		/**
+		 * Value (shared between reads).
+		 */
+		private final Typable value;
+
+		/**
+		 * Creation date.
+		 */
+		private final LocalDateTime createdAt;
+
+		/**
+		 * Update date.
+		 */
+		private final LocalDateTime updatedAt;
+
+		/**
+		 * When the key/value expires.
+		 */
+		private final LocalDateTime keyValueExpiresAt;
+
+		/**
+		 * When the entry expires (in nanoseconds).
+		 */
+		private final long expiresAt;
+
+		/**
+		 * When the entry was last read (in nanoseconds).
+		 */
+		private volatile long accessedAt;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param keyValue  Key/value.
+		 * @param expiresAt When the entry expires (in nanoseconds).
+		 */
+		private CachedEntry(final KeyValue<Typable> keyValue, final long expiresAt) {
+			this.value = keyValue.getValue();
+			this.createdAt = keyValue.getCreatedAt();
+			this.updatedAt = keyValue.getUpdatedAt();
+			this.keyValueExpiresAt = keyValue.getExpiresAt();
+			this.expiresAt = expiresAt;
+			this.accessedAt = System.nanoTime();
+		}
+
+		/**
+		 * Creates a (detached) key/value for the cached entry (sharing the value).
+		 *
+		 * @param  key Key.
+		 * @return     The key/value.
+		 */
+		private KeyValue<Typable> toKeyValue(
+				final String key) {
+			final KeyValue<Typable> keyValue = new KeyValue<>(key, this.value);
+			keyValue.setCreatedAt(this.createdAt);
+			keyValue.setUpdatedAt(this.updatedAt);
+			keyValue.setExpiresAt(this.keyValueExpiresAt);
+			return keyValue;
+		}
+
+	}
+
+	/**
+	 * JDBC template.
+	 */
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * If the cache is enabled.
+	 */
+	@Value("${org.coldis.library.persistence.keyvalue.cache.enabled:false}")
+	private Boolean enabled;
+
+	/**
+	 * Maximum number of cached entries.
+	 */
+	@Value("${org.coldis.library.persistence.keyvalue.cache.max-size:10000}")
+	private Integer maxSize;
+
+	/**
+	 * Time to live (in milliseconds) of cached entries.
+	 */
+	@Value("${org.coldis.library.persistence.keyvalue.cache.ttl:60000}")
+	private Long ttl;
+
+	/**
+	 * If invalidations should be sent to other nodes.
+	 */
+	@Value("${org.coldis.library.persistence.keyvalue.cache.notify.enabled:false}")
+	private Boolean notify;
+
+	/**
+	 * Invalidation versions by key stripe (entries loaded before an invalidation
+	 * of their stripe are not cached).
+	 */
+	private final AtomicLongArray versions = new AtomicLongArray(KeyValueCache.VERSION_STRIPES);
+
+	/**
+	 * Cached entries.
+	 */
+	private final Map<String, CachedEntry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Gets if the cache is enabled.
+	 *
+	 * @return If the cache is enabled.
+	 */
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	/**
+	 * Gets the version stripe for a key.
+	 *
+	 * @param  key Key.
+	 * @return     The version stripe for the key.
+	 */
+	private static int getStripe(
+			final String key) {
+		return Math.floorMod(key.hashCode(), KeyValueCache.VERSION_STRIPES);
+	}
+
+	/**
+	 * Gets the invalidation version for a key (to be used when caching a loaded
+	 * entry).
+	 *
+	 * @param  key Key.
+	 * @return     The invalidation version for the key.
+	 */
+	public long getVersion(
+			final String key) {
+		return this.versions.get(KeyValueCache.getStripe(key));
+	}
+
+	/**
+	 * Discards entries while the cache is bigger than the maximum size (expired
+	 * entries and the least recently used of a sample of entries).
+	 */
+	private void discardEntries() {
+		while (this.entries.size() > this.maxSize) {
+			// Samples some entries and discards the least recently used.
+			final long now = System.nanoTime();
+			final Iterator<Map.Entry<String, CachedEntry>> iterator = this.entries.entrySet().iterator();
+			Map.Entry<String, CachedEntry> leastRecentlyUsed = null;
+			for (int sampled = 0; iterator.hasNext() && (sampled < KeyValueCache.EVICTION_SAMPLE_SIZE); sampled++) {
+				final Map.Entry<String, CachedEntry> entry = iterator.next();
+				// If the entry has expired, discards it.
+				if ((entry.getValue().expiresAt - now) <= 0) {
+					iterator.remove();
+				}
+				else if ((leastRecentlyUsed == null) || ((entry.getValue().accessedAt - leastRecentlyUsed.getValue().accessedAt) < 0)) {
+					leastRecentlyUsed = entry;
+				}
+			}
+			if (leastRecentlyUsed != null) {
+				this.entries.remove(leastRecentlyUsed.getKey(), leastRecentlyUsed.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Gets a cached key/value.
+	 *
+	 * @param  key Key.
+	 * @return     The cached key/value (or <code>null</code> if it is not cached).
+	 *             The value is shared between reads and must not be changed.
+	 */
+	public KeyValue<Typable> get(
+			final String key) {
+		if (this.enabled) {
+			final CachedEntry entry = this.entries.get(key);
+			// If the entry is not cached.
+			if (entry == null) {
+				return null;
+			}
+			// If the entry has expired.
+			final long now = System.nanoTime();
+			if ((entry.expiresAt - now) <= 0) {
+				this.entries.remove(key, entry);
+				return null;
+			}
+			entry.accessedAt = now;
+			return entry.toKeyValue(key);
+		}
+		return null;
+	}
+
+	/**
+	 * Caches a key/value (if the key has not been invalidated since it has been
+	 * loaded).
+	 *
+	 * @param key      Key.
+	 * @param keyValue Key/value.
+	 * @param version  Invalidation version for the key before the key/value has
+	 *                     been loaded.
+	 */
+	public void put(
+			final String key,
+			final KeyValue<Typable> keyValue,
+			final long version) {
+		if (this.enabled && (keyValue != null) && (this.getVersion(key) == version)) {
+			final CachedEntry entry = new CachedEntry(keyValue, System.nanoTime() + (this.ttl * 1_000_000));
+			this.entries.put(key, entry);
+			// If the key has been invalidated meanwhile, discards the entry.
+			if (this.getVersion(key) != version) {
+				this.entries.remove(key, entry);
+			}
+			this.discardEntries();
+		}
+	}
+
+	/**
+	 * Removes a key from the local cache.
+	 *
+	 * @param key Key.
+	 */
+	public void evict(
+			final String key) {
+		if (this.enabled) {
+			this.versions.incrementAndGet(KeyValueCache.getStripe(key));
+			this.entries.remove(key);
+		}
+	}
+
+	/**
+	 * Removes all keys from the local cache.
+	 */
+	public void clear() {
+		for (int stripe = 0; stripe < KeyValueCache.VERSION_STRIPES; stripe++) {
+			this.versions.incrementAndGet(stripe);
+		}
+		this.entries.clear();
+	}
+
+	/**
+	 * Invalidates keys (immediately and after the current transaction
+	 * completes). If enabled, other nodes are notified when the transaction
+	 * commits (keys are sent together, in as few notifications as possible).
+	 *
+	 * @param keys Keys.
+	 */
+	public void invalidateAll(
+			final Collection<String> keys) {
+		if (this.enabled && !keys.isEmpty()) {
+			final List<String> invalidatedKeys = List.copyOf(keys);
+			invalidatedKeys.forEach(this::evict);
+			// If there is a transaction, evicts the keys again when it completes.
+			if (TransactionSynchronizationManager.isSynchronizationActive()) {
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+					@Override
+					public void afterCompletion(
+							final int status) {
+						invalidatedKeys.forEach(KeyValueCache.this::evict);
+					}
+
+				});
+			}
+			// Notifies the other nodes (notifications are sent on commit).
+			if (this.notify) {
+				final StringBuilder payload = new StringBuilder();
+				int payloadSize = 0;
+				for (final String key : invalidatedKeys) {
+					final int keySize = key.getBytes(StandardCharsets.UTF_8).length + 1;
+					// If the payload is full, sends it.
+					if ((payload.length() > 0) && ((payloadSize + keySize) > KeyValueCache.MAX_INVALIDATION_PAYLOAD_SIZE)) {
+						this.jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, KeyValueCache.INVALIDATION_CHANNEL, payload.toString());
+						payload.setLength(0);
+						payloadSize = 0;
+					}
+					if (payload.length() > 0) {
+						payload.append(KeyValueCache.INVALIDATION_SEPARATOR);
+					}
+					payload.append(key);
+					payloadSize += keySize;
+				}
+				this.jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, KeyValueCache.INVALIDATION_CHANNEL, payload.toString());
+			}
+		}
+	}
+
+	/**
+	 * Invalidates a key (immediately and after the current transaction
+	 * completes). If enabled, other nodes are notified when the transaction
+	 * commits.
+	 *
+	 * @param key Key.
+	 */
+	public void invalidate(
+			final String key) {
+		this.invalidateAll(List.of(key));
+	}
+
+}
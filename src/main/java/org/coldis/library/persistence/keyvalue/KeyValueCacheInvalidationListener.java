@@ -0,0 +1,137 @@
+package org.coldis.library.persistence.keyvalue;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Key/value cache invalidation listener (evicts the keys changed by other nodes,
+ * using PostgreSQL <code>LISTEN</code>). A connection is kept by the listener.
+ */
+@Component
+@ConditionalOnClass(name = "org.postgresql.PGConnection")
+@ConditionalOnProperty(
+		name = "org.coldis.library.persistence.keyvalue.cache.notify.enabled",
+		havingValue = "true",
+		matchIfMissing = false
+)
+public class KeyValueCacheInvalidationListener {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(KeyValueCacheInvalidationListener.class);
+
+	/**
+	 * Data source.
+	 */
+	@Autowired
+	private DataSource dataSource;
+
+	/**
+	 * Key/value cache.
+	 */
+	@Autowired
+	private KeyValueCache cache;
+
+	/**
+	 * Maximum wait (in milliseconds) for notifications (before the connection is
+	 * checked again).
+	 */
+	@Value("${org.coldis.library.persistence.keyvalue.cache.notify.poll-timeout:1000}")
+	private Integer pollTimeout;
+
+	/**
+	 * Listener thread.
+	 */
+	private Thread listenerThread;
+
+	/**
+	 * If the listener is running.
+	 */
+	private volatile boolean running;
+
+	/**
+	 * Listens to the invalidations until the listener is stopped (or the
+	 * connection fails).
+	 *
+	 * @throws Exception If the invalidations cannot be received.
+	 */
+	private void listen() throws Exception {
+		try (Connection connection = this.dataSource.getConnection()) {
+			connection.setAutoCommit(true);
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("LISTEN " + KeyValueCache.INVALIDATION_CHANNEL);
+			}
+			// Invalidations might have been missed while the listener was not connected.
+			this.cache.clear();
+			final PGConnection pgConnection = connection.unwrap(PGConnection.class);
+			while (this.running) {
+				final PGNotification[] notifications = pgConnection.getNotifications(this.pollTimeout);
+				if (notifications != null) {
+					for (final PGNotification notification : notifications) {
+						for (final String key : notification.getParameter().split(KeyValueCache.INVALIDATION_SEPARATOR)) {
+							this.cache.evict(key);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Starts the listener.
+	 */
+	@PostConstruct
+	public void start() {
+		this.running = true;
+		this.listenerThread = new Thread(() -> {
+			while (this.running) {
+				try {
+					this.listen();
+				}
+				// If the invalidations cannot be received.
+				catch (final Exception exception) {
+					KeyValueCacheInvalidationListener.LOGGER.error("Could not listen to key/value invalidations: " + exception.getClass().getName() + " - "
+							+ exception.getLocalizedMessage());
+					KeyValueCacheInvalidationListener.LOGGER.debug("Could not listen to key/value invalidations.", exception);
+					try {
+						Thread.sleep(this.pollTimeout);
+					}
+					catch (final InterruptedException interruptedException) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+			}
+		}, "key-value-cache-invalidation");
+		this.listenerThread.setDaemon(true);
+		this.listenerThread.start();
+	}
+
+	/**
+	 * Stops the listener.
+	 */
+	@PreDestroy
+	public void stop() {
+		this.running = false;
+		if (this.listenerThread != null) {
+			this.listenerThread.interrupt();
+		}
+	}
+
+}
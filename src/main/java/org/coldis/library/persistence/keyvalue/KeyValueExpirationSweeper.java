@@ -0,0 +1,116 @@
+package org.coldis.library.persistence.keyvalue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Key/value expiration sweeper (deletes expired entries in bounded batches,
+ * each in its own transaction).
+ */
+@Component
+@ConditionalOnProperty(
+		name = "org.coldis.library.persistence.keyvalue.sweeper.enabled",
+		havingValue = "true",
+		matchIfMissing = false
+)
+public class KeyValueExpirationSweeper {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(KeyValueExpirationSweeper.class);
+
+	/**
+	 * Key/value service.
+	 */
+	@Autowired
+	private KeyValueService keyValueService;
+
+	/**
+	 * Maximum number of entries deleted per transaction.
+	 */
+	@Value("${org.coldis.library.persistence.keyvalue.sweeper.batch-size:1000}")
+	private Integer batchSize;
+
+	/**
+	 * Sweep interval (in milliseconds) when there are no more expired entries.
+	 */
+	@Value("${org.coldis.library.persistence.keyvalue.sweeper.interval:60000}")
+	private Long interval;
+
+	/**
+	 * Sweeper thread.
+	 */
+	private Thread sweeperThread;
+
+	/**
+	 * If the sweeper is running.
+	 */
+	private volatile boolean running;
+
+	/**
+	 * Deletes the expired entries (until there are no more expired entries).
+	 *
+	 * @return The number of deleted entries.
+	 */
+	public long sweep() {
+		long deleted = 0;
+		int batchDeleted;
+		do {
+			batchDeleted = this.keyValueService.deleteExpired(this.batchSize);
+			deleted += batchDeleted;
+		}
+		while (this.running && (batchDeleted >= this.batchSize));
+		return deleted;
+	}
+
+	/**
+	 * Starts the sweeper.
+	 */
+	@PostConstruct
+	public void start() {
+		this.running = true;
+		this.sweeperThread = new Thread(() -> {
+			while (this.running) {
+				try {
+					this.sweep();
+				}
+				// If the entries cannot be deleted.
+				catch (final Exception exception) {
+					KeyValueExpirationSweeper.LOGGER.error("Could not delete expired key/values: " + exception.getClass().getName() + " - "
+							+ exception.getLocalizedMessage());
+					KeyValueExpirationSweeper.LOGGER.debug("Could not delete expired key/values.", exception);
+				}
+				// Waits for the next sweep.
+				try {
+					Thread.sleep(this.interval);
+				}
+				catch (final InterruptedException exception) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}, "key-value-expiration-sweeper");
+		this.sweeperThread.setDaemon(true);
+		this.sweeperThread.start();
+	}
+
+	/**
+	 * Stops the sweeper.
+	 */
+	@PreDestroy
+	public void stop() {
+		this.running = false;
+		if (this.sweeperThread != null) {
+			this.sweeperThread.interrupt();
+		}
+	}
+
+}
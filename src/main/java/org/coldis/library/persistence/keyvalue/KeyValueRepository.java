@@ -1,12 +1,17 @@
 package org.coldis.library.persistence.keyvalue;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.coldis.library.model.Typable;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
@@ -28,6 +33,11 @@ import jakarta.persistence.QueryHint;
 )
 public interface KeyValueRepository<ValueType extends Typable> extends JpaRepository<KeyValue<ValueType>, String> {
 
+	/**
+	 * Fetch size used when streaming key/values.
+	 */
+	String STREAM_FETCH_SIZE = "500";
+
 	/**
 	 * Finds a key/value.
 	 *
@@ -95,4 +105,158 @@ public interface KeyValueRepository<ValueType extends Typable> extends JpaReposi
 	List<KeyValue<ValueType>> findByKeyStartsWith(
 			String key);
 
+	/**
+	 * Finds the next key/values page for key starting with (ordered by key) after
+	 * the given cursor (the last key of the previous page). The first page uses an
+	 * empty cursor. The key start bound lets the scan start at the prefix. Expired
+	 * key/values are skipped.
+	 *
+	 * @param  keyPattern Key pattern (escaped key start followed by
+	 *                        <code>%</code>).
+	 * @param  keyStart   Key start.
+	 * @param  afterKey   Last key of the previous page.
+	 * @param  now        Current date/time.
+	 * @param  page       Page (only the size is used).
+	 * @return            The next key/values page.
+	 */
+	@Query("SELECT keyValue FROM KeyValue keyValue WHERE keyValue.key LIKE :keyPattern ESCAPE '\\' AND keyValue.key >= :keyStart "
+			+ "AND keyValue.key > :afterKey AND (keyValue.expiresAt IS NULL OR keyValue.expiresAt > :now) ORDER BY keyValue.key")
+	List<KeyValue<ValueType>> findNextByKeyStart(
+			@Param("keyPattern")
+			String keyPattern,
+			@Param("keyStart")
+			String keyStart,
+			@Param("afterKey")
+			String afterKey,
+			@Param("now")
+			LocalDateTime now,
+			Pageable page);
+
+	/**
+	 * Finds the next keys page for key starting with (ordered by key) after the
+	 * given cursor (the last key of the previous page), without loading values.
+	 * The first page uses an empty cursor. Expired key/values are skipped.
+	 *
+	 * @param  keyPattern Key pattern (escaped key start followed by
+	 *                        <code>%</code>).
+	 * @param  keyStart   Key start.
+	 * @param  afterKey   Last key of the previous page.
+	 * @param  now        Current date/time.
+	 * @param  page       Page (only the size is used).
+	 * @return            The next keys page.
+	 */
+	@Query("SELECT keyValue.key FROM KeyValue keyValue WHERE keyValue.key LIKE :keyPattern ESCAPE '\\' AND keyValue.key >= :keyStart "
+			+ "AND keyValue.key > :afterKey AND (keyValue.expiresAt IS NULL OR keyValue.expiresAt > :now) ORDER BY keyValue.key")
+	List<String> findNextKeysByKeyStart(
+			@Param("keyPattern")
+			String keyPattern,
+			@Param("keyStart")
+			String keyStart,
+			@Param("afterKey")
+			String afterKey,
+			@Param("now")
+			LocalDateTime now,
+			Pageable page);
+
+	/**
+	 * Streams the key/values for key starting with (ordered by key). The stream
+	 * must be consumed within a transaction and closed. Expired key/values are
+	 * skipped.
+	 *
+	 * @param  keyPattern Key pattern (escaped key start followed by
+	 *                        <code>%</code>).
+	 * @param  keyStart   Key start.
+	 * @param  now        Current date/time.
+	 * @return            The key/values for key starting with.
+	 */
+	@QueryHints(
+			value = { @QueryHint(
+					name = "org.hibernate.fetchSize",
+					value = STREAM_FETCH_SIZE
+			), @QueryHint(
+					name = "org.hibernate.readOnly",
+					value = "true"
+			) }
+	)
+	@Query("SELECT keyValue FROM KeyValue keyValue WHERE keyValue.key LIKE :keyPattern ESCAPE '\\' AND keyValue.key >= :keyStart "
+			+ "AND (keyValue.expiresAt IS NULL OR keyValue.expiresAt > :now) ORDER BY keyValue.key")
+	Stream<KeyValue<ValueType>> streamByKeyStart(
+			@Param("keyPattern")
+			String keyPattern,
+			@Param("keyStart")
+			String keyStart,
+			@Param("now")
+			LocalDateTime now);
+
+	/**
+	 * Finds key/values.
+	 *
+	 * @param  keys The keys.
+	 * @return      The key/values (ordered by key).
+	 */
+	@Query("SELECT keyValue FROM KeyValue keyValue WHERE keyValue.key IN :keys ORDER BY keyValue.key")
+	List<KeyValue<ValueType>> findAllByKeys(
+			@Param("keys")
+			Collection<String> keys);
+
+	/**
+	 * Finds key/values for update (locked in key order, to avoid deadlocks).
+	 *
+	 * @param  keys The keys.
+	 * @return      The key/values (ordered by key).
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT keyValue FROM KeyValue keyValue WHERE keyValue.key IN :keys ORDER BY keyValue.key")
+	List<KeyValue<ValueType>> findAllByKeysForUpdate(
+			@Param("keys")
+			Collection<String> keys);
+
+	/**
+	 * Finds key/values for update (locked in key order, skipping the locked ones).
+	 *
+	 * @param  keys The keys.
+	 * @return      The key/values (ordered by key).
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(
+			value = { @QueryHint(
+					name = "jakarta.persistence.lock.timeout",
+					value = "-2"
+			) }
+	)
+	@Query("SELECT keyValue FROM KeyValue keyValue WHERE keyValue.key IN :keys ORDER BY keyValue.key")
+	List<KeyValue<ValueType>> findAllByKeysForUpdateSkipLocked(
+			@Param("keys")
+			Collection<String> keys);
+
+	/**
+	 * Finds key/values for update (locked in key order, failing if any is locked).
+	 *
+	 * @param  keys The keys.
+	 * @return      The key/values (ordered by key).
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(
+			value = { @QueryHint(
+					name = "jakarta.persistence.lock.timeout",
+					value = "0"
+			) }
+	)
+	@Query("SELECT keyValue FROM KeyValue keyValue WHERE keyValue.key IN :keys ORDER BY keyValue.key")
+	List<KeyValue<ValueType>> findAllByKeysForUpdateFailFast(
+			@Param("keys")
+			Collection<String> keys);
+
+	/**
+	 * Deletes key/values (in a single statement).
+	 *
+	 * @param  keys The keys.
+	 * @return      The number of deleted key/values.
+	 */
+	@Modifying
+	@Query("DELETE FROM KeyValue keyValue WHERE keyValue.key IN :keys")
+	int deleteAllByKeys(
+			@Param("keys")
+			Collection<String> keys);
+
 }
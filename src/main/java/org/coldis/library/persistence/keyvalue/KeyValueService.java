@@ -1,18 +1,49 @@
 package org.coldis.library.persistence.keyvalue;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 import org.coldis.library.exception.BusinessException;
+import org.coldis.library.exception.IntegrationException;
+import org.coldis.library.helper.DateTimeHelper;
 import org.coldis.library.model.SimpleMessage;
 import org.coldis.library.model.Typable;
 import org.coldis.library.persistence.LockBehavior;
+import org.coldis.library.persistence.converter.TypableJsonConverter;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlParameterValue;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
 
 /**
  * Key/value service.
@@ -25,12 +56,294 @@ public class KeyValueService {
 	 */
 	private static final Logger LOGGER = LoggerFactory.getLogger(KeyValueService.class);
 
+	/**
+	 * Value converter.
+	 */
+	private static final TypableJsonConverter VALUE_CONVERTER = new TypableJsonConverter();
+
 	/**
 	 * Repository.
 	 */
 	@Autowired
 	private KeyValueRepository<Typable> repository;
 
+	/**
+	 * Near cache.
+	 */
+	@Autowired
+	private KeyValueCache cache;
+
+	/**
+	 * JDBC template.
+	 */
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Entity manager factory (used to get the key/value table and column names).
+	 */
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * Entity manager.
+	 */
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Transaction manager.
+	 */
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/**
+	 * If the key prefix index should be created on start up.
+	 */
+	@Value("${org.coldis.library.persistence.keyvalue.prefix-index.enabled:false}")
+	private Boolean prefixIndexEnabled;
+
+	/**
+	 * If the expiration column (and index) should be added on start up (if
+	 * disabled, start up fails when the column is missing).
+	 */
+	@Value("${org.coldis.library.persistence.keyvalue.expiration-column.enabled:true}")
+	private Boolean expirationColumnEnabled;
+
+	/**
+	 * Key/value persister.
+	 */
+	private AbstractEntityPersister persister;
+
+	/**
+	 * New transaction template.
+	 */
+	private TransactionTemplate newTransactionTemplate;
+
+	/**
+	 * Upsert statement (parameters are key, value, created at, updated at and
+	 * expires at).
+	 */
+	private String upsertStatement;
+
+	/**
+	 * Upsert statement returning the creation date (parameters are key, value,
+	 * created at, updated at and expires at).
+	 */
+	private String upsertReturningStatement;
+
+	/**
+	 * Insert if absent statement (parameters are key, value, created at, updated
+	 * at and expires at).
+	 */
+	private String insertIfAbsentStatement;
+
+	/**
+	 * Lock statement, creating the entry if absent and locking it (parameters are
+	 * key, value, created at, updated at and expires at).
+	 */
+	private String lockStatement;
+
+	/**
+	 * Update statement returning the creation and expiration dates, for entries
+	 * not expired (parameters are value, updated at, key and the current
+	 * date/time).
+	 */
+	private String updateReturningStatement;
+
+	/**
+	 * Key prefix index statement.
+	 */
+	private String prefixIndexStatement;
+
+	/**
+	 * Expiration column (and index) statements.
+	 */
+	private List<String> expirationColumnStatements;
+
+	/**
+	 * Expired entries delete statement (parameters are the current date/time and
+	 * the maximum number of entries).
+	 */
+	private String deleteExpiredStatement;
+
+	/**
+	 * Creation date row mapper.
+	 */
+	private static final RowMapper<LocalDateTime> CREATED_AT_MAPPER = (
+			row,
+			rowNumber) -> row.getTimestamp(1).toLocalDateTime();
+
+	/**
+	 * Initializes the statements (with the key/value table and column names).
+	 */
+	@PostConstruct
+	public void init() {
+		this.persister = (AbstractEntityPersister) this.entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+				.getEntityDescriptor(KeyValue.class);
+		final String table = this.persister.getTableName();
+		final String keyColumn = this.persister.getIdentifierColumnNames()[0];
+		final String valueColumn = this.persister.getPropertyColumnNames("internalValue")[0];
+		final String createdAtColumn = this.persister.getPropertyColumnNames("createdAt")[0];
+		final String updatedAtColumn = this.persister.getPropertyColumnNames("updatedAt")[0];
+		final String expiresAtColumn = this.persister.getPropertyColumnNames("expiresAt")[0];
+		final String insertStatement = "INSERT INTO " + table + " (" + keyColumn + ", " + valueColumn + ", " + createdAtColumn + ", " + updatedAtColumn + ", "
+				+ expiresAtColumn + ") VALUES (?, ?, ?, ?, ?) ON CONFLICT (" + keyColumn + ") DO ";
+		this.upsertStatement = insertStatement + "UPDATE SET " + valueColumn + " = EXCLUDED." + valueColumn + ", " + updatedAtColumn + " = EXCLUDED."
+				+ updatedAtColumn + ", " + expiresAtColumn + " = EXCLUDED." + expiresAtColumn;
+		this.upsertReturningStatement = this.upsertStatement + " RETURNING " + createdAtColumn;
+		this.insertIfAbsentStatement = insertStatement + "NOTHING";
+		this.lockStatement = insertStatement + "UPDATE SET " + keyColumn + " = EXCLUDED." + keyColumn + " RETURNING " + valueColumn + ", "
+				+ createdAtColumn + ", " + updatedAtColumn + ", " + expiresAtColumn;
+		this.updateReturningStatement = "UPDATE " + table + " SET " + valueColumn + " = ?, " + updatedAtColumn + " = ? WHERE " + keyColumn + " = ? AND ("
+				+ expiresAtColumn + " IS NULL OR " + expiresAtColumn + " > ?) RETURNING " + createdAtColumn + ", " + expiresAtColumn;
+		this.deleteExpiredStatement = "DELETE FROM " + table + " WHERE " + keyColumn + " IN (SELECT " + keyColumn + " FROM " + table + " WHERE "
+				+ expiresAtColumn + " <= ? LIMIT ? FOR UPDATE SKIP LOCKED)";
+		this.newTransactionTemplate = new TransactionTemplate(this.transactionManager);
+		this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.prefixIndexStatement = "CREATE INDEX CONCURRENTLY IF NOT EXISTS " + table.substring(table.lastIndexOf('.') + 1) + "_key_prefix_idx ON " + table
+				+ " (" + keyColumn + " text_pattern_ops)";
+		this.expirationColumnStatements = List.of(
+				"ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS " + expiresAtColumn + " TIMESTAMPTZ",
+				"CREATE INDEX CONCURRENTLY IF NOT EXISTS " + KeyValue.EXPIRES_AT_INDEX + " ON " + table + " (" + expiresAtColumn + ")");
+		// Adds the expiration column, if enabled.
+		if (this.expirationColumnEnabled) {
+			this.expirationColumnStatements.forEach(this.jdbcTemplate::execute);
+		}
+		// Otherwise, makes sure the column exists (or every key/value query fails).
+		else if (this.jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM information_schema.columns WHERE LOWER(table_name) = LOWER(?) AND LOWER(column_name) = LOWER(?)", Long.class,
+				table.substring(table.lastIndexOf('.') + 1), expiresAtColumn) == 0) {
+			KeyValueService.LOGGER.error("Key/value expiration column '" + expiresAtColumn + "' is missing from table '" + table
+					+ "': run the statements from KeyValueService.getExpirationColumnStatements() or enable 'org.coldis.library.persistence.keyvalue.expiration-column.enabled'.");
+			throw new IntegrationException(new SimpleMessage("keyValue.expiration.column.missing"));
+		}
+		// Creates the key prefix index, if enabled.
+		if (this.prefixIndexEnabled) {
+			this.jdbcTemplate.execute(this.prefixIndexStatement);
+		}
+	}
+
+	/**
+	 * Gets the expiration column (and index) statements. Tables created before
+	 * entries could expire must have the column added (on start up, unless
+	 * <code>org.coldis.library.persistence.keyvalue.expiration-column.enabled</code>
+	 * is disabled, in which case migrations must add it). The index is created
+	 * concurrently (a failed build leaves an invalid index that must be dropped).
+	 *
+	 * @return The expiration column (and index) statements.
+	 */
+	public List<String> getExpirationColumnStatements() {
+		return this.expirationColumnStatements;
+	}
+
+	/**
+	 * Gets the key prefix index statement. Key prefix scans (<code>LIKE</code>)
+	 * cannot use the primary key index unless the database collation is
+	 * <code>C</code>, so this index should be added (by migrations or by enabling
+	 * <code>org.coldis.library.persistence.keyvalue.prefix-index.enabled</code>)
+	 * when prefix scans are used on large tables. The index is created
+	 * concurrently (a failed build leaves an invalid index that must be dropped).
+	 *
+	 * @return The key prefix index statement.
+	 */
+	public String getPrefixIndexStatement() {
+		return this.prefixIndexStatement;
+	}
+
+	/**
+	 * Gets the key pattern for a key start (escaping <code>LIKE</code> wildcards).
+	 *
+	 * @param  keyStart Key start.
+	 * @return          The key pattern.
+	 */
+	private static String getKeyPattern(
+			final String keyStart) {
+		return keyStart.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+	}
+
+	/**
+	 * Gets the value JSON.
+	 *
+	 * @param  value Value.
+	 * @return       The value JSON (or <code>null</code>).
+	 */
+	private static String getValueJson(
+			final Typable value) {
+		return (value == null ? null : new String(KeyValueService.VALUE_CONVERTER.convertToDatabaseBytes(value), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Creates a (detached) key entry.
+	 *
+	 * @param  key       Key.
+	 * @param  value     Value.
+	 * @param  createdAt Creation date.
+	 * @param  updatedAt Update date.
+	 * @param  expiresAt When the entry expires.
+	 * @return           The key entry.
+	 */
+	private static KeyValue<Typable> createKeyValue(
+			final String key,
+			final Typable value,
+			final LocalDateTime createdAt,
+			final LocalDateTime updatedAt,
+			final LocalDateTime expiresAt) {
+		final KeyValue<Typable> keyValue = new KeyValue<>(key, value);
+		keyValue.setCreatedAt(createdAt);
+		keyValue.setUpdatedAt(updatedAt);
+		keyValue.setExpiresAt(expiresAt);
+		return keyValue;
+	}
+
+	/**
+	 * Converts a timestamp to a local date/time.
+	 *
+	 * @param  timestamp Timestamp.
+	 * @return           The local date/time (or <code>null</code>).
+	 */
+	private static LocalDateTime toLocalDateTime(
+			final Timestamp timestamp) {
+		return (timestamp == null ? null : timestamp.toLocalDateTime());
+	}
+
+	/**
+	 * Gets the key entry managed by the current persistence context (if any).
+	 *
+	 * @param  key Key.
+	 * @return     The managed key entry (or <code>null</code>).
+	 */
+	@SuppressWarnings("unchecked")
+	private KeyValue<Typable> getManaged(
+			final String key) {
+		final SessionImplementor session = this.entityManager.unwrap(SessionImplementor.class);
+		return (KeyValue<Typable>) session.getPersistenceContextInternal().getEntity(session.generateEntityKey(key, this.persister));
+	}
+
+	/**
+	 * Sets the upsert statement parameters.
+	 *
+	 * @param  statement    Statement.
+	 * @param  key          Key.
+	 * @param  value        Value.
+	 * @param  now          Current date/time.
+	 * @param  expiresAt    When the entry expires.
+	 * @throws SQLException If the parameters cannot be set.
+	 */
+	private void setUpsertParameters(
+			final PreparedStatement statement,
+			final String key,
+			final Typable value,
+			final LocalDateTime now,
+			final LocalDateTime expiresAt) throws SQLException {
+		statement.setString(1, key);
+		// Binds the value as an untyped parameter (so the database casts it to JSON).
+		statement.setObject(2, KeyValueService.getValueJson(value), Types.OTHER);
+		statement.setObject(3, now);
+		statement.setObject(4, now);
+		statement.setObject(5, expiresAt);
+	}
+
 	/**
 	 * Gets the repository.
 	 *
@@ -41,7 +354,23 @@ public class KeyValueService {
 	}
 
 	/**
-	 * Finds a key entry.
+	 * Finds a key entry (even if expired).
+	 *
+	 * @param  key  The key.
+	 * @param  lock If the object should be clocked.
+	 * @return      The entry (or <code>null</code>).
+	 */
+	private KeyValue<Typable> find(
+			final String key,
+			final LockBehavior lock) {
+		return (LockBehavior.WAIT_AND_LOCK.equals(lock) ? this.repository.findByIdForUpdate(key).orElse(null)
+				: LockBehavior.LOCK_FAIL_FAST.equals(lock) ? this.repository.findByIdForUpdateFailFast(key).orElse(null)
+						: LockBehavior.LOCK_SKIP.equals(lock) ? this.repository.findByIdForUpdateSkipLocked(key).orElse(null)
+								: this.repository.findById(key).orElse(null));
+	}
+
+	/**
+	 * Finds a key entry (expired entries are not found).
 	 *
 	 * @param  key               The key.
 	 * @param  lock              If the object should be clocked.
@@ -53,10 +382,8 @@ public class KeyValueService {
 			final LockBehavior lock,
 			final Boolean ignoreNotFound) throws BusinessException {
 		// Tries to find the keyValue.
-		final KeyValue<Typable> keyValue = (LockBehavior.WAIT_AND_LOCK.equals(lock) ? this.repository.findByIdForUpdate(key).orElse(null)
-				: LockBehavior.LOCK_FAIL_FAST.equals(lock) ? this.repository.findByIdForUpdateFailFast(key).orElse(null)
-						: LockBehavior.LOCK_SKIP.equals(lock) ? this.repository.findByIdForUpdateSkipLocked(key).orElse(null)
-								: this.repository.findById(key).orElse(null));
+		KeyValue<Typable> keyValue = this.find(key, lock);
+		keyValue = (((keyValue != null) && keyValue.isExpiredAt(DateTimeHelper.getCurrentLocalDateTime())) ? null : keyValue);
 		// If no keyValue is found.
 		if (!ignoreNotFound && (keyValue == null)) {
 			// Throws a not found exception.
@@ -67,7 +394,8 @@ public class KeyValueService {
 	}
 
 	/**
-	 * Finds a key entry.
+	 * Finds a key entry (from the near cache, if enabled, in which case the value
+	 * is shared between reads and must not be changed).
 	 *
 	 * @param  key               The key.
 	 * @return                   The entry.
@@ -79,7 +407,20 @@ public class KeyValueService {
 	)
 	public KeyValue<Typable> findById(
 			final String key) throws BusinessException {
-		return this.findById(key, LockBehavior.NO_LOCK, false);
+		// Tries to get the entry from the cache.
+		KeyValue<Typable> keyValue = this.cache.get(key);
+		// If the cached entry has expired.
+		if ((keyValue != null) && keyValue.isExpiredAt(DateTimeHelper.getCurrentLocalDateTime())) {
+			this.cache.evict(key);
+			throw new BusinessException(new SimpleMessage("keyValue.notfound"));
+		}
+		// If the entry is not cached, finds and caches it.
+		if (keyValue == null) {
+			final long version = this.cache.getVersion(key);
+			keyValue = this.findById(key, LockBehavior.NO_LOCK, false);
+			this.cache.put(key, keyValue, version);
+		}
+		return keyValue;
 	}
 
 	/**
@@ -95,11 +436,176 @@ public class KeyValueService {
 	)
 	public List<KeyValue<Typable>> findByKeyStart(
 			final String keyStart) throws BusinessException {
-		return this.repository.findByKeyStartsWith(keyStart);
+		final LocalDateTime now = DateTimeHelper.getCurrentLocalDateTime();
+		return this.repository.findByKeyStartsWith(keyStart).stream().filter((
+				keyValue) -> !keyValue.isExpiredAt(now)).toList();
 	}
 
 	/**
-	 * Creates a key entry.
+	 * Finds the next page of key entries starting with the given key (ordered by
+	 * key).
+	 *
+	 * @param  keyStart Key start.
+	 * @param  afterKey Last key of the previous page (or <code>null</code> for the
+	 *                      first page).
+	 * @param  size     Page size.
+	 * @return          The next page of entries.
+	 */
+	@Transactional(
+			propagation = Propagation.NOT_SUPPORTED,
+			readOnly = true
+	)
+	public List<KeyValue<Typable>> findByKeyStart(
+			final String keyStart,
+			final String afterKey,
+			final Integer size) {
+		return this.repository.findNextByKeyStart(KeyValueService.getKeyPattern(keyStart), keyStart, (afterKey == null ? "" : afterKey),
+				DateTimeHelper.getCurrentLocalDateTime(), PageRequest.ofSize(size));
+	}
+
+	/**
+	 * Finds the next page of keys starting with the given key (ordered by key),
+	 * without loading the values.
+	 *
+	 * @param  keyStart Key start.
+	 * @param  afterKey Last key of the previous page (or <code>null</code> for the
+	 *                      first page).
+	 * @param  size     Page size.
+	 * @return          The next page of keys.
+	 */
+	@Transactional(
+			propagation = Propagation.NOT_SUPPORTED,
+			readOnly = true
+	)
+	public List<String> findKeysByKeyStart(
+			final String keyStart,
+			final String afterKey,
+			final Integer size) {
+		return this.repository.findNextKeysByKeyStart(KeyValueService.getKeyPattern(keyStart), keyStart, (afterKey == null ? "" : afterKey),
+				DateTimeHelper.getCurrentLocalDateTime(), PageRequest.ofSize(size));
+	}
+
+	/**
+	 * Streams the key entries starting with the given key (ordered by key). The
+	 * stream must be consumed within the caller transaction and closed.
+	 *
+	 * @param  keyStart Key start.
+	 * @return          The entries.
+	 */
+	@Transactional(
+			propagation = Propagation.MANDATORY,
+			readOnly = true
+	)
+	public Stream<KeyValue<Typable>> streamByKeyStart(
+			final String keyStart) {
+		return this.repository.streamByKeyStart(KeyValueService.getKeyPattern(keyStart), keyStart, DateTimeHelper.getCurrentLocalDateTime());
+	}
+
+	/**
+	 * Finds key entries (in a single query, ordered by key so locks are taken in
+	 * the same order).
+	 *
+	 * @param  keys The keys.
+	 * @param  lock Lock behavior.
+	 * @return      The entries found (expired entries are not returned).
+	 */
+	public List<KeyValue<Typable>> findAllByIds(
+			final Collection<String> keys,
+			final LockBehavior lock) {
+		final LocalDateTime now = DateTimeHelper.getCurrentLocalDateTime();
+		return (keys.isEmpty() ? List.<KeyValue<Typable>>of()
+				: LockBehavior.WAIT_AND_LOCK.equals(lock) ? this.repository.findAllByKeysForUpdate(keys)
+						: LockBehavior.LOCK_FAIL_FAST.equals(lock) ? this.repository.findAllByKeysForUpdateFailFast(keys)
+								: LockBehavior.LOCK_SKIP.equals(lock) ? this.repository.findAllByKeysForUpdateSkipLocked(keys)
+										: this.repository.findAllByKeys(keys)).stream().filter((
+												keyValue) -> !keyValue.isExpiredAt(now)).toList();
+	}
+
+	/**
+	 * Finds key entries (in a single query).
+	 *
+	 * @param  keys The keys.
+	 * @return      The entries found (ordered by key).
+	 */
+	@Transactional(
+			propagation = Propagation.NOT_SUPPORTED,
+			readOnly = true
+	)
+	public List<KeyValue<Typable>> findAllByIds(
+			final Collection<String> keys) {
+		return this.findAllByIds(keys, LockBehavior.NO_LOCK);
+	}
+
+	/**
+	 * Creates or updates key entries (in a single JDBC batch, in key order). Key
+	 * entries already loaded in the current transaction are not refreshed.
+	 *
+	 * @param values    The values by key.
+	 * @param expiresAt When the entries expire (<code>null</code> if they do not
+	 *                      expire).
+	 */
+	@Transactional(propagation = Propagation.REQUIRED)
+	public void putAll(
+			final Map<String, ? extends Typable> values,
+			final LocalDateTime expiresAt) {
+		if (!values.isEmpty()) {
+			final List<Map.Entry<String, ? extends Typable>> entries = new ArrayList<>(new TreeMap<>(values).entrySet());
+			this.cache.invalidateAll(entries.stream().map(Map.Entry::getKey).toList());
+			final LocalDateTime now = DateTimeHelper.getCurrentLocalDateTime();
+			this.jdbcTemplate.batchUpdate(this.upsertStatement, new BatchPreparedStatementSetter() {
+
+				@Override
+				public void setValues(
+						final PreparedStatement statement,
+						final int index) throws SQLException {
+					KeyValueService.this.setUpsertParameters(statement, entries.get(index).getKey(), entries.get(index).getValue(), now,
+							expiresAt);
+				}
+
+				@Override
+				public int getBatchSize() {
+					return entries.size();
+				}
+
+			});
+		}
+	}
+
+	/**
+	 * Creates or updates key entries (in a single JDBC batch, in key order). Key
+	 * entries already loaded in the current transaction are not refreshed.
+	 *
+	 * @param values The values by key.
+	 */
+	@Transactional(propagation = Propagation.REQUIRED)
+	public void putAll(
+			final Map<String, ? extends Typable> values) {
+		this.putAll(values, null);
+	}
+
+	/**
+	 * Creates (or replaces) a key entry (in a single statement).
+	 *
+	 * @param  key       The key.
+	 * @param  value     Value.
+	 * @param  expiresAt When the entry expires (<code>null</code> if it does not
+	 *                       expire).
+	 * @return           The created entry.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public KeyValue<Typable> create(
+			final String key,
+			final Typable value,
+			final LocalDateTime expiresAt) {
+		this.cache.invalidate(key);
+		final LocalDateTime now = DateTimeHelper.getCurrentLocalDateTime();
+		final List<LocalDateTime> createdAt = this.jdbcTemplate.query(this.upsertReturningStatement, (
+				statement) -> this.setUpsertParameters(statement, key, value, now, expiresAt), KeyValueService.CREATED_AT_MAPPER);
+		return KeyValueService.createKeyValue(key, value, createdAt.get(0), now, expiresAt);
+	}
+
+	/**
+	 * Creates (or replaces) a key entry (in a single statement).
 	 *
 	 * @param  key   The key.
 	 * @param  value Value.
@@ -109,7 +615,7 @@ public class KeyValueService {
 	public KeyValue<Typable> create(
 			final String key,
 			final Typable value) {
-		return this.repository.save(new KeyValue<>(key, value));
+		return this.create(key, value, null);
 	}
 
 	/**
@@ -124,9 +630,27 @@ public class KeyValueService {
 	public KeyValue<Typable> update(
 			final String key,
 			final Typable value) throws BusinessException {
-		final KeyValue<Typable> keyValue = this.findById(key, LockBehavior.WAIT_AND_LOCK, false);
-		keyValue.setValue(value);
-		return this.repository.save(keyValue);
+		this.cache.invalidate(key);
+		final LocalDateTime now = DateTimeHelper.getCurrentLocalDateTime();
+		// If the entry is managed by the current persistence context, updates it.
+		final KeyValue<Typable> managedKeyValue = this.getManaged(key);
+		if (managedKeyValue != null) {
+			if (managedKeyValue.isExpiredAt(now)) {
+				throw new BusinessException(new SimpleMessage("keyValue.notfound"));
+			}
+			managedKeyValue.setValue(value);
+			return this.repository.save(managedKeyValue);
+		}
+		// Otherwise, updates the entry (if not expired) in a single statement.
+		final List<KeyValue<Typable>> keyValue = this.jdbcTemplate.query(this.updateReturningStatement, (
+				row,
+				rowNumber) -> KeyValueService.createKeyValue(key, value, row.getTimestamp(1).toLocalDateTime(), now,
+						(row.getTimestamp(2) == null ? null : row.getTimestamp(2).toLocalDateTime())),
+				new SqlParameterValue(Types.OTHER, KeyValueService.getValueJson(value)), now, key, now);
+		if (keyValue.isEmpty()) {
+			throw new BusinessException(new SimpleMessage("keyValue.notfound"));
+		}
+		return keyValue.get(0);
 	}
 
 	/**
@@ -137,39 +661,89 @@ public class KeyValueService {
 	@Transactional(propagation = Propagation.REQUIRED)
 	public void delete(
 			final String key) {
+		this.cache.invalidate(key);
 		if (this.repository.existsById(key)) {
 			this.repository.deleteById(key);
 		}
 	}
 
 	/**
-	 * Locks a key.
+	 * Deletes key entries (in a single statement).
+	 *
+	 * @param  keys The keys.
+	 * @return      The number of deleted entries.
+	 */
+	@Transactional(propagation = Propagation.REQUIRED)
+	public int deleteAll(
+			final Collection<String> keys) {
+		if (keys.isEmpty()) {
+			return 0;
+		}
+		this.cache.invalidateAll(keys);
+		return this.repository.deleteAllByKeys(keys);
+	}
+
+	/**
+	 * Deletes expired key entries (in a single statement, skipping locked
+	 * entries, so multiple sweepers can run in parallel).
+	 *
+	 * @param  batchSize Maximum number of entries deleted.
+	 * @return           The number of deleted entries.
+	 */
+	@Transactional(propagation = Propagation.REQUIRED)
+	public int deleteExpired(
+			final Integer batchSize) {
+		return this.jdbcTemplate.update(this.deleteExpiredStatement, DateTimeHelper.getCurrentLocalDateTime(), batchSize);
+	}
+
+	/**
+	 * Locks a key. When waiting for the lock, the entry is created (if absent)
+	 * and locked in a single statement, within the current transaction (the
+	 * returned entry is detached, unless it was already managed by the current
+	 * persistence context). Otherwise, a missing entry is created in a new
+	 * transaction (so it can be locked by others as well) before being locked.
 	 *
 	 * @param  key               Key.
 	 * @return                   Returns the locked object.
 	 * @throws BusinessException If the key cannot be locked.
 	 */
-	@Transactional(
-			propagation = Propagation.REQUIRED,
-			noRollbackFor = DataIntegrityViolationException.class
-	)
+	@Transactional(propagation = Propagation.REQUIRED)
 	public KeyValue<Typable> lock(
 			final String key,
 			final LockBehavior lock) throws BusinessException {
-		// Tries to lock the entry.
-		KeyValue<Typable> entry = this.findById(key, lock, true);
+		// Tries to lock the entry (the locked entry might be changed).
+		this.cache.invalidate(key);
+		// If the lock waits, creates (if absent) and locks the entry in a single
+		// statement (unless the entry is managed by the current persistence context).
+		if (LockBehavior.WAIT_AND_LOCK.equals(lock) && (this.getManaged(key) == null)) {
+			final LocalDateTime now = DateTimeHelper.getCurrentLocalDateTime();
+			return this.jdbcTemplate.query(this.lockStatement, (
+					statement) -> this.setUpsertParameters(statement, key, null, now, null), (
+							row,
+							rowNumber) -> {
+						final InputStream value = row.getBinaryStream(1);
+						return KeyValueService.createKeyValue(key, (value == null ? null : KeyValueService.VALUE_CONVERTER.convertToEntityAttribute(value)),
+								KeyValueService.toLocalDateTime(row.getTimestamp(2)), KeyValueService.toLocalDateTime(row.getTimestamp(3)),
+								KeyValueService.toLocalDateTime(row.getTimestamp(4)));
+					}).get(0);
+		}
+		KeyValue<Typable> entry = this.find(key, lock);
 		// If there is no entry.
 		if (entry == null) {
-			// Tries creating the entry.
+			// Tries creating the entry, if absent (in a new transaction, so it can be
+			// locked by others as well).
 			try {
-				this.create(key, null);
+				final LocalDateTime now = DateTimeHelper.getCurrentLocalDateTime();
+				this.newTransactionTemplate.executeWithoutResult((
+						status) -> this.jdbcTemplate.update(this.insertIfAbsentStatement, (
+								statement) -> this.setUpsertParameters(statement, key, null, now, null)));
 			}
 			catch (final Exception exception) {
 				KeyValueService.LOGGER.warn("Could not create key: " + exception.getLocalizedMessage());
 				KeyValueService.LOGGER.debug("Could not create key.", exception);
 			}
 			// Locks the entry.
-			entry = this.findById(key, lock, true);
+			entry = this.find(key, lock);
 		}
 		// Returns the object.
 		return entry;
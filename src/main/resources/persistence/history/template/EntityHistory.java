@@ -1,29 +1,58 @@
 package ${historicalEntity.getEntityPackageName()};
 
+#if(${historicalEntity.getStateDelta()})
+import java.util.List;
+#end
 import java.util.Map;
 import java.util.Objects;
 
 import java.time.LocalDateTime;
 
 import jakarta.persistence.Column;
+#if(!${historicalEntity.getStatePassThrough()})
 import jakarta.persistence.Convert;
+#end
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+#if(${historicalEntity.getStatePassThrough()})
+import jakarta.persistence.Transient;
+#end
 
 import org.coldis.library.persistence.model.AbstractTimestampableEntity;
 import org.coldis.library.helper.DateTimeHelper;
-import org.coldis.library.persistence.converter.MapJsonConverter;
+import ${historicalEntity.getStateConverterQualifiedTypeName()};
+#if(${historicalEntity.getStatePassThrough()})
+import org.coldis.library.persistence.converter.LazyJsonUserType;
+import org.coldis.library.persistence.converter.LazyJsonValue;
+#end
+#if(${historicalEntity.getStateDelta()})
+import org.coldis.library.persistence.converter.ListJsonConverter;
+#end
 import org.coldis.library.persistence.history.EntityHistory;
+#if(${historicalEntity.getStatePassThrough()})
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.Type;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+#end
+#if(${historicalEntity.getPartitioned()})
+import org.coldis.library.persistence.history.EntityHistoryPartitioned;
+import org.coldis.library.persistence.history.EntityHistoryPartitioning;
+#end
 
 /**
  * JPA entity history for {@link ${historicalEntity.getOriginalEntityQualifiedTypeName()}}.
  */
 @Entity
-@Table(indexes = { @Index(columnList = "updatedAt") })
+#if(${historicalEntity.getPartitioned()})
+@EntityHistoryPartitioned(partitioning = EntityHistoryPartitioning.${historicalEntity.getPartitioning()}, retention = ${historicalEntity.getPartitionRetention()})
+#end
+@Table(indexes = { @Index(columnList = "updatedAt,id"), @Index(columnList = "u5er,updatedAt"), @Index(columnList = "entityId,updatedAt") })
 public class ${historicalEntity.getEntityTypeName()} extends AbstractTimestampableEntity
 		implements EntityHistory<Map<String, Object>> {
 
@@ -37,15 +66,44 @@ public class ${historicalEntity.getEntityTypeName()} extends AbstractTimestampab
 	 */
 	private Long id;
 	
+#if(${historicalEntity.getStatePassThrough()})
+	/**
+	 * State converter.
+	 */
+	private static final ${historicalEntity.getStateConverterTypeName()} STATE_CONVERTER = new ${historicalEntity.getStateConverterTypeName()}();
+
+	/**
+	 * Entity state (raw JSON, only parsed if accessed).
+	 */
+	private LazyJsonValue<Map<String, Object>> state;
+#else
 	/**
 	 * Entity state.
 	 */
 	private Map<String, Object> state;
+#end
 	
 	/**
 	 * User.
 	 */
 	private String user;
+
+	/**
+	 * Original entity identifier.
+	 */
+	private ${historicalEntity.getEntityIdTypeName()} entityId;
+#if(${historicalEntity.getStateDelta()})
+
+	/**
+	 * If the history holds the full entity state (keyframe), instead of a patch.
+	 */
+	private Boolean keyframe;
+
+	/**
+	 * JSON patch (RFC 6902) from the previous entity state.
+	 */
+	private List<Object> patch;
+#end
 	
 	/**
 	 * No arguments constructor.
@@ -61,9 +119,27 @@ public class ${historicalEntity.getEntityTypeName()} extends AbstractTimestampab
 	 */
 	public ${historicalEntity.getEntityTypeName()}(final Map<String, Object> state, final LocalDateTime createdAt) {
 		super();
+#if(${historicalEntity.getStatePassThrough()})
+		this.state = (state == null ? null : LazyJsonValue.of(STATE_CONVERTER, state));
+#else
 		this.state = state;
+#end
+		setCreatedAt(createdAt);
+	}
+#if(${historicalEntity.getStatePassThrough()})
+
+	/**
+	 * Raw entity state constructor.
+	 *
+	 * @param rawState New entity state (raw JSON).
+	 * @param createdAt When entity was created.
+	 */
+	public ${historicalEntity.getEntityTypeName()}(final byte[] rawState, final LocalDateTime createdAt) {
+		super();
+		this.state = (rawState == null ? null : LazyJsonValue.ofRawValue(STATE_CONVERTER, rawState));
 		setCreatedAt(createdAt);
 	}
+#end
 
 	/**
 	 * @see org.coldis.library.model.Identifiable${h}getId()
@@ -71,6 +147,7 @@ public class ${historicalEntity.getEntityTypeName()} extends AbstractTimestampab
 	@Id
 	@Override
 	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "${historicalEntity.getSequenceName()}")
+	@SequenceGenerator(name = "${historicalEntity.getSequenceName()}", sequenceName = "${historicalEntity.getSequenceName()}", allocationSize = ${historicalEntity.getSequenceAllocationSize()})
 	public Long getId() {
 		return id;
 	}
@@ -84,10 +161,51 @@ public class ${historicalEntity.getEntityTypeName()} extends AbstractTimestampab
 		this.id = id;
 	}
 
+#if(${historicalEntity.getStatePassThrough()})
+	/**
+	 * Gets the entity state (raw JSON, only parsed if accessed).
+	 *
+	 * @return The entity state (raw JSON).
+	 */
+	@JsonIgnore
+	@Column(name = "state", columnDefinition = "${historicalEntity.getStateColumnDefinition()}")
+	@Type(value = LazyJsonUserType.class, parameters = @Parameter(name = LazyJsonUserType.CONVERTER_PARAMETER, value = "${historicalEntity.getStateConverterQualifiedTypeName()}"))
+	protected LazyJsonValue<Map<String, Object>> getRawState() {
+		return state;
+	}
+
+	/**
+	 * Sets the entity state (raw JSON).
+	 *
+	 * @param state
+	 *            New entity state (raw JSON).
+	 */
+	protected void setRawState(final LazyJsonValue<Map<String, Object>> state) {
+		this.state = state;
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.history.EntityHistory${h}getState()
+	 */
+	@Transient
+	public Map<String, Object> getState() {
+		return (state == null ? null : state.get());
+	}
+
+	/**
+	 * Sets the entity state.
+	 *
+	 * @param state
+	 *            New entity state.
+	 */
+	protected void setState(final Map<String, Object> state) {
+		this.state = (state == null ? null : LazyJsonValue.of(STATE_CONVERTER, state));
+	}
+#else
 	/**
 	 * @see org.coldis.library.persistence.history.EntityHistory${h}getState()
 	 */
-	@Convert(converter = MapJsonConverter.class)
+	@Convert(converter = ${historicalEntity.getStateConverterTypeName()}.class)
 	@Column(columnDefinition = "${historicalEntity.getStateColumnDefinition()}")
 	public Map<String, Object> getState() {
 		return state;
@@ -102,6 +220,7 @@ public class ${historicalEntity.getEntityTypeName()} extends AbstractTimestampab
 	protected void setState(final Map<String, Object> state) {
 		this.state = state;
 	}
+#end
 	
 	/**
 	 * @see org.coldis.library.persistence.history.EntityHistory${h}getState()
@@ -120,13 +239,78 @@ public class ${historicalEntity.getEntityTypeName()} extends AbstractTimestampab
 	public void setUser(String user) {
 		this.user = user;
 	}
+
+	/**
+	 * Gets the original entity identifier.
+	 *
+	 * @return The original entity identifier.
+	 */
+	public ${historicalEntity.getEntityIdTypeName()} getEntityId() {
+		return entityId;
+	}
+
+	/**
+	 * Sets the original entity identifier.
+	 *
+	 * @param entityId
+	 *            New original entity identifier.
+	 */
+	public void setEntityId(final ${historicalEntity.getEntityIdTypeName()} entityId) {
+		this.entityId = entityId;
+	}
+#if(${historicalEntity.getStateDelta()})
+
+	/**
+	 * Gets if the history holds the full entity state (keyframe).
+	 *
+	 * @return If the history holds the full entity state (keyframe).
+	 */
+	public Boolean getKeyframe() {
+		return keyframe;
+	}
+
+	/**
+	 * Sets if the history holds the full entity state (keyframe).
+	 *
+	 * @param keyframe
+	 *            If the history holds the full entity state (keyframe).
+	 */
+	public void setKeyframe(final Boolean keyframe) {
+		this.keyframe = keyframe;
+	}
+
+	/**
+	 * Gets the JSON patch from the previous entity state.
+	 *
+	 * @return The JSON patch from the previous entity state.
+	 */
+	@Convert(converter = ListJsonConverter.class)
+	@Column(columnDefinition = "JSONB")
+	public List<Object> getPatch() {
+		return patch;
+	}
+
+	/**
+	 * Sets the JSON patch from the previous entity state.
+	 *
+	 * @param patch
+	 *            New JSON patch from the previous entity state.
+	 */
+	public void setPatch(final List<Object> patch) {
+		this.patch = patch;
+	}
+#end
 	
 	/**
 	 * @see java.lang.Object${h}hashCode()
 	 */
 	@Override
 	public int hashCode() {
-		return Objects.hash(this.id, this.state, this.user);
+#if(${historicalEntity.getStateDelta()})
+		return Objects.hash(this.id, this.state, this.user, this.entityId, this.keyframe, this.patch);
+#else
+		return Objects.hash(this.id, this.state, this.user, this.entityId);
+#end
 	}
 
 	/**
@@ -144,7 +328,13 @@ public class ${historicalEntity.getEntityTypeName()} extends AbstractTimestampab
 			return false;
 		}
 		final ${historicalEntity.getEntityTypeName()} other = (${historicalEntity.getEntityTypeName()}) obj;
-		return Objects.equals(this.id, other.id) && Objects.equals(this.state, other.state) && Objects.equals(this.user, other.user);
+#if(${historicalEntity.getStateDelta()})
+		return Objects.equals(this.id, other.id) && Objects.equals(this.state, other.state) && Objects.equals(this.user, other.user)
+				&& Objects.equals(this.entityId, other.entityId) && Objects.equals(this.keyframe, other.keyframe) && Objects.equals(this.patch, other.patch);
+#else
+		return Objects.equals(this.id, other.id) && Objects.equals(this.state, other.state) && Objects.equals(this.user, other.user)
+				&& Objects.equals(this.entityId, other.entityId);
+#end
 	}
 
 }
@@ -1,24 +1,50 @@
 package  ${historicalEntity.getServicePackageName()};
 
+#if(${historicalEntity.getStatePassThrough()})
+import java.nio.charset.StandardCharsets;
+#end
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
 
 import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 import org.coldis.library.exception.IntegrationException;
 import org.coldis.library.helper.DateTimeHelper;
 import org.coldis.library.model.SimpleMessage;
+#if(${historicalEntity.getOutbox()})
+import org.coldis.library.persistence.history.EntityHistoryOutboxHandler;
+#end
+import org.coldis.library.persistence.history.EntityHistoryUpdate;
 import org.coldis.library.serialization.ObjectMapperHelper;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+#if(${historicalEntity.getOutbox()})
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+#end
 import org.springframework.jms.annotation.JmsListener;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.SessionCallback;
+#if(${historicalEntity.getOutbox()})
+import org.springframework.stereotype.Component;
+#end
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -30,7 +56,11 @@ import ${historicalEntity.getRepositoryQualifiedTypeName()};
  * JPA entity history consumer service for {@link ${historicalEntity.getOriginalEntityQualifiedTypeName()}}.
  */
 @Controller
+#if(${historicalEntity.getOutbox()})
+public class ${historicalEntity.getConsumerServiceTypeName()} implements EntityHistoryOutboxHandler {
+#else
 public class ${historicalEntity.getConsumerServiceTypeName()} {
+#end
 
 	/**
 	 * Logger.
@@ -55,38 +85,315 @@ public class ${historicalEntity.getConsumerServiceTypeName()} {
 	@Autowired
 	private ${historicalEntity.getRepositoryTypeName()} repository;
 
+	/**
+	 * Entity manager.
+	 */
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * JMS template (used to drain extra messages in batch mode). It must use the
+	 * same connection factory as the listener container, so the extra messages
+	 * are received within the (transacted) listener session.
+	 */
+#if(${historicalEntity.getOutbox()})
+	@Autowired(required = false)
+#else
+	@Autowired
+#end
+	@Qualifier(value = "entityHistoryJmsTemplate")
+	private JmsTemplate jmsTemplate;
+
+	/**
+	 * Maximum number of messages handled in a single transaction. Extra messages
+	 * are only drained when the listener container session is transacted and
+	 * shared with the JMS template (same connection factory), so they are rolled
+	 * back with the listener message if the history cannot be saved. Otherwise,
+	 * messages are handled one by one.
+	 */
+	@Value("${${historicalEntity.getEntityQualifiedTypeName().toLowerCase()}.history-consumer-batch-size:1}")
+	private Integer batchSize;
+
+	/**
+	 * Number of messages received.
+	 */
+	private final AtomicLong receivedMessageCount = new AtomicLong();
+
+	/**
+	 * Number of batch messages received (with multiple updates).
+	 */
+	private final AtomicLong receivedBatchMessageCount = new AtomicLong();
+
+	/**
+	 * Number of entity history saves (each with one or more entity history).
+	 */
+	private final AtomicLong saveCount = new AtomicLong();
+
+	/**
+	 * Number of entity history saved.
+	 */
+	private final AtomicLong savedCount = new AtomicLong();
+
+	/**
+	 * Gets the number of messages received.
+	 * @return The number of messages received.
+	 */
+	public long getReceivedMessageCount() {
+		return this.receivedMessageCount.get();
+	}
+
+	/**
+	 * Gets the number of batch messages received (with multiple updates).
+	 * @return The number of batch messages received.
+	 */
+	public long getReceivedBatchMessageCount() {
+		return this.receivedBatchMessageCount.get();
+	}
+
+	/**
+	 * Gets the number of entity history saves (each with one or more entity history).
+	 * @return The number of entity history saves.
+	 */
+	public long getSaveCount() {
+		return this.saveCount.get();
+	}
+
+	/**
+	 * Gets the number of entity history saved.
+	 * @return The number of entity history saved.
+	 */
+	public long getSavedCount() {
+		return this.savedCount.get();
+	}
+
+	/**
+	 * Creates the entity history from an update.
+	 * @param content Update content (entity state or patch).
+	 * @param properties Update properties.
+	 * @param timestamp Update timestamp.
+	 * @return The entity history.
+	 */
+	@SuppressWarnings("unchecked")
+	private ${historicalEntity.getEntityTypeName()} createEntityHistory(final Object content, final Map<String, String> properties, final long timestamp) {
+#if(${historicalEntity.getStatePassThrough()})
+		// Keeps the raw entity state (a batch update holds the parsed state, as the
+		// batch is parsed as a whole, so it is not passed through).
+		${historicalEntity.getEntityTypeName()} entity = ((content instanceof String rawContent)
+				? new ${historicalEntity.getEntityTypeName()}(rawContent.getBytes(StandardCharsets.UTF_8), LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), TimeZone.getDefault().toZoneId()))
+				: new ${historicalEntity.getEntityTypeName()}((Map<String, Object>) content, LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), TimeZone.getDefault().toZoneId())));
+		entity.setEntityId(ObjectMapperHelper.convert(objectMapper, properties.get("entityId"), new TypeReference<${historicalEntity.getEntityIdTypeName()}>() {
+		}, false));
+		// Tries retrieve the update date from the update.
+		try {
+			LocalDateTime updatedAt = LocalDateTime.parse(properties.get("updatedAt"), DateTimeHelper.DATE_TIME_FORMATTER);
+#elseif(${historicalEntity.getStateDelta()})
+		// Converts the entity state (or patch) from the update.
+		final boolean keyframe = !"patch".equals(properties.get("historyType"));
+		${historicalEntity.getEntityTypeName()} entity = new ${historicalEntity.getEntityTypeName()}(keyframe ? (Map<String, Object>) content : null, LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), 
+                TimeZone.getDefault().toZoneId()));
+		if (!keyframe) {
+			entity.setPatch((List<Object>) content);
+		}
+		entity.setKeyframe(keyframe);
+		entity.setEntityId(ObjectMapperHelper.convert(objectMapper, properties.get("entityId"), new TypeReference<${historicalEntity.getEntityIdTypeName()}>() {
+		}, false));
+		// Tries retrieve the update date from the update.
+		try {
+			LocalDateTime updatedAt = LocalDateTime.parse(properties.get("updatedAt"), DateTimeHelper.DATE_TIME_FORMATTER);
+#else
+		// Converts the entity state to a map.
+		${historicalEntity.getEntityTypeName()} entity = new ${historicalEntity.getEntityTypeName()}((Map<String, Object>) content, LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), 
+                TimeZone.getDefault().toZoneId()));
+		entity.setEntityId(ObjectMapperHelper.convert(objectMapper, entity.getState().get("${historicalEntity.getEntityIdAttributeName()}"),
+				new TypeReference<${historicalEntity.getEntityIdTypeName()}>() {
+				}, false));
+		// Tries retrieve the update date from the entity.
+		try {
+			LocalDateTime updatedAt = LocalDateTime.parse(entity.getState().get("updatedAt").toString(), DateTimeHelper.DATE_TIME_FORMATTER);
+#end
+			entity.setUser(properties.get("user"));
+			entity.setCreatedAt(updatedAt);
+			entity.setUpdatedAt(updatedAt);
+		}
+		// If the entity update date cannot be retrieved.
+		catch (Exception exception) {
+			// Logs it.
+			${historicalEntity.getConsumerServiceTypeName()}.LOGGER.debug("'${historicalEntity.getEntityQualifiedTypeName()}' update date could not be retrieved."); 
+		}
+		return entity;
+	}
+
+	/**
+	 * Reads the update content (kept as raw JSON, if the state is passed through).
+	 * @param content Update content.
+	 * @return The update content.
+	 */
+	private Object readContent(final String content) {
+#if(${historicalEntity.getStatePassThrough()})
+		return content;
+#else
+		return ObjectMapperHelper.deserialize(objectMapper, content, new TypeReference<Object>() {
+		}, false);
+#end
+	}
+
+	/**
+	 * Adds the entity history from a message (with a single update or a batch of updates).
+	 * @param message Message.
+	 * @param entities Entity history list.
+	 * @throws Exception If the message cannot be read.
+	 */
+	@SuppressWarnings("unchecked")
+	private void addEntityHistory(final Message message, final List<${historicalEntity.getEntityTypeName()}> entities) throws Exception {
+		this.receivedMessageCount.incrementAndGet();
+		// If the message holds a batch of updates.
+		if (Boolean.parseBoolean(message.getStringProperty(EntityHistoryUpdate.BATCH_PROPERTY))) {
+			this.receivedBatchMessageCount.incrementAndGet();
+			final List<Map<String, Object>> updates = ObjectMapperHelper.deserialize(objectMapper, message.getBody(String.class), new TypeReference<List<Map<String, Object>>>() {
+			}, false);
+			for (final Map<String, Object> update : updates) {
+				entities.add(this.createEntityHistory(update.get(EntityHistoryUpdate.CONTENT_ATTRIBUTE),
+						(Map<String, String>) update.get(EntityHistoryUpdate.PROPERTIES_ATTRIBUTE), message.getJMSTimestamp()));
+			}
+		}
+		// If the message holds a single update.
+		else {
+			// Gets the update properties.
+			final Map<String, String> properties = new HashMap<>();
+			for (final Object propertyName : Collections.list(message.getPropertyNames())) {
+				properties.put((String) propertyName, message.getStringProperty((String) propertyName));
+			}
+			entities.add(this.createEntityHistory(this.readContent(message.getBody(String.class)), properties, message.getJMSTimestamp()));
+		}
+	}
+
+	/**
+	 * Receives the messages already available in the queue (within the
+	 * transacted listener session, so they are committed or rolled back with the
+	 * received message). No messages are received if the listener session is not
+	 * transacted or not shared with the JMS template.
+	 * @param maxMessages Maximum number of messages.
+	 * @return The received messages.
+	 */
+	private List<Message> receiveMessages(final int maxMessages) {
+		// If the listener session is not bound to the JMS template connection factory.
+		if (!TransactionSynchronizationManager.hasResource(this.jmsTemplate.getConnectionFactory())) {
+			${historicalEntity.getConsumerServiceTypeName()}.LOGGER.debug("'${historicalEntity.getEntityQualifiedTypeName()}' history messages not drained: the listener session is not shared with the JMS template.");
+			return List.of();
+		}
+		return this.jmsTemplate.execute((SessionCallback<List<Message>>) (session) -> {
+			// If the listener session is not transacted (drained messages would be acknowledged).
+			if (!session.getTransacted()) {
+				${historicalEntity.getConsumerServiceTypeName()}.LOGGER.debug("'${historicalEntity.getEntityQualifiedTypeName()}' history messages not drained: the listener session is not transacted.");
+				return List.<Message>of();
+			}
+			final List<Message> messages = new ArrayList<>(maxMessages);
+			try (MessageConsumer consumer = session.createConsumer(session.createQueue(${historicalEntity.getConsumerServiceTypeName()}.QUEUE))) {
+				Message message = null;
+				while ((messages.size() < maxMessages) && ((message = consumer.receiveNoWait()) != null)) {
+					messages.add(message);
+				}
+			}
+			return messages;
+		}, true);
+	}
+
+	/**
+	 * Saves the entity history (in JDBC batches of the list size, for the current session only).
+	 * @param entities Entity history list.
+	 */
+	private void saveEntityHistory(final List<${historicalEntity.getEntityTypeName()}> entities) {
+		if (entities.size() > 1) {
+			this.entityManager.unwrap(Session.class).setJdbcBatchSize(entities.size());
+		}
+		this.repository.saveAll(entities);
+		this.saveCount.incrementAndGet();
+		this.savedCount.addAndGet(entities.size());
+	}
+
+#if(${historicalEntity.getOutbox()})
+	/**
+	 * @see org.coldis.library.persistence.history.EntityHistoryOutboxHandler${h}getQueue()
+	 */
+	@Override
+	public String getQueue() {
+		return ${historicalEntity.getConsumerServiceTypeName()}.QUEUE;
+	}
+
+	/**
+	 * @see org.coldis.library.persistence.history.EntityHistoryOutboxHandler${h}handle(java.util.List)
+	 */
+	@Override
+	public void handle(final List<EntityHistoryUpdate> updates) {
+		// Saves the entity history relayed from the outbox.
+		final List<${historicalEntity.getEntityTypeName()}> entities = new ArrayList<>(updates.size());
+		for (final EntityHistoryUpdate update : updates) {
+			entities.add(this.createEntityHistory(this.readContent(update.getContent()), update.getProperties(), update.getTimestamp()));
+		}
+		this.saveEntityHistory(entities);
+	}
+
+	/**
+	 * JMS listener for the history relayed from the outbox. It is only created
+	 * when the outbox relay sends the updates to JMS (instead of saving them
+	 * directly), so no JMS container factory (or broker) is needed otherwise.
+	 */
+	@Component
+	@ConditionalOnProperty(
+			name = "org.coldis.library.persistence.history.outbox-relay.direct",
+			havingValue = "false"
+	)
+	public static class QueueListener {
+
+		/**
+		 * Consumer service.
+		 */
+		@Autowired
+		private ${historicalEntity.getConsumerServiceTypeName()} consumerService;
+
+		/**
+		 * Handles the entity state update.
+		 * @param message Message.
+		 */
+		@JmsListener(
+				containerFactory = "entityHistoryJmsContainerFactory",
+				destination = ${historicalEntity.getConsumerServiceTypeName()}.QUEUE,
+				concurrency = "${${historicalEntity.getEntityQualifiedTypeName().toLowerCase()}.history-concurrency:1-3}"
+		)
+		public void handleUpdate(final Message message) {
+			this.consumerService.handleUpdate(message);
+		}
+
+	}
+
+#end
 	/**
 	 * Actually handles the entity state update and saves in the historical data.
 	 * @param state	Current entity state.
 	 */
 	@Transactional
+#if(!${historicalEntity.getOutbox()})
 	@JmsListener(
 			containerFactory = "entityHistoryJmsContainerFactory",
 			destination = ${historicalEntity.getConsumerServiceTypeName()}.QUEUE,
 			concurrency = "${${historicalEntity.getEntityQualifiedTypeName().toLowerCase()}.history-concurrency:1-3}"
 	)
+#end
 	public void handleUpdate(final Message message) {
 		${historicalEntity.getConsumerServiceTypeName()}.LOGGER.debug("Processing '${historicalEntity.getEntityQualifiedTypeName()}' history update."); 
 		// Tries to process the entity history update.
 		try {
-			// Converts the entity state to a map.
-			${historicalEntity.getEntityTypeName()} entity = new ${historicalEntity.getEntityTypeName()}(ObjectMapperHelper.deserialize(objectMapper, message.getBody(String.class), new TypeReference<Map<String, Object>>() {
-			}, false), LocalDateTime.ofInstant(Instant.ofEpochMilli(message.getJMSTimestamp()), 
-                    TimeZone.getDefault().toZoneId()));
-			// Tries retrieve the update date from the entity.
-			try {
-				LocalDateTime updatedAt = LocalDateTime.parse(entity.getState().get("updatedAt").toString(), DateTimeHelper.DATE_TIME_FORMATTER);
-				entity.setUser(message.getStringProperty("user"));
-				entity.setCreatedAt(updatedAt);
-				entity.setUpdatedAt(updatedAt);
-			}
-			// If the entity update date cannot be retrieved.
-			catch (Exception exception) {
-				// Logs it.
-				${historicalEntity.getConsumerServiceTypeName()}.LOGGER.debug("'${historicalEntity.getEntityQualifiedTypeName()}' update date could not be retrieved."); 
+			// Gets the entity history from the message.
+			final List<${historicalEntity.getEntityTypeName()}> entities = new ArrayList<>();
+			this.addEntityHistory(message, entities);
+			// Drains extra messages (if batch mode is enabled).
+			if ((this.batchSize != null) && (this.batchSize > 1)) {
+				for (final Message extraMessage : this.receiveMessages(this.batchSize - 1)) {
+					this.addEntityHistory(extraMessage, entities);
+				}
 			}
-			// Saves the new entity history state.
-			this.repository.save(entity);
+			// Saves the new entity history states.
+			this.saveEntityHistory(entities);
 			${historicalEntity.getConsumerServiceTypeName()}.LOGGER.debug("'${historicalEntity.getEntityQualifiedTypeName()}' history update processed."); 
 		}
 		// If the entity state cannot be saved as historical data.
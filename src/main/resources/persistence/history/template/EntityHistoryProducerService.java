@@ -1,10 +1,39 @@
 package ${historicalEntity.getServicePackageName()};
 
+import java.util.List;
 import java.util.Map;
+#if(${historicalEntity.getStateDelta()} || ${historicalEntity.getStatePassThrough()})
+import java.util.Objects;
+#end
 import java.util.concurrent.TimeUnit;
+#if(${historicalEntity.getStateDelta()})
+import java.util.function.Supplier;
+#end
 
+#if(${historicalEntity.getStatePassThrough()})
+import org.coldis.library.exception.IntegrationException;
+import org.coldis.library.helper.DateTimeHelper;
+import org.coldis.library.model.SimpleMessage;
+import org.coldis.library.model.Timestampable;
+#end
 import org.coldis.library.model.view.ModelView;
+import org.coldis.library.persistence.history.EntityHistoryBatcher;
+#if(${historicalEntity.getCoalescing()})
+import org.coldis.library.persistence.history.EntityHistoryCoalescer;
+#end
+#if(${historicalEntity.getStateDelta()})
+import org.coldis.library.persistence.history.EntityHistoryDeltaTracker;
+#end
+import org.coldis.library.persistence.history.EntityHistoryJournal;
+#if(${historicalEntity.getOutbox()})
+import org.coldis.library.persistence.history.EntityHistoryOutbox;
+#end
 import org.coldis.library.persistence.history.EntityHistoryProducerService;
+#if(!${historicalEntity.getOutbox()} && !${historicalEntity.getStateDelta()})
+import org.coldis.library.persistence.history.EntityHistorySnapshotHelper;
+#end
+import org.coldis.library.persistence.history.EntityHistoryTask;
+import org.coldis.library.persistence.history.EntityHistoryUpdate;
 import org.coldis.library.persistence.history.HistoricalEntityListener;
 import org.coldis.library.serialization.ObjectMapperHelper;
 import org.coldis.library.service.jms.JmsMessage;
@@ -20,7 +49,17 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+#if(${historicalEntity.getStateDelta()})
+import com.fasterxml.jackson.core.type.TypeReference;
+#end
 import com.fasterxml.jackson.databind.ObjectMapper;
+#if(${historicalEntity.getStateDelta()} || ${historicalEntity.getCoalescing()} || ${historicalEntity.getStatePassThrough()})
+
+import jakarta.persistence.EntityManagerFactory;
+#end
 
 import ${historicalEntity.getOriginalEntityQualifiedTypeName()};
 
@@ -51,22 +90,231 @@ public class ${historicalEntity.getProducerServiceTypeName()} implements EntityH
 	/**
 	 * JMS template for processing original entity updates.
 	 */
+#if(${historicalEntity.getOutbox()})
+	@Autowired(required = false)
+#else
 	@Autowired
+#end
 	@Qualifier(value = "entityHistoryJmsTemplate")
 	private JmsTemplate jmsTemplate;
 
 	/**
 	 * JMS template helper.
 	 */
+#if(${historicalEntity.getOutbox()})
+	@Autowired(required = false)
+#else
 	@Autowired
+#end
 	private JmsTemplateHelper jmsTemplateHelper;
 
 	/**
-	 * Queues history.
-	 * @param jmsMessage JMS message.
+	 * Entity history journal (used when history cannot be sent).
+	 */
+	@Autowired(required = false)
+	private EntityHistoryJournal journal;
+#if(${historicalEntity.getOutbox()})
+
+	/**
+	 * Entity history outbox.
+	 */
+	@Autowired
+	private EntityHistoryOutbox outbox;
+#end
+
+	/**
+	 * Batch size (history updates are sent one by one if not greater than 1).
+	 */
+	@Value("${${historicalEntity.getEntityQualifiedTypeName().toLowerCase()}.history-batch-size:1}")
+	private Integer batchSize;
+
+	/**
+	 * Maximum wait (in milliseconds) before a batch is sent.
+	 */
+	@Value("${${historicalEntity.getEntityQualifiedTypeName().toLowerCase()}.history-batch-max-wait:100}")
+	private Long batchMaxWait;
+
+	/**
+	 * If the entity state should be serialized in the history thread pool (from a
+	 * shallow snapshot taken during the flush), instead of during the flush.
+	 * Objects referenced by the entity (other than its collections and maps)
+	 * must not be changed after the flush, and lazy associations must be loaded.
+	 */
+	@Value("${${historicalEntity.getEntityQualifiedTypeName().toLowerCase()}.history-async-serialization:false}")
+	private Boolean asyncSerialization;
+
+	/**
+	 * Batcher (if batches are enabled).
+	 */
+	private EntityHistoryBatcher<EntityHistoryUpdate> batcher;
+#if(${historicalEntity.getStateDelta()} || ${historicalEntity.getCoalescing()} || ${historicalEntity.getStatePassThrough()})
+
+	/**
+	 * Entity manager factory (used to get the original entity identifier).
+	 */
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+#end
+#if(${historicalEntity.getCoalescing()})
+
+	/**
+	 * Coalescer (keeps the latest update for each entity within the window).
+	 */
+	private final EntityHistoryCoalescer<EntityHistoryUpdate> coalescer = new EntityHistoryCoalescer<>(${historicalEntity.getCoalescingWindow()}L,
+			${historicalEntity.getCoalescingKeepFirst()}, this::executeAsync, this::emitUpdate);
+#end
+#if(${historicalEntity.getStateDelta()})
+
+	/**
+	 * Delta tracker (last state sent for each entity).
+	 */
+	private final EntityHistoryDeltaTracker deltaTracker = new EntityHistoryDeltaTracker(${historicalEntity.getStateDeltaKeyframeInterval()}, 10000);
+
+	/**
+	 * Creates the entity history update supplier, with a JSON patch from the last
+	 * state sent for the entity or a full state (keyframe). Only the entity state
+	 * is serialized (and the base state chosen, in the update order) in the
+	 * current thread: the patch is created when the update is supplied.
+	 *
+	 * @param  state Entity state.
+	 * @param  user  User.
+	 * @return       The entity history update supplier.
+	 */
+	private Supplier<EntityHistoryUpdate> createDeltaUpdate(final ${historicalEntity.getOriginalEntityTypeName()} state, final String user) {
+		// Gets the current state and entity identifier.
+		final String serializedState = ObjectMapperHelper.serialize(objectMapper, state, ModelView.Persistent.class, false);
+		final String entityId = Objects.toString(this.entityManagerFactory.getPersistenceUnitUtil().getIdentifier(state), null);
+		// Gets the last state sent (or null, for a keyframe).
+		final String base = this.deltaTracker.getBase(entityId, serializedState);
+		return () -> {
+			// Creates the patch from the last state sent (or a keyframe).
+			final Map<String, Object> currentState = ObjectMapperHelper.deserialize(objectMapper, serializedState, new TypeReference<Map<String, Object>>() {
+			}, false);
+			final Map<String, String> properties = Map.of("user", (user == null ? "" : user), "entityId", (entityId == null ? "" : entityId),
+					"historyType", (base == null ? "keyframe" : "patch"),
+					"updatedAt", Objects.toString(currentState.get(EntityHistoryDeltaTracker.UPDATED_AT_ATTRIBUTE), ""));
+			if (base == null) {
+				return new EntityHistoryUpdate(serializedState, properties);
+			}
+			final Map<String, Object> baseState = ObjectMapperHelper.deserialize(objectMapper, base, new TypeReference<Map<String, Object>>() {
+			}, false);
+			return new EntityHistoryUpdate(ObjectMapperHelper.serialize(objectMapper, EntityHistoryDeltaTracker.createPatch(baseState, currentState),
+					ModelView.Persistent.class, false), properties);
+		};
+	}
+#end
+
+	/**
+	 * Starts the batcher (if batches are enabled).
+	 */
+	@PostConstruct
+	private void startBatcher() {
+#if(${historicalEntity.getStatePassThrough()})
+		// Batches are parsed as a whole by the consumer (so the state would not be passed through).
+		if ((this.batchSize != null) && (this.batchSize > 1)) {
+			throw new IntegrationException(new SimpleMessage("entity.history.passthrough.batch.unsupported"));
+		}
+#end
+		if ((this.batchSize != null) && (this.batchSize > 1)) {
+			this.batcher = new EntityHistoryBatcher<>(this.batchSize, this.batchMaxWait, this::sendBatch);
+		}
+	}
+
+	/**
+	 * Stops the batcher (sending the pending updates).
+	 */
+	@PreDestroy
+	private void stopBatcher() {
+#if(${historicalEntity.getCoalescing()})
+		// Sends the coalesced updates before the batcher is closed.
+		this.coalescer.close();
+#end
+		if (this.batcher != null) {
+			this.batcher.close();
+		}
+	}
+
+	/**
+	 * Queues history (writing it to the journal, if available, when it cannot be sent).
+	 * @param update Entity history update.
 	 */
-	private void queueHistory(final JmsMessage<Object> jmsMessage) {
-		this.jmsTemplateHelper.send(jmsTemplate, jmsMessage);
+	private void queueHistory(final EntityHistoryUpdate update) {
+		// If there are journaled updates not replayed yet, appends the update to the
+		// journal as well (so it is not delivered before them).
+		if ((this.journal != null) && this.journal.hasPending()) {
+			this.journal.append(${historicalEntity.getProducerServiceTypeName()}.QUEUE, update);
+			return;
+		}
+		try {
+			this.jmsTemplateHelper.send(jmsTemplate, this.createMessage(update));
+		}
+		catch (final RuntimeException exception) {
+#if(${historicalEntity.getStateDelta()})
+			// Makes sure the next updates are sent as keyframes (the patch chain is broken).
+			this.deltaTracker.reset();
+#end
+			if (this.journal == null) {
+				throw exception;
+			}
+			${historicalEntity.getProducerServiceTypeName()}.LOGGER.warn("History could not be queued and was written to the journal: " + exception.getLocalizedMessage());
+			this.journal.append(${historicalEntity.getProducerServiceTypeName()}.QUEUE, update);
+		}
+	}
+
+	/**
+	 * Sends a batch of history updates in a single message.
+	 * @param updates History updates.
+	 */
+	private void sendBatch(final List<EntityHistoryUpdate> updates) {
+		this.sendHistory(new EntityHistoryUpdate(EntityHistoryUpdate.serializeBatch(objectMapper, updates),
+				Map.of(EntityHistoryUpdate.BATCH_PROPERTY, "true")));
+	}
+
+#if(!${historicalEntity.getStateDelta()})
+	/**
+	 * Creates the entity history update properties.
+	 * @param state Entity state.
+	 * @param user User.
+	 * @return The entity history update properties.
+	 */
+	private Map<String, String> createProperties(final ${historicalEntity.getOriginalEntityTypeName()} state, final String user) {
+#if(${historicalEntity.getStatePassThrough()})
+		// Sends the update date and identifier as properties (so the consumer does not parse the state).
+		final Object updatedAt = ((((Object) state) instanceof Timestampable timestampable) && (timestampable.getUpdatedAt() != null)
+				? DateTimeHelper.DATE_TIME_FORMATTER.format(timestampable.getUpdatedAt())
+				: null);
+		final Object entityId = this.entityManagerFactory.getPersistenceUnitUtil().getIdentifier(state);
+		return Map.of("user", (user == null ? "" : user), "entityId", Objects.toString(entityId, ""), "updatedAt", Objects.toString(updatedAt, ""));
+#else
+		return Map.of("user", (user == null ? "" : user));
+#end
+	}
+
+#end
+	/**
+	 * Creates the entity history update.
+	 * @param state Entity state.
+	 * @param user User.
+	 * @return The entity history update.
+	 */
+	private EntityHistoryUpdate createUpdate(final ${historicalEntity.getOriginalEntityTypeName()} state, final String user) {
+#if(${historicalEntity.getStateDelta()})
+		return this.createDeltaUpdate(state, user).get();
+#else
+		return new EntityHistoryUpdate(ObjectMapperHelper.serialize(objectMapper, state, ModelView.Persistent.class, false), this.createProperties(state, user));
+#end
+	}
+
+	/**
+	 * Creates the JMS message for a single entity history update.
+	 * @param update Entity history update.
+	 * @return The JMS message.
+	 */
+	private JmsMessage<Object> createMessage(final EntityHistoryUpdate update) {
+		return new JmsMessage<>()
+				.withDestination(${historicalEntity.getProducerServiceTypeName()}.QUEUE)
+				.withMessage(update.getContent())
+				.withProperties(Map.copyOf(update.getProperties()));
 	}
 
 	/**
@@ -75,21 +323,117 @@ public class ${historicalEntity.getProducerServiceTypeName()} implements EntityH
 	private void addHistory(final ${historicalEntity.getOriginalEntityTypeName()} state) {
 		final SecurityContext securityContext = SecurityContextHolder.getContext();
 		final String user = (securityContext != null && securityContext.getAuthentication() != null ? securityContext.getAuthentication().getName() : null);
-		final JmsMessage<Object> jmsMessage = new JmsMessage<>()
-				.withDestination(${historicalEntity.getProducerServiceTypeName()}.QUEUE)
-				.withMessage(ObjectMapperHelper.serialize(objectMapper, state, ModelView.Persistent.class, false))
-				.withProperties(Map.of("user", (user == null ? "" : user)));
+#if(!${historicalEntity.getOutbox()} && ${historicalEntity.getStateDelta()})
+		// Creates the patch (and serializes it) in the thread pool (the entity state
+		// is serialized and the base state chosen here, in the update order). The
+		// update is created by the task, so it can still be spilled to the journal.
+		this.executeAsync(new EntityHistoryTask(${historicalEntity.getProducerServiceTypeName()}.QUEUE, this.createDeltaUpdate(state, user), (update) -> {
+			if (this.batcher != null) {
+				this.batcher.add(update);
+			}
+			else {
+				this.queueHistory(update);
+			}
+		}));
+#else
+#if(!${historicalEntity.getOutbox()})
+		// If serialization should happen in the thread pool, takes a shallow snapshot
+		// of the entity state (so no JSON work is done during the flush) and serializes
+		// it (and sends it) in the pool. The update is created by the task, so it can
+		// still be spilled to the journal.
+		if (this.asyncSerialization && (HistoricalEntityListener.THREAD_POOL != null)) {
+			final ${historicalEntity.getOriginalEntityTypeName()} snapshot = EntityHistorySnapshotHelper.createSnapshot(state);
+			final Map<String, String> properties = this.createProperties(state, user);
+#if(${historicalEntity.getCoalescing()})
+			final Object entityId = this.entityManagerFactory.getPersistenceUnitUtil().getIdentifier(state);
+#end
+			this.executeAsync(new EntityHistoryTask(${historicalEntity.getProducerServiceTypeName()}.QUEUE,
+					() -> new EntityHistoryUpdate(ObjectMapperHelper.serialize(this.objectMapper, snapshot, ModelView.Persistent.class, false), properties),
+					(update) -> {
+#if(${historicalEntity.getCoalescing()})
+				this.coalescer.add(entityId, update);
+#else
+				if (this.batcher != null) {
+					this.batcher.add(update);
+				}
+				else {
+					this.queueHistory(update);
+				}
+#end
+			}));
+			return;
+		}
+#end
+		final EntityHistoryUpdate update = this.createUpdate(state, user);
+#if(${historicalEntity.getOutbox()})
+		// Adds the update to the outbox (in the current transaction).
+		this.outbox.add(${historicalEntity.getProducerServiceTypeName()}.QUEUE, update);
+#elseif(${historicalEntity.getCoalescing()})
+		// Coalesces the updates for the same entity within the window.
+		this.coalescer.add(this.entityManagerFactory.getPersistenceUnitUtil().getIdentifier(state), update);
+#else
+		this.dispatchUpdate(update);
+#end
+#end
+	}
+
+	/**
+	 * Buffers the update (if batches are enabled) or sends it.
+	 * @param update Entity history update.
+	 */
+	private void dispatchUpdate(final EntityHistoryUpdate update) {
+		if (this.batcher != null) {
+			this.batcher.add(update);
+		}
+		else {
+			this.sendHistory(update);
+		}
+	}
+
+#if(${historicalEntity.getCoalescing()})
+	/**
+	 * Buffers (if batches are enabled) or sends a coalesced update (in the thread
+	 * pool, when the window ends).
+	 * @param update Entity history update.
+	 */
+	private void emitUpdate(final EntityHistoryUpdate update) {
+		if (this.batcher != null) {
+			this.batcher.add(update);
+		}
+		else {
+			this.queueHistory(update);
+		}
+	}
+
+#end
+	/**
+	 * Sends the entity history (the update is kept in the task, so it can be spilled to the journal).
+	 * @param update Entity history update.
+	 */
+	private void sendHistory(final EntityHistoryUpdate update) {
+		this.executeAsync(new EntityHistoryTask(${historicalEntity.getProducerServiceTypeName()}.QUEUE, update, () -> {
+			this.queueHistory(update);
+		}));
+	}
+
+	/**
+	 * Executes a history task in the thread pool (or in the current thread, if there is no pool).
+	 * @param task History task.
+	 */
+	private void executeAsync(final Runnable task) {
 		try {
 			if (HistoricalEntityListener.THREAD_POOL == null) {
-				this.queueHistory(jmsMessage);
+				task.run();
 			}
 			else {
-				HistoricalEntityListener.THREAD_POOL.execute(() -> {
-					this.queueHistory(jmsMessage);
-				});
+				HistoricalEntityListener.THREAD_POOL.execute(task);
 			}
 		}
 		catch(Exception exception) {
+#if(${historicalEntity.getStateDelta()})
+			// Makes sure the next updates are sent as keyframes (the patch chain is broken).
+			this.deltaTracker.reset();
+#end
 			LOGGER.error("Could not queue history for entity: " + exception.getClass().getName() + " - " + exception.getLocalizedMessage());
 			LOGGER.debug("Could not queue history for entity.", exception);
 		}
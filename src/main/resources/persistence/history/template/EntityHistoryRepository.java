@@ -1,8 +1,26 @@
 package ${historicalEntity.getRepositoryPackageName()};
 
+import java.time.LocalDateTime;
+import java.util.List;
+#if(${historicalEntity.getStateDelta()})
+import java.util.Map;
+#end
+import java.util.stream.Stream;
+
+#if(${historicalEntity.getStateDelta()})
+import org.coldis.library.exception.IntegrationException;
+import org.coldis.library.persistence.history.JsonPatchHelper;
+#end
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import ${historicalEntity.getEntityQualifiedTypeName()};
 
 /**
@@ -11,4 +29,163 @@ import ${historicalEntity.getEntityQualifiedTypeName()};
 @Repository(value = "${historicalEntity.getRepositoryBeanName()}")
 public interface ${historicalEntity.getRepositoryTypeName()} extends CrudRepository<${historicalEntity.getEntityTypeName()}, Long> {
 
+	/**
+	 * Fetch size used when streaming history.
+	 */
+	String STREAM_FETCH_SIZE = "500";
+
+	/**
+	 * Finds the next history page (ordered by update date and identifier) after
+	 * the given cursor (the last history of the previous page) and before the
+	 * given date. The first page uses the start date and identifier 0 as cursor.
+	 *
+	 * @param  afterUpdatedAt Cursor update date.
+	 * @param  afterId        Cursor identifier.
+	 * @param  to             End date (exclusive).
+	 * @param  page           Page (only the size is used).
+	 * @return                The next history page.
+	 */
+	@Query("SELECT history FROM ${historicalEntity.getEntityTypeName()} history WHERE (history.updatedAt > :afterUpdatedAt OR (history.updatedAt = :afterUpdatedAt AND history.id > :afterId)) "
+			+ "AND history.updatedAt < :to ORDER BY history.updatedAt, history.id")
+	List<${historicalEntity.getEntityTypeName()}> findNextByUpdatedAtRange(@Param("afterUpdatedAt") LocalDateTime afterUpdatedAt, @Param("afterId") Long afterId,
+			@Param("to") LocalDateTime to, Pageable page);
+
+	/**
+	 * Finds the first history page between the given dates.
+	 *
+	 * @param  from Start date.
+	 * @param  to   End date (exclusive).
+	 * @param  size Page size.
+	 * @return      The first history page.
+	 */
+	default List<${historicalEntity.getEntityTypeName()}> findFirstByUpdatedAtRange(final LocalDateTime from, final LocalDateTime to, final int size) {
+		return this.findNextByUpdatedAtRange(from, 0L, to, PageRequest.ofSize(size));
+	}
+
+	/**
+	 * Finds the next history page for a user (ordered by update date and
+	 * identifier) after the given cursor (the last history of the previous page).
+	 *
+	 * @param  user           User.
+	 * @param  afterUpdatedAt Cursor update date.
+	 * @param  afterId        Cursor identifier.
+	 * @param  page           Page (only the size is used).
+	 * @return                The next history page for the user.
+	 */
+	@Query("SELECT history FROM ${historicalEntity.getEntityTypeName()} history WHERE history.user = :user "
+			+ "AND (history.updatedAt > :afterUpdatedAt OR (history.updatedAt = :afterUpdatedAt AND history.id > :afterId)) ORDER BY history.updatedAt, history.id")
+	List<${historicalEntity.getEntityTypeName()}> findNextByUser(@Param("user") String user, @Param("afterUpdatedAt") LocalDateTime afterUpdatedAt, @Param("afterId") Long afterId,
+			Pageable page);
+
+	/**
+	 * Streams the history between the given dates (ordered by update date and
+	 * identifier). The stream must be consumed within a transaction and closed.
+	 *
+	 * @param  from Start date.
+	 * @param  to   End date (exclusive).
+	 * @return      The history between the given dates.
+	 */
+	@QueryHints(
+			value = { @QueryHint(
+					name = "org.hibernate.fetchSize",
+					value = STREAM_FETCH_SIZE
+			), @QueryHint(
+					name = "org.hibernate.readOnly",
+					value = "true"
+			) }
+	)
+	@Query("SELECT history FROM ${historicalEntity.getEntityTypeName()} history WHERE history.updatedAt >= :from AND history.updatedAt < :to ORDER BY history.updatedAt, history.id")
+	Stream<${historicalEntity.getEntityTypeName()}> streamByUpdatedAtRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	/**
+	 * Finds the history for an entity (latest first).
+	 *
+	 * @param  entityId Original entity identifier.
+	 * @return          The history for the entity.
+	 */
+	List<${historicalEntity.getEntityTypeName()}> findByEntityIdOrderByUpdatedAtDesc(${historicalEntity.getEntityIdTypeName()} entityId);
+
+	/**
+	 * Finds the next history page for an entity (ordered by update date and
+	 * identifier) after the given cursor (the last history of the previous page).
+	 *
+	 * @param  entityId       Original entity identifier.
+	 * @param  afterUpdatedAt Cursor update date.
+	 * @param  afterId        Cursor identifier.
+	 * @param  page           Page (only the size is used).
+	 * @return                The next history page for the entity.
+	 */
+	@Query("SELECT history FROM ${historicalEntity.getEntityTypeName()} history WHERE history.entityId = :entityId "
+			+ "AND (history.updatedAt > :afterUpdatedAt OR (history.updatedAt = :afterUpdatedAt AND history.id > :afterId)) ORDER BY history.updatedAt, history.id")
+	List<${historicalEntity.getEntityTypeName()}> findNextByEntityId(@Param("entityId") ${historicalEntity.getEntityIdTypeName()} entityId, @Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+			@Param("afterId") Long afterId, Pageable page);
+#if(${historicalEntity.getStateDelta()})
+
+	/**
+	 * Finds the last keyframe for an entity until a given date.
+	 *
+	 * @param  entityId Original entity identifier.
+	 * @param  at       Date.
+	 * @return          The last keyframe for the entity.
+	 */
+	${historicalEntity.getEntityTypeName()} findFirstByEntityIdAndKeyframeTrueAndUpdatedAtLessThanEqualOrderByUpdatedAtDescIdDesc(${historicalEntity.getEntityIdTypeName()} entityId, LocalDateTime at);
+
+	/**
+	 * Finds the first keyframe for an entity after a given date.
+	 *
+	 * @param  entityId Original entity identifier.
+	 * @param  at       Date.
+	 * @return          The first keyframe for the entity after the date.
+	 */
+	${historicalEntity.getEntityTypeName()} findFirstByEntityIdAndKeyframeTrueAndUpdatedAtGreaterThanOrderByUpdatedAtAscIdAsc(${historicalEntity.getEntityIdTypeName()} entityId, LocalDateTime at);
+
+	/**
+	 * Finds the history for an entity between the given dates.
+	 *
+	 * @param  entityId Original entity identifier.
+	 * @param  from     Start date.
+	 * @param  to       End date.
+	 * @return          The history for the entity.
+	 */
+	List<${historicalEntity.getEntityTypeName()}> findByEntityIdAndUpdatedAtBetweenOrderByUpdatedAtAscIdAsc(${historicalEntity.getEntityIdTypeName()} entityId, LocalDateTime from, LocalDateTime to);
+
+	/**
+	 * Reconstructs the entity state at a given date, applying the patches since
+	 * the last keyframe. If a patch does not apply (it was created from a stale
+	 * state, by another producer for instance), the state at the date is unknown,
+	 * and the next keyframe is used instead.
+	 *
+	 * @param  entityId Original entity identifier.
+	 * @param  at       Date.
+	 * @return          The entity state at the given date (or <code>null</code>
+	 *                  if there is no history for the entity until the date, or
+	 *                  if a patch does not apply and there is no later keyframe).
+	 */
+	@SuppressWarnings("unchecked")
+	default Map<String, Object> reconstructState(final ${historicalEntity.getEntityIdTypeName()} entityId, final LocalDateTime at) {
+		// Gets the last keyframe until the date.
+		final ${historicalEntity.getEntityTypeName()} keyframe = this.findFirstByEntityIdAndKeyframeTrueAndUpdatedAtLessThanEqualOrderByUpdatedAtDescIdDesc(entityId, at);
+		if (keyframe == null) {
+			return null;
+		}
+		// Applies the patches since the keyframe.
+		Map<String, Object> state = keyframe.getState();
+		boolean afterKeyframe = false;
+		for (final ${historicalEntity.getEntityTypeName()} history : this.findByEntityIdAndUpdatedAtBetweenOrderByUpdatedAtAscIdAsc(entityId, keyframe.getUpdatedAt(), at)) {
+			if (afterKeyframe && !Boolean.TRUE.equals(history.getKeyframe())) {
+				try {
+					state = JsonPatchHelper.apply(state, (List<Map<String, Object>>) (List<?>) history.getPatch());
+				}
+				// If the patch does not apply, falls back to the next keyframe.
+				catch (final IntegrationException exception) {
+					final ${historicalEntity.getEntityTypeName()} nextKeyframe = this.findFirstByEntityIdAndKeyframeTrueAndUpdatedAtGreaterThanOrderByUpdatedAtAscIdAsc(entityId, at);
+					return (nextKeyframe == null ? null : nextKeyframe.getState());
+				}
+			}
+			afterKeyframe = afterKeyframe || history.getId().equals(keyframe.getId());
+		}
+		return state;
+	}
+#end
+
 }
@@ -0,0 +1,117 @@
+package org.coldis.library.test.persistence.benchmark;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.coldis.library.persistence.converter.MapJsonConverter;
+import org.coldis.library.persistence.history.EntityHistoryExecutor;
+import org.coldis.library.persistence.history.EntityHistoryOverflowPolicy;
+import org.coldis.library.persistence.history.EntityHistoryVirtualThreadExecutor;
+import org.coldis.library.thread.DynamicThreadPoolFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Entity history executor benchmark (history path on the platform thread pool
+ * against a virtual thread per task). Each operation serializes an entity
+ * state and waits for a simulated broker send, from many concurrent
+ * publishers. Throughput and the latency distribution (including p99) are
+ * reported.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class EntityHistoryExecutorBenchmark {
+
+	/**
+	 * Executor type.
+	 */
+	@Param({ "platform", "virtual" })
+	private String executorType;
+
+	/**
+	 * Simulated broker send latency (in microseconds).
+	 */
+	@Param({ "100", "1000" })
+	private long sendLatency;
+
+	/**
+	 * Underlying executor.
+	 */
+	private Executor delegate;
+
+	/**
+	 * Executor.
+	 */
+	private EntityHistoryExecutor executor;
+
+	/**
+	 * Converter.
+	 */
+	private MapJsonConverter converter;
+
+	/**
+	 * Entity state.
+	 */
+	private Map<String, Object> state;
+
+	/**
+	 * Sets up the benchmark (with the listener default sizes).
+	 */
+	@Setup
+	public void setUp() {
+		this.delegate = ("virtual".equals(this.executorType) ? new EntityHistoryVirtualThreadExecutor("history-benchmark", 256)
+				: new DynamicThreadPoolFactory().withName("history-benchmark").withCorePoolSizeCpuMultiplier(0.5).withMaxPoolSizeCpuMultiplier(5D)
+						.withMaxQueueSize(5000).withKeepAlive(Duration.ofSeconds(60)).build());
+		this.executor = new EntityHistoryExecutor(this.delegate, EntityHistoryOverflowPolicy.BLOCK, Duration.ofSeconds(1), null);
+		this.converter = new MapJsonConverter();
+		this.state = JsonConverterBenchmark.createPayload(1024);
+	}
+
+	/**
+	 * Tears down the benchmark.
+	 */
+	@TearDown
+	public void tearDown() {
+		if (this.delegate instanceof final ExecutorService executorService) {
+			executorService.shutdownNow();
+		}
+	}
+
+	/**
+	 * Publishes an entity history update and waits for it to be sent.
+	 *
+	 * @return The sent message.
+	 */
+	@Benchmark
+	public String publish() {
+		final CompletableFuture<String> sent = new CompletableFuture<>();
+		this.executor.execute(() -> {
+			final String message = this.converter.convertToDatabaseColumn(this.state);
+			LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(this.sendLatency));
+			sent.complete(message);
+		});
+		return sent.join();
+	}
+
+}
@@ -0,0 +1,148 @@
+package org.coldis.library.test.persistence.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.coldis.library.persistence.history.EntityHistoryProducerService;
+import org.coldis.library.persistence.history.HistoricalEntity;
+import org.coldis.library.persistence.history.HistoricalEntityListener;
+import org.coldis.library.persistence.history.HistoricalEntityMetadata;
+import org.coldis.library.test.persistence.history.TestHistoricalEntity;
+import org.coldis.library.test.persistence.model.TestEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.support.GenericApplicationContext;
+
+/**
+ * Historical entity listener benchmark (listener overhead per flushed entity,
+ * with the per class dispatch against looking up the annotation and service
+ * bean on every call). The entity history service does nothing, so only the
+ * dispatch is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoricalEntityListenerBenchmark {
+
+	/**
+	 * Application context.
+	 */
+	private GenericApplicationContext applicationContext;
+
+	/**
+	 * Listener.
+	 */
+	private HistoricalEntityListener listener;
+
+	/**
+	 * Historical entity.
+	 */
+	private TestHistoricalEntity historicalEntity;
+
+	/**
+	 * Non historical entity.
+	 */
+	private TestEntity entity;
+
+	/**
+	 * Sets up the benchmark.
+	 */
+	@Setup
+	public void setUp() {
+		final EntityHistoryProducerService<Object> entityHistoryService = (
+				entity) -> {};
+		this.applicationContext = new GenericApplicationContext();
+		this.applicationContext.registerBean("testHistoricalEntity" + HistoricalEntityMetadata.PRODUCER_SERVICE_TYPE_SUFFIX,
+				EntityHistoryProducerService.class, () -> entityHistoryService);
+		this.applicationContext.refresh();
+		this.listener = new HistoricalEntityListener();
+		this.listener.setApplicationContext(this.applicationContext);
+		this.historicalEntity = new TestHistoricalEntity("1");
+		this.entity = new TestEntity();
+	}
+
+	/**
+	 * Tears down the benchmark.
+	 */
+	@TearDown
+	public void tearDown() {
+		this.applicationContext.close();
+	}
+
+	/**
+	 * Looks up the entity history service on every call (previous listener
+	 * behavior).
+	 *
+	 * @param entity Entity.
+	 */
+	@SuppressWarnings("unchecked")
+	private void lookup(
+			final Object entity) {
+		if (entity.getClass().getAnnotation(HistoricalEntity.class) != null) {
+			String serviceName = (entity.getClass().getSimpleName() + HistoricalEntityMetadata.PRODUCER_SERVICE_TYPE_SUFFIX);
+			serviceName = serviceName.substring(0, 1).toLowerCase() + serviceName.substring(1);
+			this.applicationContext.getBean(serviceName, EntityHistoryProducerService.class).handleUpdate(entity);
+		}
+	}
+
+	/**
+	 * Dispatches a historical entity update with the listener.
+	 *
+	 * @param blackhole Blackhole.
+	 */
+	@Benchmark
+	public void dispatchHistorical(
+			final Blackhole blackhole) {
+		this.listener.handleUpdate(this.historicalEntity);
+		blackhole.consume(this.historicalEntity);
+	}
+
+	/**
+	 * Dispatches a non historical entity update with the listener.
+	 *
+	 * @param blackhole Blackhole.
+	 */
+	@Benchmark
+	public void dispatchNonHistorical(
+			final Blackhole blackhole) {
+		this.listener.handleUpdate(this.entity);
+		blackhole.consume(this.entity);
+	}
+
+	/**
+	 * Dispatches a historical entity update looking up the service.
+	 *
+	 * @param blackhole Blackhole.
+	 */
+	@Benchmark
+	public void lookupHistorical(
+			final Blackhole blackhole) {
+		this.lookup(this.historicalEntity);
+		blackhole.consume(this.historicalEntity);
+	}
+
+	/**
+	 * Dispatches a non historical entity update looking up the annotation.
+	 *
+	 * @param blackhole Blackhole.
+	 */
+	@Benchmark
+	public void lookupNonHistorical(
+			final Blackhole blackhole) {
+		this.lookup(this.entity);
+		blackhole.consume(this.entity);
+	}
+
+}
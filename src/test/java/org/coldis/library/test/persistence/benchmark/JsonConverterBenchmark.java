@@ -0,0 +1,150 @@
+package org.coldis.library.test.persistence.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.coldis.library.model.view.ModelView;
+import org.coldis.library.persistence.converter.JsonConverterRegistry;
+import org.coldis.library.persistence.converter.MapJsonConverter;
+import org.coldis.library.serialization.ObjectMapperHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JSON converter benchmark (pre-built readers and writers from the converter
+ * registry against resolving the type and view on every call).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonConverterBenchmark {
+
+	/**
+	 * Payload size (approximate JSON bytes).
+	 */
+	@Param({ "1024", "65536" })
+	private int payloadSize;
+
+	/**
+	 * Object mapper.
+	 */
+	private ObjectMapper objectMapper;
+
+	/**
+	 * Converter.
+	 */
+	private MapJsonConverter converter;
+
+	/**
+	 * Payload.
+	 */
+	private Map<String, Object> payload;
+
+	/**
+	 * Payload JSON.
+	 */
+	private String payloadJson;
+
+	/**
+	 * Payload JSON bytes.
+	 */
+	private byte[] payloadJsonBytes;
+
+	/**
+	 * Creates a JSON payload with (approximately) the given size.
+	 *
+	 * @param  size Payload size.
+	 * @return      The payload.
+	 */
+	public static Map<String, Object> createPayload(
+			final int size) {
+		final Map<String, Object> payload = new LinkedHashMap<>();
+		for (int index = 0; (index * 64) < size; index++) {
+			payload.put("attribute" + index, Map.of("text", "value" + index, "number", index, "list", List.of(index, index + 1, index + 2)));
+		}
+		return payload;
+	}
+
+	/**
+	 * Sets up the benchmark.
+	 *
+	 * @throws Exception If the benchmark cannot be set up.
+	 */
+	@Setup
+	public void setUp() throws Exception {
+		this.objectMapper = JsonConverterRegistry.getObjectMapper();
+		this.converter = new MapJsonConverter();
+		this.payload = JsonConverterBenchmark.createPayload(this.payloadSize);
+		this.payloadJson = this.converter.convertToDatabaseColumn(this.payload);
+		this.payloadJsonBytes = this.converter.convertToDatabaseBytes(this.payload);
+	}
+
+	/**
+	 * Reads the JSON resolving the type on every call.
+	 *
+	 * @return The read value.
+	 */
+	@Benchmark
+	public Map<String, Object> readResolvingType() {
+		return ObjectMapperHelper.deserialize(this.objectMapper, this.payloadJson, new TypeReference<Map<String, Object>>() {}, false);
+	}
+
+	/**
+	 * Reads the JSON with the registry reader.
+	 *
+	 * @return The read value.
+	 */
+	@Benchmark
+	public Map<String, Object> readWithRegistry() {
+		return this.converter.convertToEntityAttribute(this.payloadJson);
+	}
+
+	/**
+	 * Reads the JSON bytes with the registry reader.
+	 *
+	 * @return The read value.
+	 */
+	@Benchmark
+	public Map<String, Object> readBytesWithRegistry() {
+		return this.converter.convertToEntityAttribute(new ByteArrayInputStream(this.payloadJsonBytes));
+	}
+
+	/**
+	 * Writes the JSON applying the view on every call.
+	 *
+	 * @return The written JSON.
+	 */
+	@Benchmark
+	public String writeApplyingView() {
+		return ObjectMapperHelper.serialize(this.objectMapper, this.payload, ModelView.Persistent.class, false);
+	}
+
+	/**
+	 * Writes the JSON with the registry writer.
+	 *
+	 * @return The written JSON.
+	 */
+	@Benchmark
+	public String writeWithRegistry() {
+		return this.converter.convertToDatabaseColumn(this.payload);
+	}
+
+}
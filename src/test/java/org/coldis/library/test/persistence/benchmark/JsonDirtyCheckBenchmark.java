@@ -0,0 +1,141 @@
+package org.coldis.library.test.persistence.benchmark;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.coldis.library.persistence.converter.JsonMutabilityPlan;
+import org.coldis.library.persistence.converter.MapJsonConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JSON attribute dirty check benchmark (loading and flushing unchanged rows
+ * with the mutability plan snapshots against serializing the attributes
+ * again). Results are per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonDirtyCheckBenchmark {
+
+	/**
+	 * Number of loaded rows.
+	 */
+	public static final int ROWS = 10000;
+
+	/**
+	 * Payload size (approximate JSON bytes).
+	 */
+	@Param({ "256", "4096" })
+	private int payloadSize;
+
+	/**
+	 * Converter.
+	 */
+	private MapJsonConverter converter;
+
+	/**
+	 * Mutability plan.
+	 */
+	private JsonMutabilityPlan mutabilityPlan;
+
+	/**
+	 * Loaded row values.
+	 */
+	private Map<String, Object>[] values;
+
+	/**
+	 * Loaded row snapshots.
+	 */
+	private Map<String, Object>[] snapshots;
+
+	/**
+	 * Sets up the benchmark.
+	 */
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		this.converter = new MapJsonConverter();
+		this.mutabilityPlan = new JsonMutabilityPlan();
+		this.values = new Map[JsonDirtyCheckBenchmark.ROWS];
+		this.snapshots = new Map[JsonDirtyCheckBenchmark.ROWS];
+		final String payloadJson = this.converter.convertToDatabaseColumn(JsonConverterBenchmark.createPayload(this.payloadSize));
+		for (int row = 0; row < JsonDirtyCheckBenchmark.ROWS; row++) {
+			this.values[row] = this.converter.convertToEntityAttribute(payloadJson);
+			this.snapshots[row] = (Map<String, Object>) this.mutabilityPlan.deepCopy(this.values[row]);
+		}
+	}
+
+	/**
+	 * Takes the loaded rows snapshots with the mutability plan.
+	 *
+	 * @param blackhole Blackhole.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(JsonDirtyCheckBenchmark.ROWS)
+	public void loadCopying(
+			final Blackhole blackhole) {
+		for (final Map<String, Object> value : this.values) {
+			blackhole.consume(this.mutabilityPlan.deepCopy(value));
+		}
+	}
+
+	/**
+	 * Takes the loaded rows snapshots with a serialization round trip.
+	 *
+	 * @param blackhole Blackhole.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(JsonDirtyCheckBenchmark.ROWS)
+	public void loadSerializing(
+			final Blackhole blackhole) {
+		for (final Map<String, Object> value : this.values) {
+			blackhole.consume(this.converter.convertToEntityAttribute(this.converter.convertToDatabaseColumn(value)));
+		}
+	}
+
+	/**
+	 * Dirty checks the unchanged rows against the mutability plan snapshots.
+	 *
+	 * @param blackhole Blackhole.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(JsonDirtyCheckBenchmark.ROWS)
+	public void flushComparing(
+			final Blackhole blackhole) {
+		for (int row = 0; row < JsonDirtyCheckBenchmark.ROWS; row++) {
+			blackhole.consume(JsonMutabilityPlan.areEqual(this.values[row], this.snapshots[row]));
+		}
+	}
+
+	/**
+	 * Dirty checks the unchanged rows serializing the values and snapshots again.
+	 *
+	 * @param blackhole Blackhole.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(JsonDirtyCheckBenchmark.ROWS)
+	public void flushSerializing(
+			final Blackhole blackhole) {
+		for (int row = 0; row < JsonDirtyCheckBenchmark.ROWS; row++) {
+			blackhole.consume(Arrays.equals(this.converter.convertToDatabaseBytes(this.values[row]),
+					this.converter.convertToDatabaseBytes(this.snapshots[row])));
+		}
+	}
+
+}
@@ -1,17 +1,52 @@
 package org.coldis.library.test.persistence.history;
 
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 import org.apache.commons.collections4.IterableUtils;
+import org.coldis.library.helper.DateTimeHelper;
+import org.coldis.library.persistence.converter.JsonCompressionHelper;
+import org.coldis.library.persistence.history.EntityHistoryDeltaTracker;
+import org.coldis.library.persistence.history.EntityHistoryOutbox;
+import org.coldis.library.persistence.history.EntityHistoryPartitionService;
+import org.coldis.library.persistence.history.EntityHistoryPartitioning;
+import org.coldis.library.persistence.history.EntityHistoryProducerService;
+import org.coldis.library.persistence.history.HistoricalEntityListener;
+import org.coldis.library.persistence.history.JsonPatchHelper;
 import org.coldis.library.serialization.ObjectMapperHelper;
 import org.coldis.library.test.ContainerExtension;
 import org.coldis.library.test.TestHelper;
 import org.coldis.library.test.persistence.TestApplication;
+import org.coldis.library.test.persistence.history.historical.model.TestDeltaHistoricalEntityHistory;
+import org.coldis.library.test.persistence.history.historical.model.TestHistoricalEntityHistory;
+import org.coldis.library.test.persistence.history.historical.repository.TestCompressedHistoricalEntityHistoryRepository;
+import org.coldis.library.test.persistence.history.historical.repository.TestDeltaHistoricalEntityHistoryRepository;
 import org.coldis.library.test.persistence.history.historical.repository.TestHistoricalEntityHistoryRepository;
+import org.coldis.library.test.persistence.history.historical.repository.TestOutboxHistoricalEntityHistoryRepository;
+import org.coldis.library.test.persistence.history.historical.repository.TestPartitionedHistoricalEntityHistoryRepository;
+import org.coldis.library.test.persistence.history.historical.repository.TestPassThroughHistoricalEntityHistoryRepository;
+import org.coldis.library.test.persistence.history.historical.service.TestHistoricalEntityHistoryConsumerService;
+import org.coldis.library.test.persistence.history.historical.service.TestHistoricalEntityHistoryProducerService;
+import org.coldis.library.test.persistence.history.historical.service.TestOutboxHistoricalEntityHistoryConsumerService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.AbstractMessageListenerContainer;
 import org.testcontainers.containers.GenericContainer;
 
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -22,7 +57,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @SpringBootTest(
 		webEnvironment = WebEnvironment.RANDOM_PORT,
 		classes = TestApplication.class,
-		properties = {"org.coldis.library.persistence.history.history-producer.core-size=", "org.coldis.library.persistence.history.history-producer.core-size-cpu-multiplier=" }
+		properties = {"org.coldis.library.persistence.history.history-producer.core-size=", "org.coldis.library.persistence.history.history-producer.core-size-cpu-multiplier=",
+				"org.coldis.library.test.persistence.history.historical.model.testhistoricalentityhistory.history-consumer-batch-size=10",
+				"org.coldis.library.persistence.history.partition-maintenance.enabled=true", "org.coldis.library.persistence.history.outbox.table.enabled=true",
+				"org.coldis.library.persistence.history.outbox-relay.enabled=true",
+				"org.coldis.library.persistence.compression.dictionaries={1:'classpath:json-dictionary.txt'}",
+				"org.coldis.library.persistence.compression.current-dictionary=1" }
 )
 public class HistoricalEntityDirectQueueTest {
 
@@ -54,6 +94,108 @@ public class HistoricalEntityDirectQueueTest {
 	@Autowired
 	private TestHistoricalEntityHistoryRepository testHistoricalEntityHistoryRepository;
 
+	/**
+	 * Test entity (with a partitioned history table) repository.
+	 */
+	@Autowired
+	private TestPartitionedHistoricalEntityRepository testPartitionedHistoricalEntityRepository;
+
+	/**
+	 * Test entity (with a partitioned history table) history repository.
+	 */
+	@Autowired
+	private TestPartitionedHistoricalEntityHistoryRepository testPartitionedHistoricalEntityHistoryRepository;
+
+	/**
+	 * Test entity (with compressed history) repository.
+	 */
+	@Autowired
+	private TestCompressedHistoricalEntityRepository testCompressedHistoricalEntityRepository;
+
+	/**
+	 * Test entity (with compressed history) history repository.
+	 */
+	@Autowired
+	private TestCompressedHistoricalEntityHistoryRepository testCompressedHistoricalEntityHistoryRepository;
+
+	/**
+	 * Test entity (with history stored as patches) repository.
+	 */
+	@Autowired
+	private TestDeltaHistoricalEntityRepository testDeltaHistoricalEntityRepository;
+
+	/**
+	 * Test entity (with history stored as patches) history repository.
+	 */
+	@Autowired
+	private TestDeltaHistoricalEntityHistoryRepository testDeltaHistoricalEntityHistoryRepository;
+
+	/**
+	 * Test entity (with history written to the outbox) repository.
+	 */
+	@Autowired
+	private TestOutboxHistoricalEntityRepository testOutboxHistoricalEntityRepository;
+
+	/**
+	 * Test entity (with history written to the outbox) history repository.
+	 */
+	@Autowired
+	private TestOutboxHistoricalEntityHistoryRepository testOutboxHistoricalEntityHistoryRepository;
+
+	/**
+	 * Test entity (with the history state passed through) repository.
+	 */
+	@Autowired
+	private TestPassThroughHistoricalEntityRepository testPassThroughHistoricalEntityRepository;
+
+	/**
+	 * Test entity (with the history state passed through) history repository.
+	 */
+	@Autowired
+	private TestPassThroughHistoricalEntityHistoryRepository testPassThroughHistoricalEntityHistoryRepository;
+
+	/**
+	 * Test entity history consumer service.
+	 */
+	@Autowired
+	private TestHistoricalEntityHistoryConsumerService testHistoricalEntityHistoryConsumerService;
+
+	/**
+	 * JMS listener registry.
+	 */
+	@Autowired
+	private JmsListenerEndpointRegistry jmsListenerEndpointRegistry;
+
+	/**
+	 * JDBC template.
+	 */
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Entity history partition service.
+	 */
+	@Autowired
+	private EntityHistoryPartitionService entityHistoryPartitionService;
+
+	/**
+	 * Test entity history producer service.
+	 */
+	@Autowired
+	private TestHistoricalEntityHistoryProducerService testHistoricalEntityHistoryProducerService;
+
+	/**
+	 * Historical entity listener.
+	 */
+	@Autowired
+	private HistoricalEntityListener historicalEntityListener;
+
+	/**
+	 * Application context.
+	 */
+	@Autowired
+	private ApplicationContext applicationContext;
+
 	/**
 	 * Tests the history change tracking.
 	 *
@@ -96,6 +238,333 @@ public class HistoricalEntityDirectQueueTest {
 					// Compares the two entities.
 					return testHistoricalEntity.equals(testHistoricalEntity2);
 				}), TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		// Makes sure the entity history can be found by the original entity identifier.
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> this.testHistoricalEntityHistoryRepository.findByEntityIdOrderByUpdatedAtDesc(testHistoricalEntity1.getId()), (
+				entityHistoryList) -> entityHistoryList.size() == 2, TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		Assertions.assertEquals("2", this.testHistoricalEntityHistoryRepository.findByEntityIdOrderByUpdatedAtDesc(testHistoricalEntity1.getId()).get(0).getState().get("test"));
+	}
+
+	/**
+	 * Tests the history consumer batches.
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	public void testEntityHistoryConsumerBatch() throws Exception {
+		// Queues the history messages while the listeners are stopped.
+		final long receivedMessageCount = this.testHistoricalEntityHistoryConsumerService.getReceivedMessageCount();
+		final long saveCount = this.testHistoricalEntityHistoryConsumerService.getSaveCount();
+		final long savedCount = this.testHistoricalEntityHistoryConsumerService.getSavedCount();
+		this.jmsListenerEndpointRegistry.stop();
+		try {
+			for (int index = 0; index < 30; index++) {
+				this.testHistoricalEntityService.save(new TestHistoricalEntity("batch" + index));
+			}
+		}
+		finally {
+			this.jmsListenerEndpointRegistry.start();
+		}
+		// Makes sure the queued messages are drained and saved in batches.
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> this.testHistoricalEntityHistoryConsumerService.getSavedCount() - savedCount,
+				(saved) -> saved >= 30, TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		Assertions.assertTrue((this.testHistoricalEntityHistoryConsumerService.getReceivedMessageCount() - receivedMessageCount) >= 30);
+		Assertions.assertTrue((this.testHistoricalEntityHistoryConsumerService.getSaveCount() - saveCount) < 30);
+	}
+
+	/**
+	 * Tests the history pages.
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	public void testEntityHistoryPages() throws Exception {
+		// Creates new test entities.
+		final LocalDateTime from = LocalDateTime.now().minusMinutes(1);
+		final LocalDateTime to = LocalDateTime.now().plusDays(1);
+		for (int index = 0; index < 5; index++) {
+			this.testHistoricalEntityService.save(new TestHistoricalEntity("page" + index));
+		}
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> this.testHistoricalEntityHistoryRepository.findFirstByUpdatedAtRange(from, to, 1000), (
+				entityHistoryList) -> entityHistoryList.size() >= 5, TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		final List<TestHistoricalEntityHistory> allHistory = this.testHistoricalEntityHistoryRepository.findFirstByUpdatedAtRange(from, to, 1000);
+		// Makes sure the pages (from the cursors) have the same history.
+		final List<TestHistoricalEntityHistory> pagedHistory = new ArrayList<>();
+		List<TestHistoricalEntityHistory> page = this.testHistoricalEntityHistoryRepository.findFirstByUpdatedAtRange(from, to, 2);
+		while (!page.isEmpty()) {
+			Assertions.assertTrue(page.size() <= 2);
+			pagedHistory.addAll(page);
+			final TestHistoricalEntityHistory last = page.get(page.size() - 1);
+			page = this.testHistoricalEntityHistoryRepository.findNextByUpdatedAtRange(last.getUpdatedAt(), last.getId(), to, PageRequest.ofSize(2));
+		}
+		Assertions.assertEquals(allHistory.stream().map(TestHistoricalEntityHistory::getId).toList(),
+				pagedHistory.stream().map(TestHistoricalEntityHistory::getId).toList());
+	}
+
+	/**
+	 * Tests the history patches.
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	public void testEntityHistoryPatch() throws Exception {
+		// Creates two consecutive entity states.
+		final Map<String, Object> state1 = Map.of("test", "1", "updatedAt", "a", "list", List.of(1, 2), "map", Map.of("a", 1, "b", 2));
+		final Map<String, Object> state2 = Map.of("test", "2", "updatedAt", "b", "list", List.of(1, 3, 4), "map", Map.of("a", 1, "c", 3));
+		// Makes sure the first state is a keyframe and the second is a patch.
+		final EntityHistoryDeltaTracker deltaTracker = new EntityHistoryDeltaTracker(2, 10);
+		Assertions.assertNull(deltaTracker.getBase("1", "state1"));
+		Assertions.assertEquals("state1", deltaTracker.getBase("1", "state2"));
+		Assertions.assertNull(deltaTracker.getBase("1", "state2"));
+		final List<Map<String, Object>> patch = EntityHistoryDeltaTracker.createPatch(state1, state2);
+		// Makes sure the patch rebuilds the second state from the first.
+		Assertions.assertEquals(state2, JsonPatchHelper.apply(state1, patch));
+		Assertions.assertThrows(Exception.class, () -> JsonPatchHelper.apply(state2, patch));
+	}
+
+	/**
+	 * Tests the history stored as patches.
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	public void testEntityHistoryDelta() throws Exception {
+		// Creates and updates an entity.
+		final TestDeltaHistoricalEntity testEntity = this.testDeltaHistoricalEntityRepository.save(new TestDeltaHistoricalEntity("1"));
+		testEntity.setTest("2");
+		this.testDeltaHistoricalEntityRepository.save(testEntity);
+		testEntity.setTest("3");
+		this.testDeltaHistoricalEntityRepository.save(testEntity);
+		// Makes sure the first update is a keyframe and the next ones are patches.
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> this.testDeltaHistoricalEntityHistoryRepository.findByEntityIdOrderByUpdatedAtDesc(testEntity.getId()),
+				(entityHistoryList) -> entityHistoryList.size() == 3, TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		Assertions.assertEquals(1, this.testDeltaHistoricalEntityHistoryRepository.findByEntityIdOrderByUpdatedAtDesc(testEntity.getId()).stream()
+				.filter(TestDeltaHistoricalEntityHistory::getKeyframe).count());
+		// Makes sure the state is rebuilt from the keyframe and the patches.
+		Assertions.assertEquals("3", this.testDeltaHistoricalEntityHistoryRepository
+				.reconstructState(testEntity.getId(), DateTimeHelper.getCurrentLocalDateTime().plusDays(1)).get("test"));
+		// Makes sure a keyframe is sent after the keyframe interval.
+		testEntity.setTest("4");
+		this.testDeltaHistoricalEntityRepository.save(testEntity);
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> this.testDeltaHistoricalEntityHistoryRepository.findByEntityIdOrderByUpdatedAtDesc(testEntity.getId()),
+				(entityHistoryList) -> entityHistoryList.stream().filter(TestDeltaHistoricalEntityHistory::getKeyframe).count() == 2, TestHelper.LONG_WAIT,
+				TestHelper.SHORT_WAIT));
+		Assertions.assertEquals("4", this.testDeltaHistoricalEntityHistoryRepository
+				.reconstructState(testEntity.getId(), DateTimeHelper.getCurrentLocalDateTime().plusDays(1)).get("test"));
+		// Makes sure the next keyframe is used when a patch does not apply (created
+		// from a stale state).
+		final TestDeltaHistoricalEntityHistory stalePatch = new TestDeltaHistoricalEntityHistory(null, DateTimeHelper.getCurrentLocalDateTime());
+		stalePatch.setEntityId(testEntity.getId());
+		stalePatch.setKeyframe(false);
+		stalePatch.setPatch(List.of(Map.of("op", "test", "path", "/test", "value", "stale"), Map.of("op", "replace", "path", "/test", "value", "5")));
+		final LocalDateTime stalePatchDate = this.testDeltaHistoricalEntityHistoryRepository.save(stalePatch).getUpdatedAt();
+		final TestDeltaHistoricalEntityHistory nextKeyframe = new TestDeltaHistoricalEntityHistory(new HashMap<>(Map.of("test", "6")),
+				DateTimeHelper.getCurrentLocalDateTime());
+		nextKeyframe.setEntityId(testEntity.getId());
+		nextKeyframe.setKeyframe(true);
+		this.testDeltaHistoricalEntityHistoryRepository.save(nextKeyframe);
+		Assertions.assertEquals("6", this.testDeltaHistoricalEntityHistoryRepository.reconstructState(testEntity.getId(), stalePatchDate).get("test"));
+	}
+
+	/**
+	 * Tests the history with the state passed through.
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	public void testEntityHistoryPassThrough() throws Exception {
+		// Creates and updates an entity.
+		final TestPassThroughHistoricalEntity testEntity = this.testPassThroughHistoricalEntityRepository.save(new TestPassThroughHistoricalEntity("1"));
+		testEntity.setTest("2");
+		this.testPassThroughHistoricalEntityRepository.save(testEntity);
+		// Makes sure the history is saved with the entity identifier (from the message
+		// properties) and the raw state.
+		Assertions.assertTrue(TestHelper.waitUntilValid(
+				() -> this.testPassThroughHistoricalEntityHistoryRepository.findByEntityIdOrderByUpdatedAtDesc(testEntity.getId()),
+				(entityHistoryList) -> entityHistoryList.size() == 2, TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		Assertions.assertEquals(Set.of("1", "2"), this.testPassThroughHistoricalEntityHistoryRepository.findByEntityIdOrderByUpdatedAtDesc(testEntity.getId())
+				.stream().map((entityHistory) -> entityHistory.getState().get("test")).collect(Collectors.toSet()));
+		Assertions.assertEquals(testEntity.getId(), ((Number) this.testPassThroughHistoricalEntityHistoryRepository
+				.findByEntityIdOrderByUpdatedAtDesc(testEntity.getId()).get(0).getState().get("id")).longValue());
+	}
+
+	/**
+	 * Tests the compressed history.
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	public void testEntityHistoryCompressed() throws Exception {
+		// Makes sure the compressed entity history is saved and read.
+		final TestCompressedHistoricalEntity testEntity = this.testCompressedHistoricalEntityRepository.save(new TestCompressedHistoricalEntity("1"));
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> this.testCompressedHistoricalEntityHistoryRepository.findByEntityIdOrderByUpdatedAtDesc(testEntity.getId()),
+				(entityHistoryList) -> entityHistoryList.size() == 1, TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		Assertions.assertEquals("1",
+				this.testCompressedHistoricalEntityHistoryRepository.findByEntityIdOrderByUpdatedAtDesc(testEntity.getId()).get(0).getState().get("test"));
+		// Makes sure the state is stored compressed with the configured dictionary.
+		final ByteBuffer state = ByteBuffer.wrap(this.jdbcTemplate.queryForObject("SELECT state FROM TestCompressedHistoricalEntityHistory WHERE entityId = ?",
+				byte[].class, testEntity.getId()));
+		Assertions.assertEquals(JsonCompressionHelper.FORMAT_VERSION, state.get());
+		Assertions.assertEquals(1, state.getInt());
+	}
+
+	/**
+	 * Tests the history table partitions.
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	public void testEntityHistoryPartitions() throws Exception {
+		// Converts an empty table into a partitioned table.
+		final String table = "test_partitioned_history";
+		this.jdbcTemplate.execute("CREATE TABLE " + table + " (id BIGINT PRIMARY KEY, updated_at TIMESTAMPTZ NOT NULL, state JSONB)");
+		this.jdbcTemplate.execute("CREATE INDEX " + table + "_updated_at ON " + table + " (updated_at)");
+		Assertions.assertTrue(this.entityHistoryPartitionService.partitionTable(table, "id", "updated_at"));
+		Assertions.assertTrue(this.entityHistoryPartitionService.isPartitioned(table));
+		Assertions.assertFalse(this.entityHistoryPartitionService.partitionTable(table, "id", "updated_at"));
+		// Creates the current and the next partitions.
+		Assertions.assertEquals(List.of(table + "_p202601", table + "_p202602", table + "_p202603", table + "_p202604"),
+				this.entityHistoryPartitionService.createPartitions(table, EntityHistoryPartitioning.MONTHLY, LocalDate.of(2026, 1, 15)));
+		this.jdbcTemplate.update("INSERT INTO " + table + " (id, updated_at) VALUES (1, '2026-01-10'), (2, '2026-02-10')");
+		Assertions.assertEquals(1, this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + "_p202602", Long.class));
+		// Makes sure only the partitions past the retention are removed.
+		Assertions.assertEquals(List.of(table + "_p202601"),
+				this.entityHistoryPartitionService.removePartitions(table, EntityHistoryPartitioning.MONTHLY, 1, LocalDate.of(2026, 3, 1)));
+		Assertions.assertEquals(1, this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class));
+		// Makes sure rows in the default partition are moved to the partition created
+		// for their period.
+		this.jdbcTemplate.update("INSERT INTO " + table + " (id, updated_at) VALUES (3, '2026-06-10')");
+		Assertions.assertEquals(1, this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + "_default", Long.class));
+		Assertions.assertTrue(this.entityHistoryPartitionService.createPartitions(table, EntityHistoryPartitioning.MONTHLY, LocalDate.of(2026, 6, 1))
+				.contains(table + "_p202606"));
+		Assertions.assertEquals(0, this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + "_default", Long.class));
+		Assertions.assertEquals(1, this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + "_p202606", Long.class));
+	}
+
+	/**
+	 * Tests the migration of history tables with rows.
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	public void testEntityHistoryPartitionMigration() throws Exception {
+		// Makes sure a table with rows is not converted.
+		final String table = "test_migrated_history";
+		this.jdbcTemplate.execute("CREATE TABLE " + table + " (id BIGINT PRIMARY KEY, updated_at TIMESTAMPTZ NOT NULL, state JSONB)");
+		this.jdbcTemplate.execute("CREATE INDEX " + table + "_updated_at ON " + table + " (updated_at)");
+		this.jdbcTemplate.update("INSERT INTO " + table + " (id, updated_at) VALUES (1, '2025-11-10'), (2, '2025-12-10'), (3, '2025-12-20'), (4, '2026-01-05')");
+		Assertions.assertFalse(this.entityHistoryPartitionService.partitionTable(table, "id", "updated_at"));
+		Assertions.assertFalse(this.entityHistoryPartitionService.isPartitioned(table));
+		// Makes sure the table is migrated (in batches), with partitions for its rows.
+		Assertions.assertTrue(this.entityHistoryPartitionService.migrateTable(table, "id", "updated_at", EntityHistoryPartitioning.MONTHLY, 3));
+		Assertions.assertTrue(this.entityHistoryPartitionService.isPartitioned(table));
+		Assertions.assertFalse(this.entityHistoryPartitionService.migrateTable(table, "id", "updated_at", EntityHistoryPartitioning.MONTHLY, 3));
+		Assertions.assertEquals(4, this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class));
+		Assertions.assertEquals(2, this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + "_p202512", Long.class));
+		Assertions.assertEquals(0, this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + "_default", Long.class));
+		Assertions.assertEquals(1, this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_indexes WHERE indexname = ?", Long.class, table + "_updated_at"));
+	}
+
+	/**
+	 * Tests the partitioned history tables.
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	public void testEntityHistoryPartitionedTable() throws Exception {
+		// Makes sure the (empty) history table is partitioned by the maintenance.
+		final String table = "TestPartitionedHistoricalEntityHistory";
+		final LocalDate today = LocalDate.now();
+		final String partition = table + EntityHistoryPartitionService.PARTITION_SUFFIX
+				+ EntityHistoryPartitioning.MONTHLY.getSuffix(EntityHistoryPartitioning.MONTHLY.getStart(today));
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> this.entityHistoryPartitionService.isPartitioned(table) && this.entityHistoryPartitionService
+				.createPartitions(table, EntityHistoryPartitioning.MONTHLY, today).contains(partition), (partitioned) -> partitioned, TestHelper.LONG_WAIT,
+				TestHelper.SHORT_WAIT));
+		// Makes sure the entity history is saved in the current partition.
+		final TestPartitionedHistoricalEntity testEntity = this.testPartitionedHistoricalEntityRepository.save(new TestPartitionedHistoricalEntity("1"));
+		Assertions.assertTrue(TestHelper.waitUntilValid(
+				() -> this.testPartitionedHistoricalEntityHistoryRepository.findByEntityIdOrderByUpdatedAtDesc(testEntity.getId()),
+				(entityHistoryList) -> entityHistoryList.size() == 1, TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		Assertions.assertEquals("1", this.testPartitionedHistoricalEntityHistoryRepository.findByEntityIdOrderByUpdatedAtDesc(testEntity.getId()).get(0)
+				.getState().get("test"));
+		Assertions.assertEquals(1, this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partition + " WHERE entityId = ?", Long.class,
+				testEntity.getId()));
+	}
+
+	/**
+	 * Tests the history outbox.
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	public void testEntityHistoryOutbox() throws Exception {
+		// Makes sure the entity history is relayed from the outbox.
+		final TestOutboxHistoricalEntity testEntity = this.testOutboxHistoricalEntityRepository.save(new TestOutboxHistoricalEntity("1"));
+		testEntity.setTest("2");
+		this.testOutboxHistoricalEntityRepository.save(testEntity);
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> this.testOutboxHistoricalEntityHistoryRepository.findByEntityIdOrderByUpdatedAtDesc(testEntity.getId()),
+				(entityHistoryList) -> entityHistoryList.size() == 2, TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		Assertions.assertEquals("2",
+				this.testOutboxHistoricalEntityHistoryRepository.findByEntityIdOrderByUpdatedAtDesc(testEntity.getId()).get(0).getState().get("test"));
+		// Makes sure the relayed updates are removed from the outbox.
+		Assertions.assertTrue(TestHelper.waitUntilValid(
+				() -> this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + EntityHistoryOutbox.TABLE, Long.class), (count) -> count == 0,
+				TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+	}
+
+	/**
+	 * Tests that the history outbox does not need JMS (when relayed directly).
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	public void testEntityHistoryOutboxWithoutBroker() throws Exception {
+		// Makes sure no JMS listener is created for the outbox history.
+		Assertions.assertTrue(this.applicationContext.getBeansOfType(TestOutboxHistoricalEntityHistoryConsumerService.QueueListener.class).isEmpty());
+		Assertions.assertTrue(this.jmsListenerEndpointRegistry.getListenerContainers().stream()
+				.noneMatch((container) -> TestOutboxHistoricalEntityHistoryConsumerService.QUEUE
+						.equals(((AbstractMessageListenerContainer) container).getDestinationName())));
+		// Stops all JMS listeners and makes sure the outbox history is still saved.
+		this.jmsListenerEndpointRegistry.stop();
+		try {
+			final TestOutboxHistoricalEntity testEntity = this.testOutboxHistoricalEntityRepository.save(new TestOutboxHistoricalEntity("1"));
+			Assertions.assertTrue(TestHelper.waitUntilValid(
+					() -> this.testOutboxHistoricalEntityHistoryRepository.findByEntityIdOrderByUpdatedAtDesc(testEntity.getId()),
+					(entityHistoryList) -> entityHistoryList.size() == 1, TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		}
+		finally {
+			this.jmsListenerEndpointRegistry.start();
+		}
+	}
+
+	/**
+	 * Tests the entity history services resolution by the listener.
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	public void testEntityHistoryListenerDispatch() throws Exception {
+		// Rebuilds the entity history services for the application context.
+		this.historicalEntityListener.setApplicationContext(this.applicationContext);
+		final long resolutionCount = HistoricalEntityListener.getEntityHistoryServiceResolutionCount();
+		// Makes sure the non historical entities are resolved (to no service) only
+		// once.
+		this.historicalEntityListener.handleUpdate(new Object());
+		Assertions.assertTrue(HistoricalEntityListener.findEntityHistoryService(Object.class).isEmpty());
+		this.historicalEntityListener.handleUpdate(new Object());
+		Assertions.assertEquals(resolutionCount + 1, HistoricalEntityListener.getEntityHistoryServiceResolutionCount());
+		// Makes sure the historical entities are resolved to their service only once.
+		final Optional<EntityHistoryProducerService<Object>> entityHistoryService = HistoricalEntityListener
+				.findEntityHistoryService(TestHistoricalEntity.class);
+		Assertions.assertSame(this.testHistoricalEntityHistoryProducerService, entityHistoryService.get());
+		Assertions.assertSame(entityHistoryService, HistoricalEntityListener.findEntityHistoryService(TestHistoricalEntity.class));
+		Assertions.assertEquals(resolutionCount + 2, HistoricalEntityListener.getEntityHistoryServiceResolutionCount());
+		// Makes sure the entity history services are resolved again when the
+		// application context changes.
+		this.historicalEntityListener.setApplicationContext(this.applicationContext);
+		Assertions.assertTrue(HistoricalEntityListener.findEntityHistoryService(Object.class).isEmpty());
+		Assertions.assertSame(this.testHistoricalEntityHistoryProducerService,
+				HistoricalEntityListener.findEntityHistoryService(TestHistoricalEntity.class).get());
+		Assertions.assertEquals(resolutionCount + 4, HistoricalEntityListener.getEntityHistoryServiceResolutionCount());
 	}
 
 }
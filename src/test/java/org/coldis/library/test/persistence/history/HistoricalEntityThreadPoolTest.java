@@ -1,11 +1,31 @@
 package org.coldis.library.test.persistence.history;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
 import org.apache.commons.collections4.IterableUtils;
+import org.coldis.library.persistence.history.EntityHistoryCoalescer;
+import org.coldis.library.persistence.history.EntityHistoryExecutor;
+import org.coldis.library.persistence.history.EntityHistoryOverflowPolicy;
+import org.coldis.library.persistence.history.EntityHistoryTask;
+import org.coldis.library.persistence.history.EntityHistoryUpdate;
+import org.coldis.library.persistence.history.EntityHistoryVirtualThreadExecutor;
+import org.coldis.library.persistence.history.MappedEntityHistoryJournal;
 import org.coldis.library.serialization.ObjectMapperHelper;
 import org.coldis.library.test.ContainerExtension;
 import org.coldis.library.test.TestHelper;
 import org.coldis.library.test.persistence.TestApplication;
 import org.coldis.library.test.persistence.history.historical.repository.TestHistoricalEntityHistoryRepository;
+import org.coldis.library.test.persistence.history.historical.service.TestHistoricalEntityHistoryConsumerService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,7 +41,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @ExtendWith(ContainerExtension.class)
 @SpringBootTest(
 		webEnvironment = WebEnvironment.RANDOM_PORT,
-		classes = TestApplication.class
+		classes = TestApplication.class,
+		properties = { "org.coldis.library.test.persistence.history.historical.model.testhistoricalentityhistory.history-batch-size=10",
+				"org.coldis.library.test.persistence.history.historical.model.testhistoricalentityhistory.history-async-serialization=true" }
 )
 public class HistoricalEntityThreadPoolTest {
 
@@ -53,6 +75,12 @@ public class HistoricalEntityThreadPoolTest {
 	@Autowired
 	private TestHistoricalEntityHistoryRepository testHistoricalEntityHistoryRepository;
 
+	/**
+	 * Test entity history consumer service.
+	 */
+	@Autowired
+	private TestHistoricalEntityHistoryConsumerService testHistoricalEntityHistoryConsumerService;
+
 	/**
 	 * Tests the history change tracking.
 	 *
@@ -99,4 +127,179 @@ public class HistoricalEntityThreadPoolTest {
 				}), TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
 	}
 
+	/**
+	 * Tests the history batches.
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	public void testEntityHistoryBatches() throws Exception {
+		// Creates new test entities.
+		final long receivedMessageCount = this.testHistoricalEntityHistoryConsumerService.getReceivedMessageCount();
+		final long receivedBatchMessageCount = this.testHistoricalEntityHistoryConsumerService.getReceivedBatchMessageCount();
+		final long savedCount = this.testHistoricalEntityHistoryConsumerService.getSavedCount();
+		for (int index = 0; index < 30; index++) {
+			this.testHistoricalEntityService.save(new TestHistoricalEntity("batch" + index));
+		}
+		// Makes sure the updates are sent in batch messages and unpacked by the
+		// consumer.
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> this.testHistoricalEntityHistoryConsumerService.getSavedCount() - savedCount,
+				(saved) -> saved >= 30, TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		final long messages = this.testHistoricalEntityHistoryConsumerService.getReceivedMessageCount() - receivedMessageCount;
+		Assertions.assertEquals(messages, this.testHistoricalEntityHistoryConsumerService.getReceivedBatchMessageCount() - receivedBatchMessageCount);
+		Assertions.assertTrue(messages < 30);
+	}
+
+	/**
+	 * Tests the thread pool overflow policies.
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	public void testThreadPoolOverflowPolicies() throws Exception {
+		// Creates executors on top of a saturated pool.
+		final List<EntityHistoryUpdate> spilled = new ArrayList<>();
+		final EntityHistoryExecutor callerRuns = new EntityHistoryExecutor((
+				task) -> {
+			throw new RejectedExecutionException();
+		}, EntityHistoryOverflowPolicy.CALLER_RUNS, null, null);
+		final EntityHistoryExecutor drop = new EntityHistoryExecutor((
+				task) -> {
+			throw new RejectedExecutionException();
+		}, EntityHistoryOverflowPolicy.DROP, null, null);
+		final EntityHistoryExecutor spill = new EntityHistoryExecutor((
+				task) -> {
+			throw new RejectedExecutionException();
+		}, EntityHistoryOverflowPolicy.SPILL, Duration.ZERO, () -> (
+				destination,
+				update) -> spilled.add(update));
+		// Makes sure each policy is applied.
+		final List<String> executed = new ArrayList<>();
+		callerRuns.execute(() -> executed.add("1"));
+		Assertions.assertEquals(List.of("1"), executed);
+		Assertions.assertThrows(RejectedExecutionException.class, () -> drop.execute(() -> executed.add("2")));
+		final EntityHistoryUpdate update = new EntityHistoryUpdate("{}", Map.of());
+		spill.execute(new EntityHistoryTask("queue", update, () -> executed.add("3")));
+		Assertions.assertEquals(List.of("1"), executed);
+		Assertions.assertEquals(List.of(update), spilled);
+		// Makes sure tasks creating the update lazily (asynchronous serialization) can
+		// also be spilled.
+		final EntityHistoryUpdate lazyUpdate = new EntityHistoryUpdate("{\"test\":1}", Map.of());
+		spill.execute(new EntityHistoryTask("queue", () -> lazyUpdate, (
+				currentUpdate) -> executed.add("4")));
+		Assertions.assertEquals(List.of("1"), executed);
+		Assertions.assertEquals(List.of(update, lazyUpdate), spilled);
+		Assertions.assertEquals(1, callerRuns.getRejectedCount());
+		Assertions.assertEquals(1, drop.getDroppedCount());
+		Assertions.assertEquals(2, spill.getSpilledCount());
+		Assertions.assertEquals(0, spill.getQueueDepth());
+	}
+
+	/**
+	 * Tests the entity history journal.
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	public void testJournalReplay() throws Exception {
+		// Appends updates to a journal with small segments.
+		final Path directory = Files.createTempDirectory("entity-history-journal");
+		MappedEntityHistoryJournal journal = new MappedEntityHistoryJournal(directory, 256, this.objectMapper);
+		journal.open();
+		for (int index = 0; index < 10; index++) {
+			journal.append("queue", new EntityHistoryUpdate("{\"test\":" + index + "}", Map.of("user", "user" + index)));
+		}
+		journal.close();
+		// Makes sure the updates are replayed in order after reopening the journal, and
+		// only until the first failure.
+		journal = new MappedEntityHistoryJournal(directory, 256, this.objectMapper);
+		journal.open();
+		Assertions.assertTrue(journal.hasPending());
+		final List<String> replayed = new ArrayList<>();
+		Assertions.assertEquals(5, journal.replay((
+				destination,
+				update) -> {
+			if (replayed.size() == 5) {
+				throw new IllegalStateException();
+			}
+			replayed.add(update.getContent());
+		}));
+		Assertions.assertEquals(5, journal.replay((
+				destination,
+				update) -> replayed.add(update.getContent())));
+		Assertions.assertEquals(0, journal.replay((
+				destination,
+				update) -> replayed.add(update.getContent())));
+		Assertions.assertFalse(journal.hasPending());
+		for (int index = 0; index < 10; index++) {
+			Assertions.assertEquals("{\"test\":" + index + "}", replayed.get(index));
+		}
+		journal.close();
+	}
+
+	/**
+	 * Tests the virtual thread executor in flight limit.
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	public void testVirtualThreadExecutorLimit() throws Exception {
+		// Starts a task that holds the only permit.
+		final EntityHistoryVirtualThreadExecutor executor = new EntityHistoryVirtualThreadExecutor("test-history", 1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch finished = new CountDownLatch(1);
+		executor.execute(() -> {
+			try {
+				release.await();
+			}
+			catch (final InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		// Makes sure tasks over the limit are rejected until the permit is released.
+		Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {}));
+		release.countDown();
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> executor.getAvailablePermits(), (
+				permits) -> permits == 1, TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		executor.execute(finished::countDown);
+		Assertions.assertTrue(finished.await(5, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * Tests the coalescing of history updates for the same entity.
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	public void testCoalescer() throws Exception {
+		// Adds several updates for two entities within the window.
+		final List<String> emitted = Collections.synchronizedList(new ArrayList<>());
+		final EntityHistoryCoalescer<String> coalescer = new EntityHistoryCoalescer<>(200, true, ForkJoinPool.commonPool(), emitted::add);
+		for (int index = 0; index < 10; index++) {
+			coalescer.add(1L, "1-" + index);
+			coalescer.add(2L, "2-" + index);
+		}
+		coalescer.add(null, "none");
+		// Makes sure only the first and the latest updates are emitted after the window.
+		Assertions.assertEquals(List.of("none"), List.copyOf(emitted));
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> emitted.size(), (
+				size) -> size == 5, TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		Assertions.assertTrue(emitted.containsAll(List.of("1-0", "1-9", "2-0", "2-9")));
+		// Makes sure pending updates are emitted when the coalescer is closed.
+		coalescer.add(1L, "1-10");
+		coalescer.close();
+		Assertions.assertEquals("1-10", emitted.get(5));
+		Assertions.assertEquals(0, coalescer.getPendingCount());
+		// Makes sure a flushed window does not end the next window for the same key.
+		final EntityHistoryCoalescer<String> slowCoalescer = new EntityHistoryCoalescer<>(400, false, ForkJoinPool.commonPool(), emitted::add);
+		slowCoalescer.add(3L, "3-0");
+		Thread.sleep(300);
+		slowCoalescer.flush();
+		slowCoalescer.add(3L, "3-1");
+		Thread.sleep(200);
+		Assertions.assertFalse(emitted.contains("3-1"));
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> emitted.contains("3-1"), (
+				contained) -> contained, TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+	}
+
 }
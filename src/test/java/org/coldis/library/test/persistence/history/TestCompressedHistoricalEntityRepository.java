@@ -0,0 +1,12 @@
+package org.coldis.library.test.persistence.history;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Test repository (for the entity with compressed history).
+ */
+@Repository
+public interface TestCompressedHistoricalEntityRepository extends CrudRepository<TestCompressedHistoricalEntity, Long> {
+
+}
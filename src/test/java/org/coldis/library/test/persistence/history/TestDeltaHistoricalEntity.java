@@ -0,0 +1,103 @@
+package org.coldis.library.test.persistence.history;
+
+import org.coldis.library.model.Identifiable;
+import org.coldis.library.model.view.ModelView;
+import org.coldis.library.persistence.history.HistoricalEntity;
+import org.coldis.library.persistence.history.HistoricalEntityListener;
+
+import com.fasterxml.jackson.annotation.JsonView;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+
+/**
+ * Test entity (with history stored as patches).
+ */
+@Entity
+@EntityListeners(HistoricalEntityListener.class)
+@HistoricalEntity(
+		basePackageName = "org.coldis.library.test.persistence.history.historical",
+		stateDelta = true,
+		stateDeltaKeyframeInterval = 3
+)
+public class TestDeltaHistoricalEntity implements Identifiable {
+
+	/**
+	 * Serial.
+	 */
+	private static final long serialVersionUID = -6403184957201347765L;
+
+	/**
+	 * Object identifier.
+	 */
+	private Long id;
+
+	/**
+	 * Test attribute.
+	 */
+	private String test;
+
+	/**
+	 * Test constructor.
+	 */
+	public TestDeltaHistoricalEntity() {
+	}
+
+	/**
+	 * Test constructor.
+	 *
+	 * @param test Test.
+	 */
+	public TestDeltaHistoricalEntity(final String test) {
+		super();
+		this.test = test;
+	}
+
+	/**
+	 * @see org.coldis.library.model.Identifiable#getId()
+	 */
+	@Id
+	@Override
+	@JsonView({ ModelView.Persistent.class, ModelView.Public.class })
+	@GeneratedValue(
+			strategy = GenerationType.SEQUENCE,
+			generator = "TestDeltaHistoricalEntitySequence"
+	)
+	public Long getId() {
+		return this.id;
+	}
+
+	/**
+	 * Sets the identifier.
+	 *
+	 * @param id New identifier.
+	 */
+	public void setId(
+			final Long id) {
+		this.id = id;
+	}
+
+	/**
+	 * Gets the test.
+	 *
+	 * @return The test.
+	 */
+	@JsonView({ ModelView.Persistent.class, ModelView.Public.class })
+	public String getTest() {
+		return this.test;
+	}
+
+	/**
+	 * Sets the test.
+	 *
+	 * @param test New test.
+	 */
+	public void setTest(
+			final String test) {
+		this.test = test;
+	}
+
+}
@@ -24,11 +24,7 @@ import jakarta.persistence.Transient;
 @Entity
 @EntityListeners(HistoricalEntityListener.class)
 @JsonTypeName(value = TestHistoricalEntity.TYPE_NAME)
-@HistoricalEntity(
-		basePackageName = "org.coldis.library.test.persistence.history.historical",
-		producerTargetPath = "src/test/java",
-		consumerTargetPath = "src/test/java"
-)
+@HistoricalEntity(basePackageName = "org.coldis.library.test.persistence.history.historical")
 public class TestHistoricalEntity implements Typable, Identifiable {
 
 	/**
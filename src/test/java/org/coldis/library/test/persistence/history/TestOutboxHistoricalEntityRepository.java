@@ -0,0 +1,12 @@
+package org.coldis.library.test.persistence.history;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Test repository (for the entity with history written to the outbox).
+ */
+@Repository
+public interface TestOutboxHistoricalEntityRepository extends CrudRepository<TestOutboxHistoricalEntity, Long> {
+
+}
@@ -0,0 +1,12 @@
+package org.coldis.library.test.persistence.history;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Test repository (for the entity with a partitioned history table).
+ */
+@Repository
+public interface TestPartitionedHistoricalEntityRepository extends CrudRepository<TestPartitionedHistoricalEntity, Long> {
+
+}
@@ -0,0 +1,12 @@
+package org.coldis.library.test.persistence.history;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Test repository (for the entity with the history state passed through).
+ */
+@Repository
+public interface TestPassThroughHistoricalEntityRepository extends CrudRepository<TestPassThroughHistoricalEntity, Long> {
+
+}
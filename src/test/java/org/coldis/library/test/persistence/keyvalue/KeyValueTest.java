@@ -4,6 +4,8 @@ import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
 import org.coldis.library.exception.BusinessException;
@@ -11,6 +13,8 @@ import org.coldis.library.helper.DateTimeHelper;
 import org.coldis.library.model.Typable;
 import org.coldis.library.persistence.LockBehavior;
 import org.coldis.library.persistence.keyvalue.KeyValue;
+import org.coldis.library.persistence.keyvalue.KeyValueCache;
+import org.coldis.library.persistence.keyvalue.KeyValueExpirationSweeper;
 import org.coldis.library.persistence.keyvalue.KeyValueService;
 import org.coldis.library.test.ContainerExtension;
 import org.coldis.library.test.TestHelper;
@@ -22,8 +26,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.testcontainers.containers.GenericContainer;
 
 /**
@@ -32,7 +39,10 @@ import org.testcontainers.containers.GenericContainer;
 @ExtendWith(ContainerExtension.class)
 @SpringBootTest(
 		webEnvironment = WebEnvironment.RANDOM_PORT,
-		classes = TestApplication.class
+		classes = TestApplication.class,
+		properties = { "org.coldis.library.persistence.keyvalue.cache.enabled=true", "org.coldis.library.persistence.keyvalue.prefix-index.enabled=true",
+				"org.coldis.library.persistence.keyvalue.expiration-column.enabled=true", "org.coldis.library.persistence.keyvalue.sweeper.enabled=true",
+				"org.coldis.library.persistence.keyvalue.sweeper.interval=500", "org.coldis.library.persistence.keyvalue.cache.notify.enabled=true" }
 )
 public class KeyValueTest {
 	
@@ -58,6 +68,24 @@ public class KeyValueTest {
 	@Autowired
 	private KeyValueService keyValueService;
 
+	/**
+	 * Key/value expiration sweeper.
+	 */
+	@Autowired
+	private KeyValueExpirationSweeper keyValueExpirationSweeper;
+
+	/**
+	 * Transaction manager.
+	 */
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/**
+	 * JDBC template.
+	 */
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
 	/**
 	 * Test lock period.
 	 */
@@ -114,6 +142,152 @@ public class KeyValueTest {
 		}
 	}
 
+	/**
+	 * Tests the key/value single statement create and update.
+	 *
+	 * @throws BusinessException If the test fails.
+	 */
+	@Test
+	public void testKeyValueUpsert() throws BusinessException {
+		// Makes sure creating an existing key replaces its value.
+		final KeyValue<Typable> createdKeyValue = this.keyValueService.create("upsert", new TestValue("1", 1L));
+		Assertions.assertNotNull(createdKeyValue.getCreatedAt());
+		this.keyValueService.create("upsert", new TestValue("2", 2L));
+		Assertions.assertEquals(new TestValue("2", 2L), this.keyValueService.findById("upsert").getValue());
+		// Makes sure the value is updated (and the creation date is kept).
+		final KeyValue<Typable> updatedKeyValue = this.keyValueService.update("upsert", new TestValue("3", 3L));
+		Assertions.assertEquals(new TestValue("3", 3L), this.keyValueService.findById("upsert").getValue());
+		Assertions.assertEquals(createdKeyValue.getCreatedAt(), updatedKeyValue.getCreatedAt());
+		// Makes sure missing keys are not updated.
+		Assertions.assertThrows(BusinessException.class, () -> this.keyValueService.update("upsert-missing", new TestValue("1", 1L)));
+		this.keyValueService.delete("upsert");
+	}
+
+	/**
+	 * Tests the key/value near cache.
+	 *
+	 * @throws Exception If the test fails.
+	 */
+	@Test
+	public void testKeyValueCache() throws Exception {
+		// Waits for the invalidation listener.
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_stat_activity WHERE query = ?",
+				Long.class, "LISTEN " + KeyValueCache.INVALIDATION_CHANNEL), (listeners) -> listeners > 0, TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		// Makes sure each read gets its own key/value, sharing the cached (deserialized) value.
+		this.keyValueService.create("cache", new TestValue("1", 1L));
+		final KeyValue<Typable> cachedKeyValue = this.keyValueService.findById("cache");
+		Assertions.assertNotSame(cachedKeyValue, this.keyValueService.findById("cache"));
+		Assertions.assertSame(cachedKeyValue.getValue(), this.keyValueService.findById("cache").getValue());
+		Assertions.assertEquals(new TestValue("1", 1L), this.keyValueService.findById("cache").getValue());
+		// Makes sure cached entries are reused (even if changed by other nodes).
+		this.jdbcTemplate.update("UPDATE KeyValue SET internalValue = jsonb_set(internalValue, '{attribute1}', '\"3\"') WHERE key = ?", "cache");
+		Assertions.assertEquals(new TestValue("1", 1L), this.keyValueService.findById("cache").getValue());
+		// Makes sure entries are invalidated when other nodes notify them.
+		this.jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, KeyValueCache.INVALIDATION_CHANNEL, "other" + KeyValueCache.INVALIDATION_SEPARATOR + "cache");
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> {
+			try {
+				return this.keyValueService.findById("cache").getValue();
+			}
+			catch (final BusinessException exception) {
+				return null;
+			}
+		}, (value) -> new TestValue("3", 1L).equals(value), TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		// Makes sure entries are invalidated when updated.
+		this.keyValueService.update("cache", new TestValue("2", 2L));
+		Assertions.assertEquals(new TestValue("2", 2L), this.keyValueService.findById("cache").getValue());
+		// Makes sure entries are invalidated when deleted.
+		this.keyValueService.delete("cache");
+		Assertions.assertThrows(BusinessException.class, () -> this.keyValueService.findById("cache"));
+	}
+
+	/**
+	 * Tests the key/value bulk operations.
+	 *
+	 * @throws BusinessException If the test fails.
+	 */
+	@Test
+	public void testKeyValueBulk() throws BusinessException {
+		// Creates and updates entries in a single batch.
+		this.keyValueService.putAll(Map.of("bulk3", new TestValue("3", 3L), "bulk1", new TestValue("1", 1L), "bulk2", new TestValue("2", 2L)));
+		this.keyValueService.putAll(Map.of("bulk2", new TestValue("4", 4L)));
+		// Makes sure the entries are found in key order.
+		final List<KeyValue<Typable>> keyValues = this.keyValueService.findAllByIds(List.of("bulk2", "bulk3", "bulk1", "bulk4"));
+		Assertions.assertEquals(List.of("bulk1", "bulk2", "bulk3"), keyValues.stream().map(KeyValue::getKey).toList());
+		Assertions.assertEquals(new TestValue("4", 4L), keyValues.get(1).getValue());
+		Assertions.assertEquals(new TestValue("4", 4L), this.keyValueService.findById("bulk2").getValue());
+		// Deletes the entries in a single statement.
+		Assertions.assertEquals(3, this.keyValueService.deleteAll(List.of("bulk1", "bulk2", "bulk3", "bulk4")));
+		Assertions.assertTrue(this.keyValueService.findAllByIds(List.of("bulk1", "bulk2", "bulk3")).isEmpty());
+	}
+
+	/**
+	 * Tests the key/value expiration.
+	 *
+	 * @throws BusinessException If the test fails.
+	 */
+	@Test
+	public void testKeyValueExpiration() throws BusinessException {
+		// Makes sure expired entries are not found.
+		final LocalDateTime now = DateTimeHelper.getCurrentLocalDateTime();
+		this.keyValueService.create("expired", new TestValue("1", 1L), now.minusSeconds(1));
+		this.keyValueService.create("expiring", new TestValue("2", 2L), now.plusHours(1));
+		Assertions.assertThrows(BusinessException.class, () -> this.keyValueService.findById("expired"));
+		Assertions.assertThrows(BusinessException.class, () -> this.keyValueService.update("expired", new TestValue("3", 3L)));
+		Assertions.assertEquals(List.of("expiring"), this.keyValueService.findAllByIds(List.of("expired", "expiring")).stream().map(KeyValue::getKey).toList());
+		Assertions.assertEquals(new TestValue("2", 2L), this.keyValueService.findById("expiring").getValue());
+		// Makes sure only expired entries are deleted (the sweeper might have
+		// deleted them already).
+		this.keyValueService.deleteExpired(10);
+		Assertions.assertFalse(this.keyValueService.getRepository().existsById("expired"));
+		Assertions.assertTrue(this.keyValueService.getRepository().existsById("expiring"));
+		this.keyValueService.delete("expiring");
+	}
+
+	/**
+	 * Tests the key/value expiration sweeper.
+	 *
+	 * @throws Exception If the test fails.
+	 */
+	@Test
+	public void testKeyValueExpirationSweeper() throws Exception {
+		// Makes sure expired entries are deleted by the sweeper thread.
+		final LocalDateTime now = DateTimeHelper.getCurrentLocalDateTime();
+		this.keyValueService.create("swept", new TestValue("1", 1L), now.minusSeconds(1));
+		this.keyValueService.create("kept", new TestValue("2", 2L), now.plusHours(1));
+		Assertions.assertTrue(TestHelper.waitUntilValid(() -> this.keyValueService.getRepository().existsById("swept"), (exists) -> !exists,
+				TestHelper.LONG_WAIT, TestHelper.SHORT_WAIT));
+		Assertions.assertTrue(this.keyValueService.getRepository().existsById("kept"));
+		// Makes sure nothing else is deleted when swept again.
+		this.keyValueExpirationSweeper.sweep();
+		Assertions.assertTrue(this.keyValueService.getRepository().existsById("kept"));
+		this.keyValueService.delete("kept");
+	}
+
+	/**
+	 * Tests the key/value prefix scans.
+	 *
+	 * @throws BusinessException If the test fails.
+	 */
+	@Test
+	public void testKeyValuePrefixScan() throws BusinessException {
+		// Creates entries (including one matching the prefix only if wildcards were
+		// not escaped).
+		this.keyValueService.putAll(Map.of("scan_1", new TestValue("1", 1L), "scan_2", new TestValue("2", 2L), "scan_3", new TestValue("3", 3L), "scanX4",
+				new TestValue("4", 4L)));
+		// Makes sure the entries are found page by page.
+		final List<KeyValue<Typable>> firstPage = this.keyValueService.findByKeyStart("scan_", null, 2);
+		Assertions.assertEquals(List.of("scan_1", "scan_2"), firstPage.stream().map(KeyValue::getKey).toList());
+		Assertions.assertEquals(List.of("scan_3"), this.keyValueService.findKeysByKeyStart("scan_", firstPage.get(1).getKey(), 2));
+		// Makes sure the entries are streamed.
+		Assertions.assertEquals(List.of(new TestValue("1", 1L), new TestValue("2", 2L), new TestValue("3", 3L)),
+				new TransactionTemplate(this.transactionManager).execute(status -> {
+					try (Stream<KeyValue<Typable>> keyValues = this.keyValueService.streamByKeyStart("scan_")) {
+						return keyValues.map(KeyValue::getValue).toList();
+					}
+				}));
+		this.keyValueService.deleteAll(List.of("scan_1", "scan_2", "scan_3", "scanX4"));
+	}
+
 	/**
 	 * Locks an entry and holds for a while.
 	 *
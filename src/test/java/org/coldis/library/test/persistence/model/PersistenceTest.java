@@ -1,26 +1,53 @@
 package org.coldis.library.test.persistence.model;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
+import org.apache.commons.collections4.IterableUtils;
+import org.coldis.library.exception.IntegrationException;
+import org.coldis.library.persistence.configuration.JpaAutoConfiguration;
+import org.coldis.library.persistence.converter.AbstractJsonConverter;
+import org.coldis.library.persistence.converter.JsonCompressionHelper;
+import org.coldis.library.persistence.converter.JsonConverterRegistry;
+import org.coldis.library.persistence.converter.LazyJsonValue;
+import org.coldis.library.persistence.converter.MapJsonConverter;
+import org.coldis.library.serialization.ObjectMapperHelper;
 import org.coldis.library.test.ContainerExtension;
 import org.coldis.library.test.TestHelper;
 import org.coldis.library.test.persistence.TestApplication;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.testcontainers.containers.GenericContainer;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import jakarta.persistence.EntityManagerFactory;
+
 /**
  * Persistence model test.
  */
 @ExtendWith(ContainerExtension.class)
 @SpringBootTest(
 		webEnvironment = WebEnvironment.RANDOM_PORT,
-		properties = "test.properties",
+		properties = { "test.properties", "spring.jpa.properties.hibernate.generate_statistics=true" },
 		classes = TestApplication.class
 )
 public class PersistenceTest {
@@ -47,6 +74,18 @@ public class PersistenceTest {
 	@Autowired
 	private TestEntityService testEntityService;
 
+	/**
+	 * Entity manager factory.
+	 */
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * Transaction manager.
+	 */
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
 	/**
 	 * Tests timestamp and expiration.
 	 */
@@ -140,4 +179,249 @@ public class PersistenceTest {
 		Assertions.assertEquals("22", testEntity.getAttribute3().get(1).getAttribute2());
 	}
 
+	/**
+	 * Tests map JSON user type.
+	 */
+	@Test
+	public void testMapUserType() {
+		// Creates a new test entity.
+		TestEntity testEntity = new TestEntity();
+		testEntity.setAttribute4(Map.of("attribute1", "1", "attribute2", 2, "attribute3", List.of("3", Map.of("attribute4", "4"))));
+		// Saves the entity.
+		testEntity = this.testEntityService.save(testEntity);
+		testEntity = this.testEntityRepository.findById(testEntity.getId()).orElse(null);
+		// Asserts that the data has been persisted.
+		Assertions.assertEquals("1", testEntity.getAttribute4().get("attribute1"));
+		Assertions.assertEquals(2, testEntity.getAttribute4().get("attribute2"));
+		Assertions.assertEquals(List.of("3", Map.of("attribute4", "4")), testEntity.getAttribute4().get("attribute3"));
+	}
+
+	/**
+	 * Tests that unchanged JSON attributes do not cause updates.
+	 */
+	@Test
+	public void testUnchangedJsonAttributesNotUpdated() {
+		// Creates a new test entity.
+		TestEntity testEntity = new TestEntity();
+		testEntity.setAttribute4(Map.of("attribute1", "1", "attribute2", List.of(2, 3)));
+		testEntity.setAttribute5(Map.of("attribute1", "1", "attribute2", Map.of("attribute3", List.of(3, 4))));
+		// Saves and reloads the entity.
+		testEntity = this.testEntityService.save(testEntity);
+		testEntity = this.testEntityRepository.findById(testEntity.getId()).orElse(null);
+		final LocalDateTime updatedAt = testEntity.getUpdatedAt();
+		// Saves the entity again without changes and makes sure it was not updated.
+		testEntity = this.testEntityService.save(testEntity);
+		Assertions.assertEquals(updatedAt, testEntity.getUpdatedAt());
+		// Changes a JSON attribute and makes sure the entity is updated.
+		testEntity.getAttribute5().put("attribute4", "4");
+		testEntity = this.testEntityService.save(testEntity);
+		Assertions.assertTrue(updatedAt.isBefore(testEntity.getUpdatedAt()));
+		Assertions.assertEquals("4", this.testEntityRepository.findById(testEntity.getId()).orElse(null).getAttribute5().get("attribute4"));
+	}
+
+	/**
+	 * Tests list JSON user type.
+	 */
+	@Test
+	public void testListUserType() {
+		// Creates a new test entity.
+		TestEntity testEntity = new TestEntity();
+		testEntity.setAttribute8(new ArrayList<>(List.of("1", 2, Map.of("attribute3", "3"))));
+		// Saves the entity.
+		testEntity = this.testEntityService.save(testEntity);
+		testEntity = this.testEntityRepository.findById(testEntity.getId()).orElse(null);
+		// Asserts that the data has been persisted.
+		Assertions.assertEquals(List.of("1", 2, Map.of("attribute3", "3")), testEntity.getAttribute8());
+		// Changes the list and makes sure the change is persisted.
+		testEntity.getAttribute8().add("4");
+		testEntity = this.testEntityService.save(testEntity);
+		testEntity = this.testEntityRepository.findById(testEntity.getId()).orElse(null);
+		Assertions.assertEquals(List.of("1", 2, Map.of("attribute3", "3"), "4"), testEntity.getAttribute8());
+	}
+
+	/**
+	 * Tests typable JSON user type.
+	 */
+	@Test
+	public void testTypableUserType() {
+		// Creates a new test entity.
+		TestEntity testEntity = new TestEntity();
+		testEntity.setAttribute7(new TestObject());
+		testEntity.getAttribute7().setAttribute2("2");
+		// Saves the entity.
+		testEntity = this.testEntityService.save(testEntity);
+		testEntity = this.testEntityRepository.findById(testEntity.getId()).orElse(null);
+		// Asserts that the data has been persisted (with the original type).
+		Assertions.assertEquals(TestObject.class, testEntity.getAttribute7().getClass());
+		Assertions.assertEquals("2", testEntity.getAttribute7().getAttribute2());
+		// Removes the object and makes sure it is removed.
+		testEntity.setAttribute7(null);
+		testEntity = this.testEntityService.save(testEntity);
+		testEntity = this.testEntityRepository.findById(testEntity.getId()).orElse(null);
+		Assertions.assertNull(testEntity.getAttribute7());
+	}
+
+	/**
+	 * Tests that unchanged JSON objects (without equals) do not cause updates.
+	 */
+	@Test
+	public void testUnchangedJsonObjectsNotUpdated() {
+		// Creates a new test entity.
+		TestEntity testEntity = new TestEntity();
+		testEntity.setAttribute7(new TestObject());
+		testEntity.getAttribute7().setAttribute2("2");
+		// Saves and reloads the entity.
+		testEntity = this.testEntityService.save(testEntity);
+		testEntity = this.testEntityRepository.findById(testEntity.getId()).orElse(null);
+		final LocalDateTime updatedAt = testEntity.getUpdatedAt();
+		// Saves the entity again without changes and makes sure it was not updated.
+		testEntity = this.testEntityService.save(testEntity);
+		Assertions.assertEquals(updatedAt, testEntity.getUpdatedAt());
+		// Changes the object and makes sure the entity is updated.
+		testEntity.getAttribute7().setAttribute2("3");
+		testEntity = this.testEntityService.save(testEntity);
+		Assertions.assertTrue(updatedAt.isBefore(testEntity.getUpdatedAt()));
+		Assertions.assertEquals("3", this.testEntityRepository.findById(testEntity.getId()).orElse(null).getAttribute7().getAttribute2());
+	}
+
+	/**
+	 * Tests that flushing many loaded (unchanged) entities with JSON attributes
+	 * issues no updates.
+	 */
+	@Test
+	public void testUnchangedJsonAttributesNotFlushed() {
+		// Creates the test entities.
+		final List<TestEntity> testEntities = new ArrayList<>();
+		for (int index = 0; index < 1000; index++) {
+			final TestEntity testEntity = new TestEntity();
+			testEntity.setAttribute4(Map.of("attribute1", index, "attribute2", List.of(Map.of("attribute3", "3"))));
+			testEntity.setAttribute7(new TestObject());
+			testEntity.getAttribute7().setAttribute2(Integer.toString(index));
+			testEntity.setAttribute8(new ArrayList<>(List.of("1", index)));
+			testEntities.add(testEntity);
+		}
+		final List<Long> ids = IterableUtils.toList(this.testEntityRepository.saveAll(testEntities)).stream().map(TestEntity::getId).toList();
+		// Loads and flushes the entities without changes and makes sure no update is issued.
+		final Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		final long updates = statistics.getEntityUpdateCount();
+		new TransactionTemplate(this.transactionManager).executeWithoutResult((
+				status) -> Assertions.assertEquals(ids.size(), IterableUtils.size(this.testEntityRepository.findAllById(ids))));
+		Assertions.assertEquals(updates, statistics.getEntityUpdateCount());
+	}
+
+	/**
+	 * Tests lazy JSON attributes.
+	 *
+	 * @throws Exception If the test did not pass.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testLazyJsonAttribute() throws Exception {
+		// Creates a new test entity.
+		TestEntity testEntity = new TestEntity();
+		testEntity.setAttribute6(Map.of("attribute1", "1", "attribute2", List.of(2, 3)));
+		// Saves and reloads the entity.
+		testEntity = this.testEntityService.save(testEntity);
+		testEntity = this.testEntityRepository.findById(testEntity.getId()).orElse(null);
+		// Makes sure the attribute is only parsed on first access (not when hashed).
+		Assertions.assertEquals(testEntity.getLazyAttribute6().hashCode(), testEntity.getLazyAttribute6().copy().hashCode());
+		Assertions.assertFalse(testEntity.getAttribute6Materialized());
+		// Makes sure the attribute can still be parsed after Java serialization.
+		final ByteArrayOutputStream serializedAttribute = new ByteArrayOutputStream();
+		try (ObjectOutputStream output = new ObjectOutputStream(serializedAttribute)) {
+			output.writeObject(testEntity.getLazyAttribute6());
+		}
+		try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(serializedAttribute.toByteArray()))) {
+			Assertions.assertEquals(Map.of("attribute1", "1", "attribute2", List.of(2, 3)), ((LazyJsonValue<Map<String, Object>>) input.readObject()).get());
+		}
+		Assertions.assertFalse(testEntity.getAttribute6Materialized());
+		Assertions.assertEquals(Map.of("attribute1", "1", "attribute2", List.of(2, 3)), testEntity.getAttribute6());
+		Assertions.assertTrue(testEntity.getAttribute6Materialized());
+		// Makes sure changes to the attribute are persisted.
+		testEntity.getAttribute6().put("attribute3", "3");
+		testEntity = this.testEntityService.save(testEntity);
+		testEntity = this.testEntityRepository.findById(testEntity.getId()).orElse(null);
+		Assertions.assertEquals("3", testEntity.getAttribute6().get("attribute3"));
+	}
+
+	/**
+	 * Tests JSON compression (with and without a dictionary).
+	 */
+	@Test
+	public void testJsonCompression() {
+		final byte[] json = "{\"attribute1\":\"1\",\"attribute2\":[1,2,3],\"attribute3\":{\"attribute4\":\"ção\"}}".getBytes(StandardCharsets.UTF_8);
+		// Makes sure values are compressed and decompressed without a dictionary.
+		final byte[] compressed = JsonCompressionHelper.compress(json);
+		Assertions.assertArrayEquals(json, JsonCompressionHelper.decompress(compressed));
+		// Makes sure values are compressed and decompressed with a trained dictionary
+		// (and values compressed before the dictionary can still be decompressed).
+		final byte[] dictionary = JsonCompressionHelper.trainDictionary(List.of(json, json, json), 16);
+		Assertions.assertTrue(dictionary.length <= 16);
+		Assertions.assertTrue(dictionary.length > 0);
+		final int currentDictionaryId = JsonCompressionHelper.getCurrentDictionaryId();
+		JsonCompressionHelper.registerDictionary(99, dictionary);
+		JsonCompressionHelper.setCurrentDictionaryId(99);
+		try {
+			final byte[] dictionaryCompressed = JsonCompressionHelper.compress(json);
+			Assertions.assertArrayEquals(json, JsonCompressionHelper.decompress(dictionaryCompressed));
+			Assertions.assertArrayEquals(json, JsonCompressionHelper.decompress(compressed));
+		}
+		finally {
+			JsonCompressionHelper.setCurrentDictionaryId(currentDictionaryId);
+		}
+		// Makes sure the dictionary size is limited in bytes (not characters).
+		final byte[] multiByteJson = "{\"ção\":\"ção\"}".getBytes(StandardCharsets.UTF_8);
+		Assertions.assertTrue(JsonCompressionHelper.trainDictionary(List.of(multiByteJson, multiByteJson), 13).length <= 13);
+		// Makes sure values shorter than the header are rejected.
+		Assertions.assertThrows(IntegrationException.class, () -> JsonCompressionHelper.decompress(new byte[] { JsonCompressionHelper.FORMAT_VERSION, 0 }));
+	}
+
+	/**
+	 * Tests the JSON converter registry.
+	 */
+	@Test
+	public void testJsonConverterRegistry() {
+		// Makes sure the readers and writers are reused for the same converter type.
+		final MapJsonConverter converter = new MapJsonConverter();
+		final ObjectReader reader = JsonConverterRegistry.getReader(converter);
+		final ObjectWriter writer = JsonConverterRegistry.getWriter(converter);
+		Assertions.assertSame(reader, JsonConverterRegistry.getReader(new MapJsonConverter()));
+		Assertions.assertSame(writer, JsonConverterRegistry.getWriter(new MapJsonConverter()));
+		Assertions.assertEquals(Map.of("attribute1", "1"), converter.convertToEntityAttribute(converter.convertToDatabaseColumn(Map.of("attribute1", "1"))));
+		// Makes sure the readers and writers are rebuilt when the object mapper changes.
+		final ObjectMapper objectMapper = JpaAutoConfiguration.OBJECT_MAPPER;
+		try {
+			JpaAutoConfiguration.OBJECT_MAPPER = objectMapper.copy();
+			Assertions.assertNotSame(reader, JsonConverterRegistry.getReader(converter));
+			Assertions.assertNotSame(writer, JsonConverterRegistry.getWriter(converter));
+			Assertions.assertEquals(Map.of("attribute1", "1"), converter.convertToEntityAttribute(converter.convertToDatabaseColumn(Map.of("attribute1", "1"))));
+		}
+		finally {
+			JpaAutoConfiguration.OBJECT_MAPPER = objectMapper;
+		}
+	}
+
+	/**
+	 * Tests a converter that still reads JSON itself (without a type reference).
+	 */
+	@Test
+	public void testLegacyJsonConverter() {
+		final AbstractJsonConverter<Map<String, Object>> converter = new AbstractJsonConverter<>() {
+
+			@Override
+			@Deprecated
+			protected Map<String, Object> convertToEntityAttribute(
+					final ObjectMapper jsonMapper,
+					final String jsonObject) {
+				return ObjectMapperHelper.deserialize(jsonMapper, jsonObject, new TypeReference<Map<String, Object>>() {}, false);
+			}
+
+		};
+		// Makes sure the JSON is read by the converter (from strings and bytes).
+		final String jsonObject = converter.convertToDatabaseColumn(Map.of("attribute1", "1"));
+		Assertions.assertEquals(Map.of("attribute1", "1"), converter.convertToEntityAttribute(jsonObject));
+		Assertions.assertEquals(Map.of("attribute1", "1"),
+				converter.convertToEntityAttribute(new ByteArrayInputStream(converter.convertToDatabaseBytes(Map.of("attribute1", "1")))));
+	}
+
 }
@@ -1,13 +1,23 @@
 package org.coldis.library.test.persistence.model;
 
 import java.util.List;
+import java.util.Map;
 
 import org.coldis.library.model.Identifiable;
 import org.coldis.library.model.view.ModelView;
+import org.coldis.library.persistence.converter.LazyJsonUserType;
+import org.coldis.library.persistence.converter.LazyJsonValue;
+import org.coldis.library.persistence.converter.ListJsonUserType;
+import org.coldis.library.persistence.converter.MapJsonConverter;
+import org.coldis.library.persistence.converter.MapJsonUserType;
 import org.coldis.library.persistence.converter.TypableJsonConverter;
+import org.coldis.library.persistence.converter.TypableJsonUserType;
 import org.coldis.library.persistence.converter.TypableListJsonConverter;
 import org.coldis.library.persistence.model.AbstractTimestampableExpirableEntity;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.Type;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonView;
 
 import jakarta.persistence.Column;
@@ -16,6 +26,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Transient;
 
 /**
  * Test entity.
@@ -48,6 +59,31 @@ public class TestEntity extends AbstractTimestampableExpirableEntity implements
 	 */
 	private List<TestObject> attribute3;
 
+	/**
+	 * Test attribute.
+	 */
+	private Map<String, Object> attribute4;
+
+	/**
+	 * Test attribute.
+	 */
+	private Map<String, Object> attribute5;
+
+	/**
+	 * Test attribute (lazy).
+	 */
+	private LazyJsonValue<Map<String, Object>> lazyAttribute6;
+
+	/**
+	 * Test attribute.
+	 */
+	private TestObject attribute7;
+
+	/**
+	 * Test attribute.
+	 */
+	private List<Object> attribute8;
+
 	/**
 	 * Gets the id.
 	 *
@@ -132,4 +168,146 @@ public class TestEntity extends AbstractTimestampableExpirableEntity implements
 		this.attribute3 = attribute3;
 	}
 
+	/**
+	 * Gets the attribute4.
+	 *
+	 * @return The attribute4.
+	 */
+	@Type(MapJsonUserType.class)
+	@Column(columnDefinition = "JSONB")
+	@JsonView({ ModelView.Persistent.class, ModelView.Public.class })
+	public Map<String, Object> getAttribute4() {
+		return this.attribute4;
+	}
+
+	/**
+	 * Sets the attribute4.
+	 *
+	 * @param attribute4 New attribute4.
+	 */
+	public void setAttribute4(final Map<String, Object> attribute4) {
+		this.attribute4 = attribute4;
+	}
+
+	/**
+	 * Gets the attribute5.
+	 *
+	 * @return The attribute5.
+	 */
+	@Column(columnDefinition = "JSONB")
+	@Convert(converter = MapJsonConverter.class)
+	@JsonView({ ModelView.Persistent.class, ModelView.Public.class })
+	public Map<String, Object> getAttribute5() {
+		return this.attribute5;
+	}
+
+	/**
+	 * Sets the attribute5.
+	 *
+	 * @param attribute5 New attribute5.
+	 */
+	public void setAttribute5(final Map<String, Object> attribute5) {
+		this.attribute5 = attribute5;
+	}
+
+	/**
+	 * Gets the lazy attribute6.
+	 *
+	 * @return The lazy attribute6.
+	 */
+	@JsonIgnore
+	@Column(columnDefinition = "JSONB")
+	@Type(
+			value = LazyJsonUserType.class,
+			parameters = @Parameter(
+					name = LazyJsonUserType.CONVERTER_PARAMETER,
+					value = "org.coldis.library.persistence.converter.MapJsonConverter"
+			)
+	)
+	protected LazyJsonValue<Map<String, Object>> getLazyAttribute6() {
+		return this.lazyAttribute6;
+	}
+
+	/**
+	 * Sets the lazy attribute6.
+	 *
+	 * @param lazyAttribute6 New lazy attribute6.
+	 */
+	protected void setLazyAttribute6(final LazyJsonValue<Map<String, Object>> lazyAttribute6) {
+		this.lazyAttribute6 = lazyAttribute6;
+	}
+
+	/**
+	 * Gets the attribute6.
+	 *
+	 * @return The attribute6.
+	 */
+	@Transient
+	@JsonView({ ModelView.Persistent.class, ModelView.Public.class })
+	public Map<String, Object> getAttribute6() {
+		return this.lazyAttribute6 == null ? null : this.lazyAttribute6.get();
+	}
+
+	/**
+	 * Sets the attribute6.
+	 *
+	 * @param attribute6 New attribute6.
+	 */
+	public void setAttribute6(final Map<String, Object> attribute6) {
+		this.lazyAttribute6 = LazyJsonValue.of(new MapJsonConverter(), attribute6);
+	}
+
+	/**
+	 * If the attribute6 has been materialized.
+	 *
+	 * @return If the attribute6 has been materialized.
+	 */
+	@Transient
+	@JsonIgnore
+	public Boolean getAttribute6Materialized() {
+		return this.lazyAttribute6 == null || this.lazyAttribute6.isMaterialized();
+	}
+
+	/**
+	 * Gets the attribute7.
+	 *
+	 * @return The attribute7.
+	 */
+	@Type(TypableJsonUserType.class)
+	@Column(columnDefinition = "JSONB")
+	@JsonView({ ModelView.Persistent.class, ModelView.Public.class })
+	public TestObject getAttribute7() {
+		return this.attribute7;
+	}
+
+	/**
+	 * Sets the attribute7.
+	 *
+	 * @param attribute7 New attribute7.
+	 */
+	public void setAttribute7(final TestObject attribute7) {
+		this.attribute7 = attribute7;
+	}
+
+	/**
+	 * Gets the attribute8.
+	 *
+	 * @return The attribute8.
+	 */
+	@Type(ListJsonUserType.class)
+	@Column(columnDefinition = "JSONB")
+	@JsonView({ ModelView.Persistent.class, ModelView.Public.class })
+	public List<Object> getAttribute8() {
+		return this.attribute8;
+	}
+
+	/**
+	 * Sets the attribute8.
+	 *
+	 * @param attribute8 New attribute8.
+	 */
+	public void setAttribute8(final List<Object> attribute8) {
+		this.attribute8 = attribute8;
+	}
+
 }